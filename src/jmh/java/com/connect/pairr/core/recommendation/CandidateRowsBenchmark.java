@@ -0,0 +1,65 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Turning the DATABASE_RANGES candidate rows into a {@link CandidateBatch}: one row per slot,
+ * grouped by user ({@code groupSlotRows}), against one row per candidate with aggregated slot
+ * arrays ({@code aggregatedRows}), as the result set mappings build them. Both start from
+ * {@code rows} slots in total. Reading the rows from PostgreSQL is not included.
+ *
+ * Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="CandidateRowsBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateRowsBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"1", "5", "20"})
+    private int maxSlotsPerUser;
+
+    private List<UserSkillAvailabilityData> slotRows;
+    private List<CandidateSlotsData> aggregatedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(RecommendationBenchmarkData.SEED);
+        slotRows = new ArrayList<>(rows + maxSlotsPerUser);
+        aggregatedRows = new ArrayList<>();
+        while (slotRows.size() < rows) {
+            List<UserSkillAvailabilityData> slots = RecommendationBenchmarkData.candidateSlots(random, maxSlotsPerUser);
+            slotRows.addAll(slots);
+
+            UserSkillAvailabilityData sample = slots.get(0);
+            aggregatedRows.add(new CandidateSlotsData(
+                    sample.userId(), sample.displayName(), sample.proficiency(), sample.rating(),
+                    sample.overallRating(), sample.completedSessionsCount(),
+                    slots.stream().mapToInt(slot -> slot.startTime().toSecondOfDay()).toArray(),
+                    slots.stream().mapToInt(slot -> slot.endTime().toSecondOfDay()).toArray()));
+        }
+    }
+
+    @Benchmark
+    public CandidateBatch groupSlotRows() {
+        return CandidateBatch.of(slotRows.stream().collect(Collectors.groupingBy(UserSkillAvailabilityData::userId)));
+    }
+
+    @Benchmark
+    public CandidateBatch aggregatedRows() {
+        return CandidateBatch.of(aggregatedRows);
+    }
+}
@@ -0,0 +1,101 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Seeded synthetic populations shared by the recommendation benchmarks.
+ *
+ * Slots sit on a quarter-hour grid and ratings on a 0.1 grid; both are drawn from
+ * pre-built instances so fixture memory is dominated by the candidate rows themselves.
+ */
+final class RecommendationBenchmarkData {
+
+    static final long SEED = 42L;
+
+    private static final int GRID_STEPS = 96; // quarter hours per day
+    private static final LocalTime[] TIME_GRID = new LocalTime[GRID_STEPS + 1];
+    private static final BigDecimal[] RATINGS = new BigDecimal[41];
+
+    static {
+        for (int i = 0; i < GRID_STEPS; i++) {
+            TIME_GRID[i] = LocalTime.ofSecondOfDay(i * 900L);
+        }
+        TIME_GRID[GRID_STEPS] = LocalTime.of(23, 59, 59);
+        for (int i = 0; i < RATINGS.length; i++) {
+            RATINGS[i] = BigDecimal.valueOf(10 + i, 1); // 1.0 .. 5.0
+        }
+    }
+
+    private RecommendationBenchmarkData() {}
+
+    static ScoreCalculator scoreCalculator(TimeMatcher timeMatcher) {
+        ScoreCalculator scoreCalculator = new ScoreCalculator(timeMatcher);
+        ReflectionTestUtils.setField(scoreCalculator, "maxOverlapHours", 4);
+        return scoreCalculator;
+    }
+
+    static RequesterSkillData requesterSkill(Random random) {
+        UUID userId = new UUID(random.nextLong(), random.nextLong());
+        BigDecimal overallRating = rating(random);
+        return new RequesterSkillData(userId, UUID.randomUUID(), proficiency(random), rating(random), overallRating);
+    }
+
+    static List<TimeSlotData> requesterSlots(Random random, int maxSlotsPerUser) {
+        int count = 1 + random.nextInt(maxSlotsPerUser);
+        List<TimeSlotData> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(GRID_STEPS);
+            slots.add(new TimeSlotData(TIME_GRID[start], TIME_GRID[endStep(random, start)]));
+        }
+        return slots;
+    }
+
+    static List<UserSkillAvailabilityData> candidateSlots(Random random, int maxSlotsPerUser) {
+        UUID userId = new UUID(random.nextLong(), random.nextLong());
+        ProficiencyLevel proficiency = proficiency(random);
+        BigDecimal skillRating = random.nextInt(4) == 0 ? null : rating(random); // some users are unrated
+        BigDecimal overallRating = skillRating == null ? null : rating(random);
+        long completedSessions = random.nextInt(30);
+
+        int count = 1 + random.nextInt(maxSlotsPerUser);
+        List<UserSkillAvailabilityData> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(GRID_STEPS);
+            slots.add(new UserSkillAvailabilityData(
+                    userId, "Candidate", proficiency, skillRating, overallRating, completedSessions,
+                    TIME_GRID[start], TIME_GRID[endStep(random, start)]));
+        }
+        return slots;
+    }
+
+    static Map<UUID, List<UserSkillAvailabilityData>> population(Random random, int candidates, int maxSlotsPerUser) {
+        Map<UUID, List<UserSkillAvailabilityData>> population = new HashMap<>(candidates * 2);
+        for (int i = 0; i < candidates; i++) {
+            List<UserSkillAvailabilityData> slots = candidateSlots(random, maxSlotsPerUser);
+            population.put(slots.get(0).userId(), slots);
+        }
+        return population;
+    }
+
+    // Slots last between 15 minutes and 4 hours
+    private static int endStep(Random random, int start) {
+        return Math.min(start + 1 + random.nextInt(16), GRID_STEPS);
+    }
+
+    private static ProficiencyLevel proficiency(Random random) {
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        return levels[random.nextInt(levels.length)];
+    }
+
+    private static BigDecimal rating(Random random) {
+        return RATINGS[random.nextInt(RATINGS.length)];
+    }
+}
@@ -0,0 +1,79 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end scoring of a grouped candidate population.
+ *
+ * {@code recommend} converts the grouped candidates on every call, as the DB-backed sources do;
+ * {@code recommendBatch} scores a pre-built {@link CandidateBatch}, as served by the candidate
+ * index. With {@code -prof gc}, the batch variant's gc.alloc.rate.norm should stay flat as
+ * {@code candidates} grows: only the requester and the top K are allocated.
+ *
+ * Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="RecommendationEngineBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RecommendationEngineBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int candidates;
+
+    @Param({"1", "5", "20"})
+    private int maxSlotsPerUser;
+
+    @Param({"10", "100"})
+    private int topK;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    // Vector API factor scoring; run with -Pbenchmark,vector, otherwise both values use the scalar scorer
+    @Param({"false", "true"})
+    private boolean vectorScoring;
+
+    private RecommendationEngine engine;
+    private List<TimeSlotData> requesterSlots;
+    private RequesterSkillData requesterSkill;
+    private Map<UUID, List<UserSkillAvailabilityData>> population;
+    private CandidateBatch batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(RecommendationBenchmarkData.SEED);
+        ScoreCalculator scoreCalculator = RecommendationBenchmarkData.scoreCalculator(new TimeMatcher());
+        engine = new RecommendationEngine(
+                scoreCalculator, ForkJoinPool.commonPool(), BatchScorers.create(scoreCalculator, vectorScoring));
+        ReflectionTestUtils.setField(engine, "parallelThreshold", parallel ? 0 : Integer.MAX_VALUE);
+        requesterSkill = RecommendationBenchmarkData.requesterSkill(random);
+        requesterSlots = RecommendationBenchmarkData.requesterSlots(random, maxSlotsPerUser);
+        population = RecommendationBenchmarkData.population(random, candidates, maxSlotsPerUser);
+        batch = CandidateBatch.of(population);
+    }
+
+    @Benchmark
+    public List<Recommendation> recommend() {
+        return engine.recommend(requesterSlots, requesterSkill, population, topK);
+    }
+
+    @Benchmark
+    public List<Recommendation> recommendBatch() {
+        return engine.recommend(requesterSlots, requesterSkill, batch, topK);
+    }
+}
@@ -0,0 +1,51 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time score (time match plus normalization) for one requester/candidate pair,
+ * cycling through a fixed pool of seeded candidates.
+ *
+ * Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ScoreCalculatorBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreCalculatorBenchmark {
+
+    private static final int POOL_SIZE = 1024; // power of two for cheap cycling
+
+    @Param({"1", "5", "20"})
+    private int maxSlotsPerUser;
+
+    private ScoreCalculator scoreCalculator;
+    private List<TimeSlotData> requesterSlots;
+    private List<UserSkillAvailabilityData>[] candidatePool;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(RecommendationBenchmarkData.SEED);
+        scoreCalculator = RecommendationBenchmarkData.scoreCalculator(new TimeMatcher());
+        requesterSlots = RecommendationBenchmarkData.requesterSlots(random, maxSlotsPerUser);
+        candidatePool = new List[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            candidatePool[i] = RecommendationBenchmarkData.candidateSlots(random, maxSlotsPerUser);
+        }
+    }
+
+    @Benchmark
+    public double computeTimeScore() {
+        return scoreCalculator.computeTimeScore(requesterSlots, candidatePool[next++ & (POOL_SIZE - 1)]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.TimeMatchResult;
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single requester/candidate time match, cycling through a fixed pool of seeded candidates.
+ *
+ * Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="TimeMatcherBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeMatcherBenchmark {
+
+    private static final int POOL_SIZE = 1024; // power of two for cheap cycling
+
+    @Param({"1", "5", "20"})
+    private int maxSlotsPerUser;
+
+    private TimeMatcher timeMatcher;
+    private List<TimeSlotData> requesterSlots;
+    private List<UserSkillAvailabilityData>[] candidatePool;
+    private AvailabilitySlots encodedRequesterSlots;
+    private AvailabilitySlots[] encodedCandidatePool;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(RecommendationBenchmarkData.SEED);
+        timeMatcher = new TimeMatcher();
+        requesterSlots = RecommendationBenchmarkData.requesterSlots(random, maxSlotsPerUser);
+        candidatePool = new List[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            candidatePool[i] = RecommendationBenchmarkData.candidateSlots(random, maxSlotsPerUser);
+        }
+
+        encodedRequesterSlots = AvailabilitySlots.of(requesterSlots, TimeSlotData::startTime, TimeSlotData::endTime);
+        encodedCandidatePool = new AvailabilitySlots[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            encodedCandidatePool[i] = AvailabilitySlots.of(
+                    candidatePool[i], UserSkillAvailabilityData::startTime, UserSkillAvailabilityData::endTime);
+        }
+    }
+
+    @Benchmark
+    public TimeMatchResult findBestMatch() {
+        return timeMatcher.findBestMatch(requesterSlots, candidatePool[next++ & (POOL_SIZE - 1)]);
+    }
+
+    // The original LocalTime sweep on the same pairs, as the baseline
+    @Benchmark
+    public TimeMatchResult findBestMatchSortedSweep() {
+        return timeMatcher.findBestMatchSortedSweep(requesterSlots, candidatePool[next++ & (POOL_SIZE - 1)]);
+    }
+
+    // The sweeps alone, on slots encoded up front as the candidate index holds them
+    @Benchmark
+    public long sweepEncodedSlots() {
+        AvailabilitySlots candidateSlots = encodedCandidatePool[next++ & (POOL_SIZE - 1)];
+        return timeMatcher.bestOverlapSeconds(encodedRequesterSlots, candidateSlots)
+                + timeMatcher.bestGapSeconds(encodedRequesterSlots, candidateSlots);
+    }
+}
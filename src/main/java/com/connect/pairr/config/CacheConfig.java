@@ -12,12 +12,34 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class CacheConfig {
 
+    public static final String RECOMMENDATIONS_CACHE = "recommendations";
+    public static final String RECOMMENDATION_SNAPSHOTS_CACHE = "recommendationSnapshots";
+    public static final String CHAT_ROUTES_CACHE = "chatRoutes";
+
     @Value("${cache.user-existence.ttl-minutes:60}")
     private int userExistenceTtlMinutes;
 
     @Value("${cache.user-existence.max-size:10000}")
     private int userExistenceMaxSize;
 
+    @Value("${cache.recommendations.ttl-minutes:10}")
+    private int recommendationsTtlMinutes;
+
+    @Value("${cache.recommendations.max-size:10000}")
+    private int recommendationsMaxSize;
+
+    @Value("${cache.recommendation-snapshots.ttl-minutes:2}")
+    private int recommendationSnapshotsTtlMinutes;
+
+    @Value("${cache.recommendation-snapshots.max-size:1000}")
+    private int recommendationSnapshotsMaxSize;
+
+    @Value("${cache.chat-routes.ttl-minutes:10}")
+    private int chatRoutesTtlMinutes;
+
+    @Value("${cache.chat-routes.max-size:10000}")
+    private int chatRoutesMaxSize;
+
     @Bean
     public CacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager("userExistence");
@@ -27,6 +49,30 @@ public class CacheConfig {
                         .maximumSize(userExistenceMaxSize)
                         .recordStats()
         );
+
+        // Invalidated by domain events (see RecommendationCacheService); the TTL is only a backstop
+        cacheManager.registerCustomCache(RECOMMENDATIONS_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(recommendationsTtlMinutes, TimeUnit.MINUTES)
+                        .maximumSize(recommendationsMaxSize)
+                        .recordStats()
+                        .build());
+
+        // Ranked snapshots that paged requests read from; kept stable (not invalidated) while a client browses
+        cacheManager.registerCustomCache(RECOMMENDATION_SNAPSHOTS_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(recommendationSnapshotsTtlMinutes, TimeUnit.MINUTES)
+                        .maximumSize(recommendationSnapshotsMaxSize)
+                        .recordStats()
+                        .build());
+
+        // Conversation and sender name per (sender, recipient), read by every WebSocket message
+        cacheManager.registerCustomCache(CHAT_ROUTES_CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(chatRoutesTtlMinutes, TimeUnit.MINUTES)
+                        .maximumSize(chatRoutesMaxSize)
+                        .recordStats()
+                        .build());
         return cacheManager;
     }
 }
\ No newline at end of file
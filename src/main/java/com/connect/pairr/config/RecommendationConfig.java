@@ -0,0 +1,41 @@
+package com.connect.pairr.config;
+
+import com.connect.pairr.core.recommendation.BatchScorer;
+import com.connect.pairr.core.recommendation.BatchScorers;
+import com.connect.pairr.core.recommendation.ScoreCalculator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableScheduling // precomputed recommendation jobs
+public class RecommendationConfig {
+
+    // 0 = one worker per available processor
+    @Value("${recommendation.engine.parallelism:0}")
+    private int parallelism;
+
+    @Value("${recommendation.engine.vector-scoring:true}")
+    private boolean vectorScoring;
+
+    /**
+     * Dedicated pool for parallel candidate scoring, so large recommendation requests
+     * do not compete with other users of the common pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool recommendationPool() {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Vector API scorer when built with {@code -Pvector} and the JVM runs with
+     * {@code --add-modules jdk.incubator.vector}, scalar otherwise.
+     */
+    @Bean
+    public BatchScorer batchScorer(ScoreCalculator scoreCalculator) {
+        return BatchScorers.create(scoreCalculator, vectorScoring);
+    }
+}
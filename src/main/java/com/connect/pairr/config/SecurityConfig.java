@@ -60,10 +60,31 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Health stays public for the platform's probes; metrics, caches and the rest are admin-only
+    @Bean
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain oauthFilterChain(HttpSecurity http) throws Exception {
         http
-                .securityMatcher("/login/**", "/oauth2/**", "/ws/**", "/chat-test.html", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/actuator/health")
+                .securityMatcher("/login/**", "/oauth2/**", "/ws/**", "/chat-test.html", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html")
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
@@ -94,6 +115,8 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of(allowedOrigins));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of("X-Recommendation-Source", "X-Recommendation-Age-Seconds", "X-Recommendation-Exact",
+                "X-Recommendation-Candidates-Evaluated", "X-Recommendation-Candidates-Total"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
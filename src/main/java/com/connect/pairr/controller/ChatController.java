@@ -1,12 +1,15 @@
 package com.connect.pairr.controller;
 
 import com.connect.pairr.model.dto.ConversationResponse;
+import com.connect.pairr.model.dto.MessageHistoryPage;
 import com.connect.pairr.model.dto.MessageResponse;
 import com.connect.pairr.model.dto.SendMessageRequest;
 import com.connect.pairr.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
@@ -14,6 +17,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -21,6 +25,7 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/chat")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Chat", description = "1:1 messaging — send messages, list conversations, view history")
 public class ChatController {
 
@@ -63,4 +68,18 @@ public class ChatController {
     ) {
         return ResponseEntity.ok(chatService.getMessages(userId, conversationId, pageable));
     }
+
+    @GetMapping("/conversations/{conversationId}/history")
+    @Operation(summary = "Scroll back through message history", description = "Returns up to limit messages older than the before cursor (or the newest ones if omitted), oldest first. Pass nextCursor as before to continue; it is null at the start of the conversation. Unlike the paged endpoint, deep pages are as fast as the first and no total is counted. The first page marks messages as read.")
+    public ResponseEntity<MessageHistoryPage> getMessageHistory(
+            @AuthenticationPrincipal UUID userId,
+            @PathVariable UUID conversationId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50")
+            @Min(value = 1, message = "limit must be at least 1")
+            @Max(value = 100, message = "limit must be at most 100")
+            int limit
+    ) {
+        return ResponseEntity.ok(chatService.getMessageHistory(userId, conversationId, before, limit));
+    }
 }
@@ -1,11 +1,16 @@
 package com.connect.pairr.controller;
 
+import com.connect.pairr.model.dto.BatchRecommendationRequest;
+import com.connect.pairr.model.dto.BatchRecommendationResult;
 import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationPage;
+import com.connect.pairr.model.dto.RecommendationResult;
 import com.connect.pairr.model.enums.DayType;
 import com.connect.pairr.service.RecommendationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,7 +37,7 @@ public class RecommendationController {
     private final RecommendationService recommendationService;
 
     @GetMapping
-    @Operation(summary = "Get partner recommendations", description = "Returns top-N candidates ranked by weighted scoring: time overlap (50%), proficiency similarity (25%), skill rating (15%), user rating (10%)")
+    @Operation(summary = "Get partner recommendations", description = "Returns top-N candidates ranked by weighted scoring: time overlap (50%), proficiency similarity (25%), skill rating (15%), user rating (10%). Headers X-Recommendation-Source (LIVE or PRECOMPUTED) and X-Recommendation-Age-Seconds report where the ranking came from and how old it is. Rankings computed within a latency budget for very large pools add X-Recommendation-Exact, X-Recommendation-Candidates-Evaluated and X-Recommendation-Candidates-Total")
     public ResponseEntity<List<Recommendation>> getRecommendations(
             @AuthenticationPrincipal UUID userId,
             @RequestParam UUID skillId,
@@ -39,17 +46,51 @@ public class RecommendationController {
             @Min(value = 1, message = "numberOfCandidates must be at least 1")
             @Max(value = 100, message = "numberOfCandidates must be at most 100")
             int numberOfRecommendations
+    ) {
+        RecommendationResult result = recommendationService.getRecommendations(
+                userId,
+                skillId,
+                dayType,
+                numberOfRecommendations
+        );
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Recommendation-Source", result.source().name())
+                .header("X-Recommendation-Age-Seconds", String.valueOf(result.ageSeconds()));
+        if (result.coverage() != null) {
+            response.header("X-Recommendation-Exact", String.valueOf(result.coverage().exact()))
+                    .header("X-Recommendation-Candidates-Evaluated", String.valueOf(result.coverage().candidatesEvaluated()))
+                    .header("X-Recommendation-Candidates-Total", String.valueOf(result.coverage().candidatesTotal()));
+        }
+        return response.body(result.recommendations());
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get partner recommendations for several skills and day types", description = "Answers each (skillId, dayType) query like the list endpoint, in one round trip. Queries that cannot be served (missing skill or availability) carry an error instead of failing the batch")
+    public ResponseEntity<List<BatchRecommendationResult>> getBatchRecommendations(
+            @AuthenticationPrincipal UUID userId,
+            @RequestBody @Valid BatchRecommendationRequest request
     ) {
         return ResponseEntity.ok(
-                recommendationService.getRecommendations(
-                        userId,
-                        skillId,
-                        dayType,
-                        numberOfRecommendations
-                )
+                recommendationService.getBatchRecommendations(userId, request.queries(), request.numberOfRecommendations())
         );
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Browse partner recommendations page by page", description = "Returns one page of the same ranking as the list endpoint, beyond its 100-result cap. Pass nextCursor from the previous page to continue")
+    public ResponseEntity<RecommendationPage> getRecommendationPage(
+            @AuthenticationPrincipal UUID userId,
+            @RequestParam UUID skillId,
+            @RequestParam DayType dayType,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "pageSize must be at least 1")
+            @Max(value = 100, message = "pageSize must be at most 100")
+            int pageSize,
+            @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(
+                recommendationService.getRecommendationPage(userId, skillId, dayType, pageSize, cursor)
+        );
+    }
 
 }
 
@@ -2,7 +2,7 @@ package com.connect.pairr.controller;
 
 import com.connect.pairr.model.dto.MessageResponse;
 import com.connect.pairr.model.dto.SendMessageRequest;
-import com.connect.pairr.service.ChatService;
+import com.connect.pairr.service.ChatMessageWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -16,14 +16,15 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class WebSocketChatController {
 
-    private final ChatService chatService;
+    private final ChatMessageWriter chatMessageWriter;
     private final SimpMessagingTemplate messagingTemplate;
 
     @MessageMapping("/chat.send")
     public void sendMessage(@Payload SendMessageRequest request, Principal principal) {
         UUID senderId = UUID.fromString(principal.getName());
 
-        MessageResponse response = chatService.sendMessage(senderId, request);
+        // Accepted with its final ID and time; written to the database in the background
+        MessageResponse response = chatMessageWriter.send(senderId, request);
 
         // Send to recipient's personal queue
         messagingTemplate.convertAndSendToUser(
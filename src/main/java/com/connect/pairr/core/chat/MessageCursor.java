@@ -0,0 +1,40 @@
+package com.connect.pairr.core.chat;
+
+import com.connect.pairr.exception.InvalidMessageCursorException;
+import com.connect.pairr.model.entity.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a conversation's history: the (createdAt, id) of the oldest message a client has seen.
+ *
+ * History is ordered by creation time, then message ID, so the cursor identifies where the next
+ * (older) page starts however many messages arrive meanwhile, and the page is found with an index
+ * seek rather than by skipping rows. Clients see it as an opaque URL-safe string.
+ */
+public record MessageCursor(Instant createdAt, UUID id) {
+
+    public static MessageCursor before(Message message) {
+        return new MessageCursor(message.getCreatedAt(), message.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + ',' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(',');
+            return new MessageCursor(
+                    Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidMessageCursorException();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.AvailabilitySlotData;
+import com.connect.pairr.model.enums.DayType;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Process-wide interval index over every user's availability slots, one tree per {@link DayType}.
+ *
+ * Each tree is a treap ordered by slot start and augmented with the maximum end of each subtree,
+ * so finding the slots that overlap a query slot costs O(log n + k) for k matches, and a user's
+ * slots can be replaced in O(s log n) without rebuilding. Overlap follows {@link TimeMatcher}:
+ * slots that only touch do not overlap, and a slot crossing midnight is indexed as the same two
+ * intervals {@link AvailabilitySlots} encodes it as, so it matches both evening and morning slots.
+ *
+ * Writes are versioned like {@link CandidateIndex}'s: a user is only replaced by slots read no
+ * earlier than the ones they already have.
+ */
+@Component
+public class AvailabilityIntervalIndex {
+
+    private final Map<DayType, IntervalTree> trees = new EnumMap<>(DayType.class);
+    private final Map<UUID, List<Slot>> slotsByUser = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Users changed before the initial load completed; they must be reloaded afterwards
+    private final Set<UUID> pendingUserIds = new HashSet<>();
+
+    private final AtomicLong versions = new AtomicLong();
+    // Version of the slots each refreshed user was last replaced with; others date from the load
+    private final Map<UUID, Long> versionByUser = new HashMap<>();
+    private long loadedVersion;
+
+    private volatile boolean ready;
+
+    public AvailabilityIntervalIndex() {
+        for (DayType dayType : DayType.values()) {
+            trees.put(dayType, new IntervalTree());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the users with at least one slot on {@code dayType} that overlaps one of the requester's slots.
+     */
+    public Set<UUID> findOverlappingUsers(DayType dayType, AvailabilitySlots requesterSlots) {
+        Set<UUID> userIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            IntervalTree tree = trees.get(dayType);
+            for (int i = 0; i < requesterSlots.size(); i++) {
+                tree.collectOverlapping(requesterSlots.start(i), requesterSlots.end(i), userIds);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return userIds;
+    }
+
+    /**
+     * Version for a write, to be taken before its rows are read; see {@link CandidateIndex#nextVersion}.
+     */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    /**
+     * Replaces the whole index with the given slots and marks it ready.
+     */
+    public void load(List<AvailabilitySlotData> rows, long version) {
+        lock.writeLock().lock();
+        try {
+            trees.values().forEach(IntervalTree::clear);
+            slotsByUser.clear();
+            versionByUser.clear();
+            loadedVersion = version;
+            rows.forEach(this::insert);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the slots of the given users with the given rows.
+     * Users already replaced by a later version are left alone: those slots are at least as new.
+     * Before the initial load, the users are only remembered so they can be reloaded afterwards.
+     */
+    public void replaceUsers(Collection<UUID> userIds, List<AvailabilitySlotData> rows, long version) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                pendingUserIds.addAll(userIds);
+                return;
+            }
+            Set<UUID> replaced = new HashSet<>();
+            for (UUID userId : userIds) {
+                if (version < versionByUser.getOrDefault(userId, loadedVersion)) continue;
+
+                versionByUser.put(userId, version);
+                replaced.add(userId);
+                List<Slot> slots = slotsByUser.remove(userId);
+                if (slots != null) {
+                    slots.forEach(slot -> trees.get(slot.dayType()).remove(slot));
+                }
+            }
+            for (AvailabilitySlotData row : rows) {
+                if (replaced.contains(row.userId())) insert(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns and clears the users that changed before the initial load completed.
+     */
+    public Set<UUID> drainPendingUserIds() {
+        lock.writeLock().lock();
+        try {
+            Set<UUID> drained = new HashSet<>(pendingUserIds);
+            pendingUserIds.clear();
+            return drained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(AvailabilitySlotData row) {
+        int start = row.startTime().toSecondOfDay();
+        int end = row.endTime().toSecondOfDay();
+        if (start == end) return; // cannot overlap anything
+
+        if (end > start) {
+            index(new Slot(row.userId(), row.dayType(), start, end));
+        } else {
+            index(new Slot(row.userId(), row.dayType(), start, end + AvailabilitySlots.SECONDS_PER_DAY));
+            if (end > 0) index(new Slot(row.userId(), row.dayType(), start - AvailabilitySlots.SECONDS_PER_DAY, end));
+        }
+    }
+
+    private void index(Slot slot) {
+        trees.get(slot.dayType()).insert(slot);
+        slotsByUser.computeIfAbsent(slot.userId(), id -> new ArrayList<>()).add(slot);
+    }
+
+    private record Slot(UUID userId, DayType dayType, int start, int end) {}
+
+    // Treap keyed by (start, end, userId), each node holding the max end of its subtree
+    private static final class IntervalTree {
+
+        private static final Comparator<Slot> ORDER = Comparator
+                .comparingInt(Slot::start)
+                .thenComparingInt(Slot::end)
+                .thenComparing(Slot::userId);
+
+        private static final class Node {
+            final Slot slot;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            int count = 1; // a user may list the same slot twice
+            int maxEnd;
+            Node left;
+            Node right;
+
+            Node(Slot slot) {
+                this.slot = slot;
+                this.maxEnd = slot.end();
+            }
+        }
+
+        private Node root;
+
+        void clear() {
+            root = null;
+        }
+
+        void insert(Slot slot) {
+            root = insert(root, slot);
+        }
+
+        void remove(Slot slot) {
+            root = remove(root, slot);
+        }
+
+        void collectOverlapping(int start, int end, Set<UUID> userIds) {
+            collectOverlapping(root, start, end, userIds);
+        }
+
+        private static void collectOverlapping(Node node, int start, int end, Set<UUID> userIds) {
+            // Nothing below ends after the query starts
+            if (node == null || node.maxEnd <= start) return;
+
+            collectOverlapping(node.left, start, end, userIds);
+            // This node and everything to its right start at or after the query ends
+            if (node.slot.start() >= end) return;
+
+            if (node.slot.end() > start) {
+                userIds.add(node.slot.userId());
+            }
+            collectOverlapping(node.right, start, end, userIds);
+        }
+
+        private static Node insert(Node node, Slot slot) {
+            if (node == null) return new Node(slot);
+
+            int cmp = ORDER.compare(slot, node.slot);
+            if (cmp == 0) {
+                node.count++;
+                return node;
+            }
+            if (cmp < 0) {
+                node.left = insert(node.left, slot);
+                if (node.left.priority > node.priority) node = rotateRight(node);
+            } else {
+                node.right = insert(node.right, slot);
+                if (node.right.priority > node.priority) node = rotateLeft(node);
+            }
+            update(node);
+            return node;
+        }
+
+        private static Node remove(Node node, Slot slot) {
+            if (node == null) return null;
+
+            int cmp = ORDER.compare(slot, node.slot);
+            if (cmp < 0) {
+                node.left = remove(node.left, slot);
+            } else if (cmp > 0) {
+                node.right = remove(node.right, slot);
+            } else if (--node.count > 0) {
+                return node;
+            } else {
+                return merge(node.left, node.right);
+            }
+            update(node);
+            return node;
+        }
+
+        // Joins two treaps where every key in left is smaller than every key in right
+        private static Node merge(Node left, Node right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                update(left);
+                return left;
+            }
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+
+        private static Node rotateRight(Node node) {
+            Node pivot = node.left;
+            node.left = pivot.right;
+            pivot.right = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        private static Node rotateLeft(Node node) {
+            Node pivot = node.right;
+            node.right = pivot.left;
+            pivot.left = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        private static void update(Node node) {
+            int maxEnd = node.slot.end();
+            if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+            if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+            node.maxEnd = maxEnd;
+        }
+    }
+}
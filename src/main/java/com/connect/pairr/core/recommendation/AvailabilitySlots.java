@@ -0,0 +1,143 @@
+package com.connect.pairr.core.recommendation;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compact, immutable encoding of a user's availability for one day type.
+ *
+ * Slots are stored as parallel second-of-day arrays sorted by start time, so time matching
+ * works on primitives only: no per-comparison {@link LocalTime} or {@code Duration} objects.
+ * The ends are also kept in a separately sorted array, which lets {@link TimeMatcher} find gaps
+ * with a linear merge. Both orders are computed once per encoding, so callers that keep the
+ * encoding (the candidate index, one requester per request) never sort again per pair.
+ *
+ * A slot whose end is before its start, such as 22:00-02:00, crosses midnight: it runs to the
+ * end time of the next day. It is stored as the interval {@code [start, end + 24h)} plus its
+ * morning part, the same interval shifted a day back, {@code [start - 24h, end)}. Comparing the
+ * intervals of two encodings pairwise then matches a midnight-crossing slot against the evening
+ * and the morning of the day alike. Slots that do not cross midnight stay on the day's timeline.
+ */
+public final class AvailabilitySlots {
+
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    public static final AvailabilitySlots EMPTY = new AvailabilitySlots(new int[0], new int[0], new int[0], 0);
+
+    // Intervals sorted by start, then end
+    private final int[] startSeconds;
+    private final int[] endSeconds;
+    // The same ends, sorted on their own
+    private final int[] sortedEndSeconds;
+    private final int slotCount;
+
+    private AvailabilitySlots(int[] startSeconds, int[] endSeconds, int[] sortedEndSeconds, int slotCount) {
+        this.startSeconds = startSeconds;
+        this.endSeconds = endSeconds;
+        this.sortedEndSeconds = sortedEndSeconds;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Encodes and sorts the given slots. Sub-second precision is dropped.
+     */
+    public static <T> AvailabilitySlots of(List<T> slots, Function<T, LocalTime> startTime, Function<T, LocalTime> endTime) {
+        if (slots == null || slots.isEmpty()) return EMPTY;
+
+        long[] packed = new long[slots.size() * 2];
+        int count = 0;
+        for (T slot : slots) {
+            count = pack(packed, count, startTime.apply(slot).toSecondOfDay(), endTime.apply(slot).toSecondOfDay());
+        }
+        return sorted(packed, count, slots.size());
+    }
+
+    /**
+     * Encodes and sorts slots given as parallel second-of-day arrays, in the shape
+     * {@code UserSkillRepository.getRecommendationCandidates} aggregates them.
+     */
+    public static AvailabilitySlots ofSeconds(int[] startSeconds, int[] endSeconds) {
+        if (startSeconds == null || startSeconds.length == 0) return EMPTY;
+
+        long[] packed = new long[startSeconds.length * 2];
+        int count = 0;
+        for (int i = 0; i < startSeconds.length; i++) {
+            count = pack(packed, count, startSeconds[i], endSeconds[i]);
+        }
+        return sorted(packed, count, startSeconds.length);
+    }
+
+    // Packs (start, end) into one long so a primitive sort orders by start, then end.
+    // Both are offset by a day so the morning parts of midnight-crossing slots pack as non-negative
+    private static int pack(long[] packed, int count, int start, int end) {
+        if (end < start) {
+            packed[count++] = pack(start, end + SECONDS_PER_DAY);
+            // A slot ending exactly at midnight has no morning part
+            if (end > 0) packed[count++] = pack(start - SECONDS_PER_DAY, end);
+        } else {
+            packed[count++] = pack(start, end);
+        }
+        return count;
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) (start + SECONDS_PER_DAY) << 32) | (end + SECONDS_PER_DAY);
+    }
+
+    private static AvailabilitySlots sorted(long[] packed, int count, int slotCount) {
+        Arrays.sort(packed, 0, count);
+
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = (int) (packed[i] >>> 32) - SECONDS_PER_DAY;
+            ends[i] = (int) packed[i] - SECONDS_PER_DAY;
+        }
+        int[] sortedEnds = ends.clone();
+        Arrays.sort(sortedEnds);
+        return new AvailabilitySlots(starts, ends, sortedEnds, slotCount);
+    }
+
+    /**
+     * Number of encoded intervals; a slot crossing midnight counts twice.
+     */
+    public int size() {
+        return startSeconds.length;
+    }
+
+    public boolean isEmpty() {
+        return startSeconds.length == 0;
+    }
+
+    /**
+     * Number of slots this encoding was built from.
+     */
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Start of the {@code index}-th interval in seconds of the day, negative for the morning part of
+     * a midnight-crossing slot. Intervals are ordered by start, then end.
+     */
+    public int start(int index) {
+        return startSeconds[index];
+    }
+
+    /**
+     * End of the {@code index}-th interval in seconds of the day, past {@link #SECONDS_PER_DAY}
+     * for a slot crossing midnight.
+     */
+    public int end(int index) {
+        return endSeconds[index];
+    }
+
+    /**
+     * The {@code index}-th smallest interval end.
+     */
+    public int sortedEnd(int index) {
+        return sortedEndSeconds[index];
+    }
+}
@@ -0,0 +1,30 @@
+package com.connect.pairr.core.recommendation;
+
+/**
+ * Scores a block of candidates of a {@link CandidateBatch} at once, column by column.
+ *
+ * Every implementation must return exactly what {@link ScoreCalculator}'s per-candidate
+ * methods return, including the two-decimal rounding of {@link ScoreCalculator#computeFinalScore},
+ * so the choice of implementation never changes a ranking.
+ */
+public interface BatchScorer {
+
+    /**
+     * Fills the proficiency, skill rating, user rating and session count scores of the
+     * {@code count} candidates starting at {@code candidates.rows[from]}.
+     * Requester ratings are normalised as in {@link ScoreCalculator#normalizedRating}.
+     */
+    void scoreFactors(int requesterLevel, double requesterSkillRating, double requesterOverallRating,
+                      CandidateBatch candidates, int from, int count, ScoreBlock block);
+
+    /**
+     * Fills {@code upperBounds} with the final scores the block's candidates would get with a
+     * perfect time score, as {@link ScoreCalculator#maxFinalScore} does. Needs the factor scores.
+     */
+    void upperBounds(ScoreBlock block, int count);
+
+    /**
+     * Fills {@code finalScores} from the factor and time scores, as {@link ScoreCalculator#computeFinalScore} does.
+     */
+    void finalScores(ScoreBlock block, int count);
+}
@@ -0,0 +1,45 @@
+package com.connect.pairr.core.recommendation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the {@link BatchScorer} for this JVM.
+ */
+@Slf4j
+public final class BatchScorers {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    // Compiled from src/vector/java under the vector Maven profile only, so it is looked up by name
+    private static final String VECTOR_SCORER = "com.connect.pairr.core.recommendation.VectorBatchScorer";
+
+    private BatchScorers() {}
+
+    /**
+     * Returns the Vector API scorer if requested, built with the {@code vector} profile and the JVM
+     * was started with {@code --add-modules jdk.incubator.vector}, otherwise the scalar one.
+     * Both score identically.
+     */
+    public static BatchScorer create(ScoreCalculator scoreCalculator, boolean vectorEnabled) {
+        if (!vectorEnabled) {
+            return new ScalarBatchScorer(scoreCalculator);
+        }
+        Class<?> vectorScorer;
+        try {
+            vectorScorer = Class.forName(VECTOR_SCORER, false, BatchScorers.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            log.info("Built without the vector profile (./mvnw -Pvector package), using scalar batch scoring");
+            return new ScalarBatchScorer(scoreCalculator);
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("{} is not available (start the JVM with --add-modules {}), using scalar batch scoring",
+                    VECTOR_MODULE, VECTOR_MODULE);
+            return new ScalarBatchScorer(scoreCalculator);
+        }
+        try {
+            return (BatchScorer) vectorScorer.getDeclaredConstructor(ScoreCalculator.class).newInstance(scoreCalculator);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Could not load the Vector API batch scorer, using scalar batch scoring", e);
+            return new ScalarBatchScorer(scoreCalculator);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.Recommendation;
+
+import java.util.List;
+
+/**
+ * Result of {@link RecommendationEngine#recommendWithinBudget}.
+ *
+ * @param recommendations     top recommendations, ranked as by the exact path
+ * @param candidateCount      candidates in the pool
+ * @param evaluatedCount      candidates that were time-matched
+ * @param exact               true if the budget was not hit, so the ranking equals the exact one
+ */
+public record BudgetedRanking(
+        List<Recommendation> recommendations,
+        int candidateCount,
+        int evaluatedCount,
+        boolean exact
+) {
+}
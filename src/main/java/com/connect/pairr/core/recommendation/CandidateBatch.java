@@ -0,0 +1,204 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Column-oriented, immutable snapshot of the candidates for one skill and day type.
+ *
+ * Everything the engine reads per candidate is decoded once when the batch is built: slots
+ * as {@link AvailabilitySlots}, proficiency as its level and ratings pre-normalised to doubles
+ * ({@code NaN} when unrated). Scoring a batch therefore touches primitives only and allocates
+ * nothing per candidate. Numeric columns are all {@code double[]}, so a {@link BatchScorer} can
+ * load them straight into vector lanes; levels and session counts are small integers and exact.
+ *
+ * A batch can be restricted to a subset of its users; the restricted batch shares the columns
+ * and only carries the positions it selects.
+ */
+public final class CandidateBatch {
+
+    public static final CandidateBatch EMPTY = of(Map.of());
+
+    // Columns, one entry per candidate
+    final UUID[] userIds;
+    final String[] displayNames;
+    final double[] proficiencyLevels;
+    final double[] skillRatings;
+    final double[] overallRatings;
+    final double[] completedSessions;
+    final AvailabilitySlots[] slots;
+
+    // Column positions of the candidates in this batch, ascending
+    final int[] rows;
+
+    // Availability slots of the candidates in this batch, i.e. the candidate rows they came from
+    private final int slotCount;
+
+    private final Map<UUID, Integer> positionByUser;
+
+    // Built on first use by the bounded-latency path; a race only builds it twice
+    private volatile CandidateBuckets buckets;
+
+    private CandidateBatch(CandidateBatch columns, int[] rows) {
+        this.userIds = columns.userIds;
+        this.displayNames = columns.displayNames;
+        this.proficiencyLevels = columns.proficiencyLevels;
+        this.skillRatings = columns.skillRatings;
+        this.overallRatings = columns.overallRatings;
+        this.completedSessions = columns.completedSessions;
+        this.slots = columns.slots;
+        this.positionByUser = columns.positionByUser;
+        this.rows = rows;
+        int slots = 0;
+        for (int row : rows) {
+            slots += this.slots[row].slotCount();
+        }
+        this.slotCount = slots;
+    }
+
+    private CandidateBatch(int size, int slotCount) {
+        this.userIds = new UUID[size];
+        this.displayNames = new String[size];
+        this.proficiencyLevels = new double[size];
+        this.skillRatings = new double[size];
+        this.overallRatings = new double[size];
+        this.completedSessions = new double[size];
+        this.slots = new AvailabilitySlots[size];
+        this.positionByUser = new HashMap<>(size * 2);
+        this.rows = new int[size];
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Builds a batch from candidate rows grouped by user ID, one row per availability slot.
+     * Users without rows are left out.
+     */
+    public static CandidateBatch of(Map<UUID, List<UserSkillAvailabilityData>> groupedCandidates) {
+        int size = 0;
+        int slotCount = 0;
+        for (List<UserSkillAvailabilityData> candidateData : groupedCandidates.values()) {
+            if (candidateData != null && !candidateData.isEmpty()) {
+                size++;
+                slotCount += candidateData.size();
+            }
+        }
+
+        CandidateBatch batch = new CandidateBatch(size, slotCount);
+        int position = 0;
+        for (var entry : groupedCandidates.entrySet()) {
+            List<UserSkillAvailabilityData> candidateData = entry.getValue();
+            if (candidateData == null || candidateData.isEmpty()) continue;
+
+            // Every row of a candidate carries the same user and skill columns
+            UserSkillAvailabilityData sample = candidateData.get(0);
+            batch.put(position++, entry.getKey(), sample.displayName(), sample.proficiency(),
+                    sample.rating(), sample.overallRating(), sample.completedSessionsCount(),
+                    AvailabilitySlots.of(candidateData, UserSkillAvailabilityData::startTime, UserSkillAvailabilityData::endTime));
+        }
+        return batch;
+    }
+
+    /**
+     * Builds a batch from one entry per candidate, with the candidate's slots already aggregated,
+     * as {@code UserSkillRepository.getRecommendationCandidates} returns them. Needs no grouping.
+     * Candidates without slots are left out.
+     */
+    public static CandidateBatch of(List<CandidateSlotsData> candidates) {
+        int size = 0;
+        int slotCount = 0;
+        for (CandidateSlotsData candidate : candidates) {
+            if (candidate.startSeconds() != null && candidate.startSeconds().length > 0) {
+                size++;
+                slotCount += candidate.startSeconds().length;
+            }
+        }
+
+        CandidateBatch batch = new CandidateBatch(size, slotCount);
+        int position = 0;
+        for (CandidateSlotsData candidate : candidates) {
+            if (candidate.startSeconds() == null || candidate.startSeconds().length == 0) continue;
+
+            batch.put(position++, candidate.userId(), candidate.displayName(), candidate.proficiency(),
+                    candidate.rating(), candidate.overallRating(), candidate.completedSessionsCount(),
+                    AvailabilitySlots.ofSeconds(candidate.startSeconds(), candidate.endSeconds()));
+        }
+        return batch;
+    }
+
+    private void put(int position, UUID userId, String displayName, ProficiencyLevel proficiency,
+                     BigDecimal rating, BigDecimal overallRating, Long completedSessionsCount,
+                     AvailabilitySlots availability) {
+        userIds[position] = userId;
+        displayNames[position] = displayName;
+        proficiencyLevels[position] = proficiency.getLevel();
+        skillRatings[position] = ScoreCalculator.normalizedRating(rating);
+        overallRatings[position] = ScoreCalculator.normalizedRating(overallRating);
+        completedSessions[position] = completedSessionsCount == null ? 0 : completedSessionsCount;
+        slots[position] = availability;
+        positionByUser.put(userId, position);
+        rows[position] = position;
+    }
+
+    /**
+     * Returns a batch holding only those of the given users that are in this batch.
+     */
+    public CandidateBatch restrictTo(Collection<UUID> userIdsToKeep) {
+        int[] selected = new int[Math.min(userIdsToKeep.size(), rows.length)];
+        int count = 0;
+        for (UUID userId : userIdsToKeep) {
+            Integer position = positionByUser.get(userId);
+            if (position != null && contains(position) && count < selected.length) {
+                selected[count++] = position;
+            }
+        }
+        int[] restricted = Arrays.copyOf(selected, count);
+        Arrays.sort(restricted);
+        return new CandidateBatch(this, restricted);
+    }
+
+    /**
+     * A batch of the given column positions, which must be ascending and part of this batch.
+     */
+    CandidateBatch withRows(int[] positions) {
+        return new CandidateBatch(this, positions);
+    }
+
+    /**
+     * This batch's candidates grouped by proficiency level and rating tier, built once per batch.
+     */
+    CandidateBuckets buckets() {
+        CandidateBuckets built = buckets;
+        if (built == null) {
+            built = CandidateBuckets.of(this);
+            buckets = built;
+        }
+        return built;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public boolean isEmpty() {
+        return rows.length == 0;
+    }
+
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * User ID of the {@code index}-th candidate of this batch, {@code 0 <= index < size()}.
+     */
+    public UUID userId(int index) {
+        return userIds[rows[index]];
+    }
+
+    private boolean contains(int position) {
+        return rows.length == userIds.length || Arrays.binarySearch(rows, position) >= 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.connect.pairr.core.recommendation;
+
+/**
+ * The candidates of a {@link CandidateBatch} grouped by proficiency level and skill rating tier
+ * (whole stars, plus one tier for unrated), for {@link RecommendationEngine#recommendWithinBudget}.
+ *
+ * Each bucket is a restricted batch sharing the parent's columns, and keeps the range of every
+ * factor input its members have. A requester's best possible score in a bucket can therefore be
+ * computed without looking at the members, and never underestimates any of them.
+ */
+final class CandidateBuckets {
+
+    // Normalised ratings are stars / 5, so 0.2 to 1.0 in tiers 1 to 5; unrated gets its own
+    private static final int RATING_TIERS = 7;
+    private static final int UNRATED_TIER = RATING_TIERS - 1;
+
+    final CandidateBatch[] members;
+    final int[] proficiencyLevels;
+    // Ranges over the bucket's rated members; NaN when none is rated
+    final double[] minSkillRatings;
+    final double[] maxSkillRatings;
+    final double[] minOverallRatings;
+    final double[] maxOverallRatings;
+    final double[] maxCompletedSessions;
+
+    private CandidateBuckets(int count) {
+        this.members = new CandidateBatch[count];
+        this.proficiencyLevels = new int[count];
+        this.minSkillRatings = new double[count];
+        this.maxSkillRatings = new double[count];
+        this.minOverallRatings = new double[count];
+        this.maxOverallRatings = new double[count];
+        this.maxCompletedSessions = new double[count];
+    }
+
+    static CandidateBuckets of(CandidateBatch batch) {
+        int maxLevel = 0;
+        for (int row : batch.rows) {
+            maxLevel = Math.max(maxLevel, (int) batch.proficiencyLevels[row]);
+        }
+
+        // Counting sort of the rows by bucket key; rows stay ascending within each bucket
+        int[] keys = new int[batch.rows.length];
+        int[] sizes = new int[(maxLevel + 1) * RATING_TIERS];
+        for (int k = 0; k < batch.rows.length; k++) {
+            int row = batch.rows[k];
+            keys[k] = (int) batch.proficiencyLevels[row] * RATING_TIERS + ratingTier(batch.skillRatings[row]);
+            sizes[keys[k]]++;
+        }
+
+        int count = 0;
+        int[] bucketOfKey = new int[sizes.length];
+        for (int key = 0; key < sizes.length; key++) {
+            bucketOfKey[key] = sizes[key] > 0 ? count++ : -1;
+        }
+
+        CandidateBuckets buckets = new CandidateBuckets(count);
+        int[][] rows = new int[count][];
+        int[] filled = new int[count];
+        for (int key = 0; key < sizes.length; key++) {
+            int bucket = bucketOfKey[key];
+            if (bucket < 0) continue;
+            rows[bucket] = new int[sizes[key]];
+            buckets.proficiencyLevels[bucket] = key / RATING_TIERS;
+            buckets.minSkillRatings[bucket] = Double.NaN;
+            buckets.maxSkillRatings[bucket] = Double.NaN;
+            buckets.minOverallRatings[bucket] = Double.NaN;
+            buckets.maxOverallRatings[bucket] = Double.NaN;
+        }
+
+        for (int k = 0; k < batch.rows.length; k++) {
+            int bucket = bucketOfKey[keys[k]];
+            int row = batch.rows[k];
+            rows[bucket][filled[bucket]++] = row;
+
+            buckets.minSkillRatings[bucket] = min(buckets.minSkillRatings[bucket], batch.skillRatings[row]);
+            buckets.maxSkillRatings[bucket] = max(buckets.maxSkillRatings[bucket], batch.skillRatings[row]);
+            buckets.minOverallRatings[bucket] = min(buckets.minOverallRatings[bucket], batch.overallRatings[row]);
+            buckets.maxOverallRatings[bucket] = max(buckets.maxOverallRatings[bucket], batch.overallRatings[row]);
+            buckets.maxCompletedSessions[bucket] = Math.max(buckets.maxCompletedSessions[bucket], batch.completedSessions[row]);
+        }
+
+        for (int bucket = 0; bucket < count; bucket++) {
+            buckets.members[bucket] = batch.withRows(rows[bucket]);
+        }
+        return buckets;
+    }
+
+    int size() {
+        return members.length;
+    }
+
+    private static int ratingTier(double normalizedRating) {
+        if (Double.isNaN(normalizedRating)) return UNRATED_TIER;
+        return Math.max(0, Math.min(UNRATED_TIER - 1, (int) (normalizedRating * 5)));
+    }
+
+    // NaN (unrated) values are skipped; a NaN accumulator takes the first rated value
+    private static double min(double current, double value) {
+        if (Double.isNaN(value)) return current;
+        return Double.isNaN(current) ? value : Math.min(current, value);
+    }
+
+    private static double max(double current, double value) {
+        if (Double.isNaN(value)) return current;
+        return Double.isNaN(current) ? value : Math.max(current, value);
+    }
+}
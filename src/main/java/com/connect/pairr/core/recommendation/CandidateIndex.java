@@ -0,0 +1,181 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.enums.DayType;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process index of recommendation candidates keyed by (skillId, dayType).
+ *
+ * Each entry maps a candidate's user ID to the same aggregated row that
+ * {@code UserSkillRepository.getRecommendationCandidates} would return for them,
+ * so the engine can consume it without changes.
+ *
+ * Reads are lock-free; writes are serialized and replace a user's entries as a whole,
+ * which keeps the per-candidate entries immutable for concurrent readers.
+ *
+ * Each key's candidates are also served as a {@link CandidateBatch} for the engine's
+ * allocation-free path. Batches are built on first read and dropped by any write to their key.
+ *
+ * Rows are read from the database before the write lock is taken, so two refreshes of the same
+ * user can apply in the opposite order to their reads. Each write therefore carries a version
+ * from {@link #nextVersion}, taken before its rows were read, and a user is only replaced by rows
+ * at least as new as the ones they already have.
+ */
+@Component
+public class CandidateIndex {
+
+    private record Key(UUID skillId, DayType dayType) {}
+
+    private final Map<Key, Map<UUID, CandidateSlotsData>> candidatesByKey = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Key>> keysByUser = new HashMap<>();
+    private final Map<Key, CandidateBatch> batchesByKey = new ConcurrentHashMap<>();
+
+    // Users changed before the initial load completed; they must be reloaded afterwards
+    private final Set<UUID> pendingUserIds = new HashSet<>();
+
+    private final AtomicLong versions = new AtomicLong();
+    // Version of the rows each refreshed user was last replaced with; others date from the load
+    private final Map<UUID, Long> versionByUser = new HashMap<>();
+    private long loadedVersion;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns a read-only view of all candidates for the given skill and day type,
+     * including the requester if they hold the skill themselves.
+     */
+    public Map<UUID, CandidateSlotsData> getCandidates(UUID skillId, DayType dayType) {
+        Map<UUID, CandidateSlotsData> candidates = candidatesByKey.get(new Key(skillId, dayType));
+        return candidates == null ? Map.of() : Collections.unmodifiableMap(candidates);
+    }
+
+    /**
+     * Returns the candidates for the given skill and day type as a batch, built once and
+     * reused until one of them changes. Includes the requester, as {@link #getCandidates} does.
+     */
+    public CandidateBatch getCandidateBatch(UUID skillId, DayType dayType) {
+        Key key = new Key(skillId, dayType);
+        CandidateBatch batch = batchesByKey.get(key);
+        return batch != null ? batch : buildBatch(key);
+    }
+
+    /**
+     * Version for a write, to be taken before its rows are read. Rows read after a commit are
+     * tagged with a version greater than that of any refresh that was already reading.
+     */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    /**
+     * Replaces the whole index with the given rows and marks it ready.
+     */
+    public synchronized void load(List<CandidateIndexData> rows, long version) {
+        candidatesByKey.clear();
+        keysByUser.clear();
+        batchesByKey.clear();
+        versionByUser.clear();
+        loadedVersion = version;
+        groupByUser(rows).forEach(this::putUser);
+        ready = true;
+    }
+
+    /**
+     * Brings a loaded index up to date with a full read of the rows, replacing users one at a time
+     * as {@link #replaceUsers} does, so readers never see it empty. Users refreshed by a newer version
+     * while the rows were read keep their entries. Loads the index if it is not loaded yet.
+     */
+    public synchronized void reload(List<CandidateIndexData> rows, long version) {
+        if (!ready) {
+            load(rows, version);
+            return;
+        }
+        Set<UUID> userIds = new HashSet<>(keysByUser.keySet());
+        rows.forEach(row -> userIds.add(row.userId()));
+        replaceUsers(userIds, rows, version);
+
+        // Everyone not refreshed since now dates from this reload
+        loadedVersion = Math.max(loadedVersion, version);
+        versionByUser.values().removeIf(userVersion -> userVersion <= loadedVersion);
+    }
+
+    /**
+     * Replaces the entries of the given users with the given rows.
+     * Users without rows (no skill or no availability left) are removed.
+     * Users already replaced by a later version are left alone: those rows are at least as new.
+     * Before the initial load, the users are only remembered so they can be reloaded afterwards.
+     */
+    public synchronized void replaceUsers(Collection<UUID> userIds, List<CandidateIndexData> rows, long version) {
+        if (!ready) {
+            pendingUserIds.addAll(userIds);
+            return;
+        }
+        Map<UUID, List<CandidateIndexData>> rowsByUser = groupByUser(rows);
+        for (UUID userId : userIds) {
+            if (version < versionByUser.getOrDefault(userId, loadedVersion)) continue;
+
+            versionByUser.put(userId, version);
+            removeUser(userId);
+            List<CandidateIndexData> userRows = rowsByUser.get(userId);
+            if (userRows != null) putUser(userId, userRows);
+        }
+    }
+
+    /**
+     * Returns and clears the users that changed before the initial load completed.
+     */
+    public synchronized Set<UUID> drainPendingUserIds() {
+        Set<UUID> drained = new HashSet<>(pendingUserIds);
+        pendingUserIds.clear();
+        return drained;
+    }
+
+    private void removeUser(UUID userId) {
+        Set<Key> keys = keysByUser.remove(userId);
+        if (keys == null) return;
+
+        for (Key key : keys) {
+            batchesByKey.remove(key);
+            Map<UUID, CandidateSlotsData> candidates = candidatesByKey.get(key);
+            if (candidates == null) continue;
+            candidates.remove(userId);
+            if (candidates.isEmpty()) candidatesByKey.remove(key);
+        }
+    }
+
+    private void putUser(UUID userId, List<CandidateIndexData> userRows) {
+        // One row per (skill, day type), with the slots already aggregated
+        Set<Key> keys = new HashSet<>();
+        for (CandidateIndexData row : userRows) {
+            Key key = new Key(row.skillId(), row.dayType());
+            keys.add(key);
+            batchesByKey.remove(key);
+            candidatesByKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                    .put(userId, row.toCandidateSlots());
+        }
+        keysByUser.put(userId, keys);
+    }
+
+    // Serialized with writes, so a batch is never built from a key that is being changed
+    private synchronized CandidateBatch buildBatch(Key key) {
+        return batchesByKey.computeIfAbsent(key, k -> CandidateBatch.of(List.copyOf(candidatesByKey.getOrDefault(k, Map.of()).values())));
+    }
+
+    private static Map<UUID, List<CandidateIndexData>> groupByUser(List<CandidateIndexData> rows) {
+        Map<UUID, List<CandidateIndexData>> rowsByUser = new HashMap<>();
+        for (CandidateIndexData row : rows) {
+            rowsByUser.computeIfAbsent(row.userId(), k -> new ArrayList<>()).add(row);
+        }
+        return rowsByUser;
+    }
+}
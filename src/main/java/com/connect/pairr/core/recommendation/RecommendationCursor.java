@@ -0,0 +1,51 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.exception.InvalidRecommendationCursorException;
+import com.connect.pairr.model.dto.Recommendation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Position in a ranking: the (score, userId) of the last recommendation a client has seen.
+ *
+ * Because the ranking order is total (score descending, then user ID), the cursor identifies
+ * where the next page starts even if that user is no longer in the ranking.
+ * Clients see it as an opaque URL-safe string.
+ */
+public record RecommendationCursor(double score, UUID userId) {
+
+    public static RecommendationCursor after(Recommendation recommendation) {
+        return new RecommendationCursor(recommendation.score(), recommendation.userId());
+    }
+
+    public String encode() {
+        String raw = Double.toString(score) + ':' + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecommendationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new RecommendationCursor(
+                    Double.parseDouble(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidRecommendationCursorException();
+        }
+    }
+
+    /**
+     * Index of the first recommendation ranked after this cursor in a list sorted by ranking.
+     * O(log n); earlier pages are never re-scanned or re-sorted.
+     */
+    public int startIndexIn(List<Recommendation> ranked) {
+        Recommendation position = Recommendation.builder().userId(userId).score(score).build();
+        int index = Collections.binarySearch(ranked, position, TopRecommendations.RANKING);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+}
@@ -1,27 +1,58 @@
 package com.connect.pairr.core.recommendation;
 
+import com.connect.pairr.model.dto.CandidateSlotsData;
 import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.dto.UserSkillAvailabilityData;
-import com.connect.pairr.model.entity.UserAvailability;
-import com.connect.pairr.model.entity.UserSkill;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 public class RecommendationEngine {
 
+    // Below this many candidates per worker, splitting further costs more than it saves
+    private static final int MIN_CANDIDATES_PER_TASK = 1024;
+
     private final ScoreCalculator scoreCalculator;
+    private final ForkJoinPool recommendationPool;
+    private final BatchScorer batchScorer;
+
+    @Value("${recommendation.engine.parallel-threshold:10000}")
+    private int parallelThreshold;
+
+    @Value("${recommendation.engine.pruning-enabled:true}")
+    private boolean pruningEnabled = true;
+
+    // Candidates whose time matching was skipped because they could not enter the top N
+    private final LongAdder prunedCandidates = new LongAdder();
 
     /**
      * Generates recommendations using a priority queue to efficiently find top N candidates.
      *
-     * Uses a min-heap (PriorityQueue) to maintain only the top N recommendations,
+     * The candidates are first copied into a {@link CandidateBatch}; prefer passing a cached
+     * batch directly when the same candidates are scored repeatedly.
+     *
+     * Uses a min-heap to maintain only the top N recommendations,
      * avoiding the need to sort all candidates. This is especially beneficial when
      * there are many candidates (1000+) but only a few recommendations are needed.
      *
+     * Above {@code recommendation.engine.parallel-threshold} candidates, scoring is split
+     * across the recommendation ForkJoinPool with one bounded heap per task, and the heaps
+     * are merged at the end. Ties are broken by user ID, so both paths return the same list.
+     *
+     * Once a heap is full, the cheap factors are scored first and the time factor is assumed
+     * to be perfect; candidates that cannot beat the heap's worst entry even then are skipped
+     * without running the {@link TimeMatcher} (branch and bound). This never changes results.
+     *
      * Complexity: O(n log k) where:
      *   n = number of candidates
      *   k = numberOfCandidates (typically 10-100)
@@ -30,11 +61,11 @@ public class RecommendationEngine {
      * @param requesterUserSkill Requester's skill information
      * @param groupedCandidates Map of candidate IDs to their availability data
      * @param numberOfCandidates Maximum number of recommendations to return
-     * @return List of top recommendations sorted by score (descending)
+     * @return List of top recommendations sorted by score (descending), then user ID
      */
     public List<Recommendation> recommend(
-            List<UserAvailability> requesterAvailabilities,
-            UserSkill requesterUserSkill,
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
             Map<UUID, List<UserSkillAvailabilityData>> groupedCandidates,
             int numberOfCandidates
     ) {
@@ -42,45 +73,396 @@ public class RecommendationEngine {
                 || groupedCandidates == null || groupedCandidates.isEmpty()) {
             return List.of();
         }
+        return recommend(requesterAvailabilities, requesterUserSkill, CandidateBatch.of(groupedCandidates), numberOfCandidates);
+    }
 
-        // Use min-heap to keep only top N candidates
-        // Comparator: lower score = higher priority (so we can remove worst easily)
-        PriorityQueue<Recommendation> topRecommendations = new PriorityQueue<>(
-                numberOfCandidates + 1, // +1 to avoid resizing
-                Comparator.comparingDouble(Recommendation::score) // Min-heap: smallest score at top
+    /**
+     * Allocation-free variant on a pre-built {@link CandidateBatch}, with the same results as the
+     * grouped-candidates variant.
+     *
+     * Factor scores are computed a block of candidates at a time by the {@link BatchScorer}, which
+     * uses the Vector API when the JVM provides it and gives identical scores either way.
+     *
+     * The requester is decoded once per call; each candidate is then scored from the batch's
+     * primitive columns into a {@link TopCandidates} heap of scores and batch positions, and
+     * {@link Recommendation}s are only created for the final winners. Nothing is allocated per
+     * scored candidate, so reusing a cached batch (see {@link CandidateIndex#getCandidateBatch})
+     * keeps garbage independent of the number of candidates.
+     *
+     * @param requesterAvailabilities Requester's availability slots
+     * @param requesterUserSkill Requester's skill information
+     * @param candidates Candidates to score
+     * @param numberOfCandidates Maximum number of recommendations to return
+     * @param stats Receives the number of candidates and slots and, if timed, the time spent per stage
+     * @return List of top recommendations sorted by score (descending), then user ID
+     */
+    public List<Recommendation> recommend(
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
+            CandidateBatch candidates,
+            int numberOfCandidates,
+            ScoringStats stats
+    ) {
+        if (requesterAvailabilities == null || requesterAvailabilities.isEmpty()
+                || candidates == null || candidates.isEmpty()) {
+            return List.of();
+        }
+
+        stats.addCandidates(candidates.size(), candidates.slotCount());
+        Requester requester = Requester.of(requesterAvailabilities, requesterUserSkill);
+
+        TopCandidates topCandidates;
+        if (candidates.size() <= parallelThreshold) {
+            topCandidates = new TopCandidates(candidates, numberOfCandidates);
+            scoreRange(topCandidates, requester, candidates, 0, candidates.size(), stats);
+        } else {
+            int taskSize = Math.max(MIN_CANDIDATES_PER_TASK,
+                    candidates.size() / (recommendationPool.getParallelism() * 4));
+            topCandidates = recommendationPool.invoke(new ScoringTask(
+                    requester, candidates, 0, candidates.size(), taskSize, numberOfCandidates, stats));
+        }
+
+        long rankingStart = stats.now();
+        List<Recommendation> recommendations = topCandidates.toSortedList();
+        stats.addRanking(stats.now() - rankingStart);
+        return recommendations;
+    }
+
+    public List<Recommendation> recommend(
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
+            CandidateBatch candidates,
+            int numberOfCandidates
+    ) {
+        return recommend(requesterAvailabilities, requesterUserSkill, candidates, numberOfCandidates, ScoringStats.NONE);
+    }
+
+    /**
+     * Bounded-latency variant of {@link #recommend(List, RequesterSkillData, CandidateBatch, int, ScoringStats)}
+     * for very large pools, scored sequentially.
+     *
+     * Candidates are taken bucket by bucket ({@link CandidateBuckets}: proficiency level and skill
+     * rating tier), best bucket first, where a bucket's promise is the highest score any of its
+     * members could reach with a perfect time score. Scoring stops early in two cases:
+     * <ul>
+     *   <li>The heap is full and the next bucket's best possible score is below its worst entry.
+     *       No later bucket can do better, so the ranking is still exact.</li>
+     *   <li>The budget's time limit or evaluation count is reached. Candidates not yet scored are
+     *       left out, so the ranking may miss some that belong in it.</li>
+     * </ul>
+     * Within a bucket, candidates are pruned and scored as in the exact path.
+     *
+     * @return the ranking, with how many candidates were time-matched and whether it is exact
+     */
+    public BudgetedRanking recommendWithinBudget(
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
+            CandidateBatch candidates,
+            int numberOfCandidates,
+            ScoringBudget budget,
+            ScoringStats stats
+    ) {
+        if (requesterAvailabilities == null || requesterAvailabilities.isEmpty()
+                || candidates == null || candidates.isEmpty()) {
+            return new BudgetedRanking(List.of(), 0, 0, true);
+        }
+
+        long deadline = System.nanoTime() + budget.timeLimit().toNanos();
+        stats.addCandidates(candidates.size(), candidates.slotCount());
+        Requester requester = Requester.of(requesterAvailabilities, requesterUserSkill);
+
+        long factorsStart = stats.now();
+        CandidateBuckets buckets = candidates.buckets();
+        double[] bounds = new double[buckets.size()];
+        Integer[] order = new Integer[buckets.size()];
+        for (int b = 0; b < buckets.size(); b++) {
+            bounds[b] = bucketBound(buckets, b, requester);
+            order[b] = b;
+        }
+        Arrays.sort(order, (left, right) -> Double.compare(bounds[right], bounds[left]));
+        stats.addFactors(stats.now() - factorsStart);
+
+        TopCandidates topCandidates = new TopCandidates(candidates, numberOfCandidates);
+        int evaluated = 0;
+        boolean exact = true;
+        scoring:
+        for (int b : order) {
+            // Buckets are in descending order of their bound, so none of the rest can enter either
+            if (topCandidates.rejectsAllUpTo(bounds[b])) break;
+
+            CandidateBatch members = buckets.members[b];
+            for (int from = 0; from < members.size(); from += ScoreBlock.SIZE) {
+                if (evaluated >= budget.maxEvaluations() || System.nanoTime() - deadline >= 0) {
+                    exact = false;
+                    break scoring;
+                }
+                evaluated += scoreRange(topCandidates, requester, members,
+                        from, Math.min(from + ScoreBlock.SIZE, members.size()), stats);
+            }
+        }
+
+        long rankingStart = stats.now();
+        List<Recommendation> recommendations = topCandidates.toSortedList();
+        stats.addRanking(stats.now() - rankingStart);
+        return new BudgetedRanking(recommendations, candidates.size(), evaluated, exact);
+    }
+
+    // Best final score any member of the bucket could get: perfect time, and for each other factor
+    // the member value closest to the requester's. Ratings outside the bucket's range score lower
+    private double bucketBound(CandidateBuckets buckets, int bucket, Requester requester) {
+        return scoreCalculator.maxFinalScore(
+                scoreCalculator.proficiencyScore(requester.proficiencyLevel(), buckets.proficiencyLevels[bucket]),
+                scoreCalculator.ratingScore(requester.skillRating(),
+                        closestInRange(requester.skillRating(), buckets.minSkillRatings[bucket], buckets.maxSkillRatings[bucket])),
+                scoreCalculator.ratingScore(requester.overallRating(),
+                        closestInRange(requester.overallRating(), buckets.minOverallRatings[bucket], buckets.maxOverallRatings[bucket])),
+                scoreCalculator.sessionCountScore((long) buckets.maxCompletedSessions[bucket]));
+    }
+
+    // NaN if nobody in the range is rated or the requester is unrated; ratingScore gives 0 for either
+    private static double closestInRange(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Streaming variant for candidate rows with their slots aggregated, one row per candidate.
+     *
+     * Each candidate is scored as it arrives, so memory is bounded by the heap size and the
+     * slots of one candidate rather than by the number of candidates. The caller owns and
+     * closes the stream.
+     *
+     * @param requesterAvailabilities Requester's availability slots
+     * @param requesterUserSkill Requester's skill information
+     * @param candidateRows Candidate rows, one per candidate
+     * @param numberOfCandidates Maximum number of recommendations to return
+     * @param stats Receives the number of candidates and slots and, if timed, the time spent matching
+     *              slots; the rest of the time is spent reading the stream and cannot be split off
+     * @return List of top recommendations sorted by score (descending), then user ID
+     */
+    public List<Recommendation> recommend(
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
+            Stream<CandidateSlotsData> candidateRows,
+            int numberOfCandidates,
+            ScoringStats stats
+    ) {
+        if (requesterAvailabilities == null || requesterAvailabilities.isEmpty() || candidateRows == null) {
+            return List.of();
+        }
+
+        TopRecommendations topRecommendations = new TopRecommendations(numberOfCandidates);
+        // Encoded and sorted once, not once per candidate
+        AvailabilitySlots requesterSlots =
+                AvailabilitySlots.of(requesterAvailabilities, TimeSlotData::startTime, TimeSlotData::endTime);
+        long candidateCount = 0;
+        long slotCount = 0;
+
+        Iterator<CandidateSlotsData> rows = candidateRows.iterator();
+        while (rows.hasNext()) {
+            CandidateSlotsData candidate = rows.next();
+            if (candidate.startSeconds() == null || candidate.startSeconds().length == 0) continue;
+
+            scoreInto(topRecommendations, requesterSlots, requesterUserSkill, candidate, stats);
+            candidateCount++;
+            slotCount += candidate.startSeconds().length;
+        }
+
+        stats.addCandidates(candidateCount, slotCount);
+        return topRecommendations.toSortedList();
+    }
+
+    public List<Recommendation> recommend(
+            List<TimeSlotData> requesterAvailabilities,
+            RequesterSkillData requesterUserSkill,
+            Stream<CandidateSlotsData> candidateRows,
+            int numberOfCandidates
+    ) {
+        return recommend(requesterAvailabilities, requesterUserSkill, candidateRows, numberOfCandidates, ScoringStats.NONE);
+    }
+
+    /**
+     * Total number of candidates skipped by branch-and-bound pruning since startup.
+     */
+    public long getPrunedCandidatesCount() {
+        return prunedCandidates.sum();
+    }
+
+    private void scoreInto(
+            TopRecommendations topRecommendations,
+            AvailabilitySlots requesterSlots,
+            RequesterSkillData requesterUserSkill,
+            CandidateSlotsData candidate,
+            ScoringStats stats
+    ) {
+        UUID candidateId = candidate.userId();
+        // The candidate index holds every user with the skill, including the requester
+        if (candidateId.equals(requesterUserSkill.userId())) return;
+
+        double proficiencyScore = scoreCalculator.proficiencyScore(requesterUserSkill.proficiency(), candidate.proficiency());
+        double skillRatingScore = scoreCalculator.skillRatingScore(requesterUserSkill.rating(), candidate.rating());
+        double userRatingScore = scoreCalculator.userRatingScore(requesterUserSkill.overallRating(), candidate.overallRating());
+        double sessionCountScore = scoreCalculator.sessionCountScore(candidate.completedSessionsCount());
+
+        if (pruningEnabled) {
+            double upperBound = scoreCalculator.maxFinalScore(proficiencyScore, skillRatingScore, userRatingScore, sessionCountScore);
+            if (!topRecommendations.wouldAccept(upperBound, candidateId)) {
+                prunedCandidates.increment();
+                return;
+            }
+        }
+
+        long timeMatchingStart = stats.now();
+        double timeScore = scoreCalculator.timeScore(requesterSlots,
+                AvailabilitySlots.ofSeconds(candidate.startSeconds(), candidate.endSeconds()));
+        stats.addTimeMatching(stats.now() - timeMatchingStart);
+
+        double finalScore = scoreCalculator.computeFinalScore(
+                timeScore,
+                proficiencyScore,
+                skillRatingScore,
+                userRatingScore,
+                sessionCountScore
         );
 
-        for (var entry : groupedCandidates.entrySet()) {
-            UUID candidateId = entry.getKey();
-            List<UserSkillAvailabilityData> candidateData = entry.getValue();
-            if (candidateData == null || candidateData.isEmpty()) continue;
+        Recommendation recommendation = Recommendation.builder()
+                .userId(candidateId)
+                .displayName(candidate.displayName())
+                .score(finalScore)
+                .build();
+
+        topRecommendations.offer(recommendation);
+    }
+
+    /**
+     * Scores {@code candidates.rows[from, to)} in blocks of {@link ScoreBlock#SIZE}. The factors that
+     * need no time matching, and with pruning the upper bounds, are computed for a whole block by the
+     * {@link BatchScorer}. With pruning, the final score of each survivor is computed right away so
+     * the heap, and with it the pruning threshold, tightens after every candidate; without it, the
+     * final scores are also computed per block.
+     *
+     * When timed, time matching is measured per survivor with pruning and per block without;
+     * whatever is neither factors nor time matching (bound checks, heap) counts as ranking.
+     *
+     * @return the number of candidates that were time-matched
+     */
+    private int scoreRange(TopCandidates topCandidates, Requester requester, CandidateBatch candidates,
+                           int from, int to, ScoringStats stats) {
+        long rangeStart = stats.now();
+        long factorsNanos = 0;
+        long timeMatchingNanos = 0;
+        int evaluated = 0;
+
+        ScoreBlock block = new ScoreBlock();
+        for (int blockFrom = from; blockFrom < to; blockFrom += ScoreBlock.SIZE) {
+            int count = Math.min(ScoreBlock.SIZE, to - blockFrom);
 
-            UserSkillAvailabilityData sample = candidateData.get(0);
+            long factorsStart = stats.now();
+            batchScorer.scoreFactors(requester.proficiencyLevel(), requester.skillRating(), requester.overallRating(),
+                    candidates, blockFrom, count, block);
+            if (pruningEnabled) {
+                batchScorer.upperBounds(block, count);
+            }
+            factorsNanos += stats.now() - factorsStart;
 
-            double finalScore = scoreCalculator.computeFinalScore(
-                    scoreCalculator.computeTimeScore(requesterAvailabilities, candidateData),
-                    scoreCalculator.proficiencyScore(requesterUserSkill.getProficiency(), sample.proficiency()),
-                    scoreCalculator.skillRatingScore(requesterUserSkill.getRating(), sample.rating()),
-                    scoreCalculator.userRatingScore(requesterUserSkill.getUser().getOverallRating(), sample.overallRating()),
-                    scoreCalculator.sessionCountScore(sample.completedSessionsCount())
-            );
+            if (pruningEnabled) {
+                for (int k = 0; k < count; k++) {
+                    int i = candidates.rows[blockFrom + k];
+                    // The candidate index holds every user with the skill, including the requester
+                    if (candidates.userIds[i].equals(requester.userId())) continue;
 
-            Recommendation recommendation = Recommendation.builder()
-                    .userId(candidateId)
-                    .displayName(sample.displayName())
-                    .score(finalScore)
-                    .build();
+                    if (!topCandidates.wouldAccept(block.upperBounds[k], i)) {
+                        prunedCandidates.increment();
+                        continue;
+                    }
 
-            topRecommendations.offer(recommendation);
+                    long timeMatchingStart = stats.now();
+                    double timeScore = scoreCalculator.timeScore(requester.slots(), candidates.slots[i]);
+                    timeMatchingNanos += stats.now() - timeMatchingStart;
+                    evaluated++;
 
-            // Keep only top N
-            if (topRecommendations.size() > numberOfCandidates) {
-                topRecommendations.poll(); // Remove worst
+                    double finalScore = scoreCalculator.computeFinalScore(
+                            timeScore,
+                            block.proficiencyScores[k],
+                            block.skillRatingScores[k],
+                            block.userRatingScores[k],
+                            block.sessionCountScores[k]
+                    );
+                    topCandidates.offer(finalScore, i);
+                }
+            } else {
+                long timeMatchingStart = stats.now();
+                for (int k = 0; k < count; k++) {
+                    block.timeScores[k] = scoreCalculator.timeScore(requester.slots(), candidates.slots[candidates.rows[blockFrom + k]]);
+                }
+                timeMatchingNanos += stats.now() - timeMatchingStart;
+                evaluated += count;
+
+                factorsStart = stats.now();
+                batchScorer.finalScores(block, count);
+                factorsNanos += stats.now() - factorsStart;
+
+                for (int k = 0; k < count; k++) {
+                    int i = candidates.rows[blockFrom + k];
+                    if (candidates.userIds[i].equals(requester.userId())) continue;
+                    topCandidates.offer(block.finalScores[k], i);
+                }
             }
         }
 
-        return topRecommendations.stream()
-                .sorted(Comparator.comparingDouble(Recommendation::score).reversed())
-                .toList();
+        stats.addFactors(factorsNanos);
+        stats.addTimeMatching(timeMatchingNanos);
+        stats.addRanking(stats.now() - rangeStart - factorsNanos - timeMatchingNanos);
+        return evaluated;
+    }
+
+    /**
+     * The requester's side of every comparison, decoded once per call.
+     */
+    private record Requester(UUID userId, AvailabilitySlots slots, int proficiencyLevel, double skillRating, double overallRating) {
+
+        static Requester of(List<TimeSlotData> availabilities, RequesterSkillData userSkill) {
+            return new Requester(
+                    userSkill.userId(),
+                    AvailabilitySlots.of(availabilities, TimeSlotData::startTime, TimeSlotData::endTime),
+                    userSkill.proficiency().getLevel(),
+                    ScoreCalculator.normalizedRating(userSkill.rating()),
+                    ScoreCalculator.normalizedRating(userSkill.overallRating()));
+        }
+    }
+
+    /**
+     * Scores a slice of the batch into its own bounded heap, splitting in halves
+     * until slices are small enough, then merges the halves' heaps.
+     */
+    @RequiredArgsConstructor
+    private class ScoringTask extends RecursiveTask<TopCandidates> {
+
+        private final Requester requester;
+        private final CandidateBatch candidates;
+        private final int from;
+        private final int to;
+        private final int taskSize;
+        private final int numberOfCandidates;
+        private final ScoringStats stats;
+
+        @Override
+        protected TopCandidates compute() {
+            if (to - from <= taskSize) {
+                TopCandidates topCandidates = new TopCandidates(candidates, numberOfCandidates);
+                scoreRange(topCandidates, requester, candidates, from, to, stats);
+                return topCandidates;
+            }
+
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(requester, candidates, from, middle, taskSize, numberOfCandidates, stats);
+            ScoringTask right = new ScoringTask(requester, candidates, middle, to, taskSize, numberOfCandidates, stats);
+            left.fork();
+            TopCandidates merged = right.compute();
+            TopCandidates other = left.join();
+            long mergeStart = stats.now();
+            merged.merge(other);
+            stats.addRanking(stats.now() - mergeStart);
+            return merged;
+        }
     }
 }
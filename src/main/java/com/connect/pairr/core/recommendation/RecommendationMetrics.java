@@ -0,0 +1,193 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.enums.DayType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency and cardinality metrics of live recommendation requests, tagged by day type.
+ *
+ * <ul>
+ *   <li>{@code pairr.recommendation.stage} timers, tagged by {@code stage} ({@link Stage}).</li>
+ *   <li>{@code pairr.recommendation.candidate.rows}: availability rows scored per request.</li>
+ *   <li>{@code pairr.recommendation.candidates}: distinct candidates scored per request.</li>
+ *   <li>{@code pairr.recommendation.slots.per.candidate}: mean slots per candidate of a request.</li>
+ *   <li>{@code pairr.recommendation.budgeted} counters: requests ranked within a scoring budget,
+ *       tagged by whether the ranking still came out {@code exact}.</li>
+ *   <li>{@code pairr.recommendation.coalesced}: requests that waited for an identical request's
+ *       live computation instead of running their own.</li>
+ *   <li>{@code pairr.recommendation.coalesced.timeout}: requests that gave up waiting for an
+ *       identical request's computation and ran their own.</li>
+ * </ul>
+ *
+ * All meters are registered up front, so recording is a map lookup and no meter is looked up by
+ * name on the request path. Timers and summaries publish percentile histograms, so p50/p99 can be
+ * aggregated across instances in Prometheus.
+ */
+@Component
+public class RecommendationMetrics {
+
+    public enum Stage {
+        LOAD_REQUESTER,  // requester's availability and skill
+        LOAD_CANDIDATES, // candidate index lookup and overlap filter, or the DATABASE_RANGES queries
+        GROUPING,        // DATABASE_RANGES rows, one per candidate, decoded into a CandidateBatch
+        STREAM,          // reading and scoring the DB stream until the candidate index is loaded
+        SCORING,         // the whole engine call, wall clock
+        FACTORS,         // engine: proficiency, rating and session factors and their upper bounds
+        TIME_MATCHING,   // engine: slot overlap and gap matching
+        RANKING;         // engine: pruning checks, top-N heap and final sort
+
+        String tagValue() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private static final String STAGE_TIMER = "pairr.recommendation.stage";
+
+    private final Map<DayType, Map<Stage, Timer>> stageTimers = new EnumMap<>(DayType.class);
+    private final Map<DayType, DistributionSummary> candidateRows = new EnumMap<>(DayType.class);
+    private final Map<DayType, DistributionSummary> candidates = new EnumMap<>(DayType.class);
+    private final Map<DayType, DistributionSummary> slotsPerCandidate = new EnumMap<>(DayType.class);
+    private final Map<DayType, Counter> budgetedExact = new EnumMap<>(DayType.class);
+    private final Map<DayType, Counter> budgetedApproximate = new EnumMap<>(DayType.class);
+    private final Map<DayType, Counter> coalesced = new EnumMap<>(DayType.class);
+    private final Map<DayType, Counter> coalescingTimeouts = new EnumMap<>(DayType.class);
+
+    private final boolean stageTiming;
+
+    public RecommendationMetrics(
+            MeterRegistry registry,
+            @Value("${recommendation.metrics.stage-timing:true}") boolean stageTiming
+    ) {
+        this.stageTiming = stageTiming;
+
+        for (DayType dayType : DayType.values()) {
+            String dayTypeTag = dayType.name();
+
+            Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                timers.put(stage, Timer.builder(STAGE_TIMER)
+                        .description("Time spent in one stage of a live recommendation request")
+                        .tag("stage", stage.tagValue())
+                        .tag("dayType", dayTypeTag)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(1_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry));
+            }
+            stageTimers.put(dayType, timers);
+
+            candidateRows.put(dayType, summary("pairr.recommendation.candidate.rows",
+                    "Candidate availability rows scored per request", "rows", dayTypeTag, registry));
+            candidates.put(dayType, summary("pairr.recommendation.candidates",
+                    "Distinct candidates scored per request", "candidates", dayTypeTag, registry));
+            slotsPerCandidate.put(dayType, summary("pairr.recommendation.slots.per.candidate",
+                    "Mean availability slots per candidate of a request", "slots", dayTypeTag, registry));
+            budgetedExact.put(dayType, budgeted(true, dayTypeTag, registry));
+            budgetedApproximate.put(dayType, budgeted(false, dayTypeTag, registry));
+            coalesced.put(dayType, Counter.builder("pairr.recommendation.coalesced")
+                    .description("Recommendation requests served by an identical request's computation")
+                    .tag("dayType", dayTypeTag)
+                    .register(registry));
+            coalescingTimeouts.put(dayType, Counter.builder("pairr.recommendation.coalesced.timeout")
+                    .description("Recommendation requests that stopped waiting for an identical request's computation")
+                    .tag("dayType", dayTypeTag)
+                    .register(registry));
+        }
+    }
+
+    private static DistributionSummary summary(String name, String description, String unit,
+                                               String dayTypeTag, MeterRegistry registry) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("dayType", dayTypeTag)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1_000_000.0)
+                .register(registry);
+    }
+
+    private static Counter budgeted(boolean exact, String dayTypeTag, MeterRegistry registry) {
+        return Counter.builder("pairr.recommendation.budgeted")
+                .description("Recommendation requests ranked within a scoring budget")
+                .tag("exact", Boolean.toString(exact))
+                .tag("dayType", dayTypeTag)
+                .register(registry);
+    }
+
+    /**
+     * Start of a stage, to be passed to {@link #recordStage}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void recordStage(Stage stage, DayType dayType, long startNanos) {
+        stageTimers.get(dayType).get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stats for one engine call. Timing the engine's inner stages costs a {@code System.nanoTime}
+     * pair per candidate that survives pruning, so it can be turned off with
+     * {@code recommendation.metrics.stage-timing}; counts are always collected.
+     */
+    public ScoringStats newScoringStats() {
+        return ScoringStats.collecting(stageTiming);
+    }
+
+    /**
+     * Records the counts and, if timed, the inner stage times of one engine call. Stages the call
+     * did not go through (the DB stream is not split into factors and ranking) are left out.
+     * Inner stage times of a parallel call are summed over its worker threads.
+     */
+    public void recordScoring(DayType dayType, ScoringStats stats) {
+        long candidateCount = stats.getCandidates();
+        candidates.get(dayType).record(candidateCount);
+        candidateRows.get(dayType).record(stats.getSlots());
+        if (candidateCount > 0) {
+            slotsPerCandidate.get(dayType).record((double) stats.getSlots() / candidateCount);
+        }
+
+        if (!stats.isTimed()) return;
+        Map<Stage, Timer> timers = stageTimers.get(dayType);
+        recordNonZero(timers.get(Stage.FACTORS), stats.getFactorsNanos());
+        recordNonZero(timers.get(Stage.TIME_MATCHING), stats.getTimeMatchingNanos());
+        recordNonZero(timers.get(Stage.RANKING), stats.getRankingNanos());
+    }
+
+    /**
+     * Counts a request ranked within a scoring budget; {@code exact} is false when the budget ran
+     * out before the remaining candidates could be ruled out.
+     */
+    public void recordBudgeted(DayType dayType, boolean exact) {
+        (exact ? budgetedExact : budgetedApproximate).get(dayType).increment();
+    }
+
+    /**
+     * Counts a request that shared an identical in-flight request's computation.
+     */
+    public void recordCoalesced(DayType dayType) {
+        coalesced.get(dayType).increment();
+    }
+
+    /**
+     * Counts a request that stopped waiting for an identical request's computation and ran its own.
+     */
+    public void recordCoalescingTimeout(DayType dayType) {
+        coalescingTimeouts.get(dayType).increment();
+    }
+
+    private static void recordNonZero(Timer timer, long nanos) {
+        if (nanos > 0) timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,55 @@
+package com.connect.pairr.core.recommendation;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One candidate at a time through {@link ScoreCalculator}. Used when the Vector API is not
+ * available, and by {@code VectorBatchScorer} for the lanes left over after its last full vector.
+ */
+@RequiredArgsConstructor
+public final class ScalarBatchScorer implements BatchScorer {
+
+    private final ScoreCalculator scoreCalculator;
+
+    @Override
+    public void scoreFactors(int requesterLevel, double requesterSkillRating, double requesterOverallRating,
+                             CandidateBatch candidates, int from, int count, ScoreBlock block) {
+        scoreFactors(requesterLevel, requesterSkillRating, requesterOverallRating, candidates, from, 0, count, block);
+    }
+
+    @Override
+    public void upperBounds(ScoreBlock block, int count) {
+        upperBounds(block, 0, count);
+    }
+
+    @Override
+    public void finalScores(ScoreBlock block, int count) {
+        finalScores(block, 0, count);
+    }
+
+    // Block indexes [start, end) only
+    void scoreFactors(int requesterLevel, double requesterSkillRating, double requesterOverallRating,
+                      CandidateBatch candidates, int from, int start, int end, ScoreBlock block) {
+        for (int k = start; k < end; k++) {
+            int i = candidates.rows[from + k];
+            block.proficiencyScores[k] = scoreCalculator.proficiencyScore(requesterLevel, (int) candidates.proficiencyLevels[i]);
+            block.skillRatingScores[k] = scoreCalculator.ratingScore(requesterSkillRating, candidates.skillRatings[i]);
+            block.userRatingScores[k] = scoreCalculator.ratingScore(requesterOverallRating, candidates.overallRatings[i]);
+            block.sessionCountScores[k] = scoreCalculator.sessionCountScore((long) candidates.completedSessions[i]);
+        }
+    }
+
+    void upperBounds(ScoreBlock block, int start, int end) {
+        for (int k = start; k < end; k++) {
+            block.upperBounds[k] = scoreCalculator.maxFinalScore(
+                    block.proficiencyScores[k], block.skillRatingScores[k], block.userRatingScores[k], block.sessionCountScores[k]);
+        }
+    }
+
+    void finalScores(ScoreBlock block, int start, int end) {
+        for (int k = start; k < end; k++) {
+            block.finalScores[k] = scoreCalculator.computeFinalScore(block.timeScores[k],
+                    block.proficiencyScores[k], block.skillRatingScores[k], block.userRatingScores[k], block.sessionCountScores[k]);
+        }
+    }
+}
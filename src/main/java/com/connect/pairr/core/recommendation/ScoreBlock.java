@@ -0,0 +1,30 @@
+package com.connect.pairr.core.recommendation;
+
+/**
+ * Scratch columns for scoring up to {@link #SIZE} consecutive candidates of a {@link CandidateBatch}.
+ *
+ * Index {@code k} holds the scores of the candidate at {@code candidates.rows[from + k]} for the
+ * block starting at {@code from}. One block is allocated per scoring task and reused for every
+ * block it scores.
+ */
+public final class ScoreBlock {
+
+    static final int SIZE = 256;
+
+    // Candidate columns copied in block order, for contiguous vector loads
+    final double[] proficiencyLevels = new double[SIZE];
+    final double[] skillRatings = new double[SIZE];
+    final double[] overallRatings = new double[SIZE];
+    final double[] completedSessions = new double[SIZE];
+
+    // Scores
+    final double[] proficiencyScores = new double[SIZE];
+    final double[] skillRatingScores = new double[SIZE];
+    final double[] userRatingScores = new double[SIZE];
+    final double[] sessionCountScores = new double[SIZE];
+    final double[] timeScores = new double[SIZE];
+    final double[] upperBounds = new double[SIZE];
+    final double[] finalScores = new double[SIZE];
+
+    ScoreBlock() {}
+}
@@ -1,8 +1,8 @@
 package com.connect.pairr.core.recommendation;
 
 import com.connect.pairr.model.dto.TimeMatchResult;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.dto.UserSkillAvailabilityData;
-import com.connect.pairr.model.entity.UserAvailability;
 import com.connect.pairr.model.enums.ProficiencyLevel;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,27 +21,37 @@ public class ScoreCalculator {
     @Value("${recommendation.time-matching.max-overlap-hours:4}")
     private int maxOverlapHours;
 
-    // Weights
-    private static final double TIME_WEIGHT = 0.45; // reduced from 0.5
-    private static final double PROFICIENCY_WEIGHT = 0.20; // reduced from 0.25
-    private static final double SKILL_RATING_WEIGHT = 0.15;
-    private static final double USER_RATING_WEIGHT = 0.10;
-    private static final double SESSION_COUNT_WEIGHT = 0.10; // New factor
+    // Weights (package-private for VectorBatchScorer, which must apply them identically)
+    static final double TIME_WEIGHT = 0.45; // reduced from 0.5
+    static final double PROFICIENCY_WEIGHT = 0.20; // reduced from 0.25
+    static final double SKILL_RATING_WEIGHT = 0.15;
+    static final double USER_RATING_WEIGHT = 0.10;
+    static final double SESSION_COUNT_WEIGHT = 0.10; // New factor
 
     private static final int SECONDS_PER_HOUR = 60 * 60;
-    private static final int SESSION_COUNT_CAP = 20; // Experience beyond 20 sessions has diminishing returns for the score
+    static final int SESSION_COUNT_CAP = 20; // Experience beyond 20 sessions has diminishing returns for the score
+    static final int MAX_PROFICIENCY_DIFF = ProficiencyLevel.values().length - 1;
 
 
     // Compute proficiency similarity (1 = same, 0 = max difference)
     public double proficiencyScore(ProficiencyLevel requester, ProficiencyLevel candidate) {
-        int diff = Math.abs(requester.getLevel() - candidate.getLevel());
-        int maxDiff = ProficiencyLevel.values().length - 1;
-        return 1.0 - ((double) diff / maxDiff);
+        return proficiencyScore(requester.getLevel(), candidate.getLevel());
+    }
+
+    // Same, on ProficiencyLevel.getLevel() values
+    public double proficiencyScore(int requesterLevel, int candidateLevel) {
+        int diff = Math.abs(requesterLevel - candidateLevel);
+        return 1.0 - ((double) diff / MAX_PROFICIENCY_DIFF);
     }
 
     // Compute session count score (experience)
     public double sessionCountScore(Long completedSessions) {
-        if (completedSessions == null || completedSessions == 0) return 0;
+        if (completedSessions == null) return 0;
+        return sessionCountScore(completedSessions.longValue());
+    }
+
+    public double sessionCountScore(long completedSessions) {
+        if (completedSessions == 0) return 0;
         return Math.min((double) completedSessions / SESSION_COUNT_CAP, 1.0);
     }
 
@@ -57,8 +67,15 @@ public class ScoreCalculator {
         return 1 - Math.abs(normalize(candidateRating) - normalize(requesterRating));
     }
 
+    // Rating similarity on values from normalizedRating(), NaN meaning unrated.
+    // Same result as skillRatingScore/userRatingScore without the BigDecimal division
+    public double ratingScore(double requesterNormalized, double candidateNormalized) {
+        if (Double.isNaN(requesterNormalized) || Double.isNaN(candidateNormalized)) return 0;
+        return 1 - Math.abs(candidateNormalized - requesterNormalized);
+    }
+
     // Compute time score
-    public double computeTimeScore(List<UserAvailability> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
+    public double computeTimeScore(List<TimeSlotData> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
         TimeMatchResult timeMatchResult = timeMatcher.findBestMatch(requesterSlots, candidateSlots);
         if (timeMatchResult.bestOverlap() > 0) {
             double maxOverlapSeconds = maxOverlapHours * SECONDS_PER_HOUR;
@@ -68,6 +85,19 @@ public class ScoreCalculator {
         return 1.0 / (1 + timeMatchResult.bestDistance());
     }
 
+    // Same as computeTimeScore, on pre-encoded slots and without allocating a TimeMatchResult.
+    // The gap is only looked for when nothing overlaps
+    public double timeScore(AvailabilitySlots requesterSlots, AvailabilitySlots candidateSlots) {
+        long bestOverlap = timeMatcher.bestOverlapSeconds(requesterSlots, candidateSlots);
+        if (bestOverlap > 0) {
+            double maxOverlapSeconds = maxOverlapHours * SECONDS_PER_HOUR;
+            return Math.min(bestOverlap / maxOverlapSeconds, 1.0);
+        }
+        long bestDistance = timeMatcher.bestGapSeconds(requesterSlots, candidateSlots);
+        if (bestDistance == Long.MAX_VALUE) return 0;
+        return 1.0 / (1 + bestDistance);
+    }
+
 
     // Final score combining all factors
     public double computeFinalScore(double timeScore, double proficiencyScore, double skillScore, double userRatingScore, double sessionScore) {
@@ -79,6 +109,26 @@ public class ScoreCalculator {
         return Math.round(raw * 100.0) / 100.0;
     }
 
+    // Upper bound of the final score over every possible time score, without running the time matcher.
+    // Exact because the time score is at most 1 and the final score is monotonic in it
+    public double maxFinalScore(double proficiencyScore, double skillScore, double userRatingScore, double sessionScore) {
+        return computeFinalScore(1.0, proficiencyScore, skillScore, userRatingScore, sessionScore);
+    }
+
+    // Upper bound of a candidate's final score against any requester: every similarity is at most 1,
+    // a rating similarity is 0 while the candidate is unrated, and only the session score is fixed
+    public double maxFinalScoreOfCandidate(BigDecimal skillRating, BigDecimal overallRating, Long completedSessions) {
+        return maxFinalScore(1.0, skillRating == null ? 0 : 1.0, overallRating == null ? 0 : 1.0,
+                sessionCountScore(completedSessions));
+    }
+
+    // Rating on a 0..1 scale exactly as the BigDecimal scores see it, or NaN when unrated.
+    // Computed once per candidate when a CandidateBatch is built
+    public static double normalizedRating(BigDecimal value) {
+        if (value == null) return Double.NaN;
+        return value.divide(BigDecimal.valueOf(5), 4, RoundingMode.HALF_UP).doubleValue();
+    }
+
     // private helper
     private double normalize(BigDecimal value) {
         if (value == null) return 0;
@@ -0,0 +1,14 @@
+package com.connect.pairr.core.recommendation;
+
+import java.time.Duration;
+
+/**
+ * Limits of one {@link RecommendationEngine#recommendWithinBudget} call: scoring stops at
+ * whichever is reached first. Both are checked once per block of {@link ScoreBlock#SIZE}
+ * candidates, so either may be overshot by up to one block.
+ *
+ * @param timeLimit      wall-clock time allowed for scoring
+ * @param maxEvaluations candidates that may be time-matched
+ */
+public record ScoringBudget(Duration timeLimit, int maxEvaluations) {
+}
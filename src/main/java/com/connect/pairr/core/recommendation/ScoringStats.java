@@ -0,0 +1,86 @@
+package com.connect.pairr.core.recommendation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Work done and time spent by one {@link RecommendationEngine} call, reported as per-request
+ * metrics by {@link RecommendationMetrics}.
+ *
+ * Stage times are only measured when the instance is timed, so an untimed one costs no
+ * {@code System.nanoTime} calls. Thread-safe: parallel scoring tasks add to the same instance.
+ */
+public final class ScoringStats {
+
+    /**
+     * Collects nothing; for callers that do not report metrics.
+     */
+    public static final ScoringStats NONE = new ScoringStats(false, false);
+
+    private final boolean enabled;
+    private final boolean timed;
+
+    private final LongAdder factorsNanos = new LongAdder();
+    private final LongAdder timeMatchingNanos = new LongAdder();
+    private final LongAdder rankingNanos = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder slots = new LongAdder();
+
+    private ScoringStats(boolean enabled, boolean timed) {
+        this.enabled = enabled;
+        this.timed = timed;
+    }
+
+    /**
+     * Counts candidates and slots, and measures stage times only if {@code timed}.
+     */
+    public static ScoringStats collecting(boolean timed) {
+        return new ScoringStats(true, timed);
+    }
+
+    public boolean isTimed() {
+        return timed;
+    }
+
+    public long getFactorsNanos() {
+        return factorsNanos.sum();
+    }
+
+    public long getTimeMatchingNanos() {
+        return timeMatchingNanos.sum();
+    }
+
+    public long getRankingNanos() {
+        return rankingNanos.sum();
+    }
+
+    public long getCandidates() {
+        return candidates.sum();
+    }
+
+    public long getSlots() {
+        return slots.sum();
+    }
+
+    // 0 when untimed, so differences of two calls are 0 as well
+    long now() {
+        return timed ? System.nanoTime() : 0;
+    }
+
+    void addFactors(long nanos) {
+        if (timed) factorsNanos.add(nanos);
+    }
+
+    void addTimeMatching(long nanos) {
+        if (timed) timeMatchingNanos.add(nanos);
+    }
+
+    void addRanking(long nanos) {
+        if (timed) rankingNanos.add(nanos);
+    }
+
+    void addCandidates(long candidateCount, long slotCount) {
+        if (!enabled) return;
+        candidates.add(candidateCount);
+        slots.add(slotCount);
+    }
+}
@@ -1,9 +1,8 @@
 package com.connect.pairr.core.recommendation;
 
 import com.connect.pairr.model.dto.TimeMatchResult;
-import com.connect.pairr.model.entity.UserAvailability;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.dto.UserSkillAvailabilityData;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -15,6 +14,11 @@ import java.util.List;
 @Component
 public class TimeMatcher {
 
+    private static final TimeMatchResult NO_MATCH = TimeMatchResult.builder()
+            .bestOverlap(0)
+            .bestDistance(Long.MAX_VALUE)
+            .build();
+
     /**
      * Finds the best time match between requester and candidate availability slots.
      *
@@ -22,35 +26,118 @@ public class TimeMatcher {
      *   n = number of requester availability slots
      *   m = number of candidate availability slots
      *
-     * Optimized from O(nm) by sorting and using a sweep-line approach.
+     * Optimized from O(nm) by sorting and using a sweep-line approach; the sort is all that is
+     * left once both sides are encoded as {@link AvailabilitySlots}, and the sweeps are O(n + m).
      *
      * @param requesterSlots Requester's availability slots
      * @param candidateSlots Candidate's availability slots
      * @return TimeMatchResult with best overlap and distance
      */
-    public TimeMatchResult findBestMatch(List<UserAvailability> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
+    public TimeMatchResult findBestMatch(List<TimeSlotData> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
         if (requesterSlots == null || requesterSlots.isEmpty() ||
                 candidateSlots == null || candidateSlots.isEmpty()) {
-            return TimeMatchResult.builder()
-                    .bestOverlap(0)
-                    .bestDistance(Long.MAX_VALUE)
-                    .build();
+            return NO_MATCH;
+        }
+
+        return findBestSlotMatch(
+                AvailabilitySlots.of(requesterSlots, TimeSlotData::startTime, TimeSlotData::endTime),
+                AvailabilitySlots.of(candidateSlots, UserSkillAvailabilityData::startTime, UserSkillAvailabilityData::endTime));
+    }
+
+    /**
+     * Same matching rules as the list-based variant, on pre-encoded slots.
+     * Works on primitives only, so callers can encode each side once and reuse it.
+     */
+    public TimeMatchResult findBestSlotMatch(AvailabilitySlots requesterSlots, AvailabilitySlots candidateSlots) {
+        if (requesterSlots.isEmpty() || candidateSlots.isEmpty()) {
+            return NO_MATCH;
         }
 
+        return TimeMatchResult.builder()
+                .bestOverlap(bestOverlapSeconds(requesterSlots, candidateSlots))
+                .bestDistance(bestGapSeconds(requesterSlots, candidateSlots))
+                .build();
+    }
+
+    /**
+     * Longest overlap in seconds between any requester and candidate slot, 0 if none overlap.
+     * Allocation-free half of {@link #findBestSlotMatch}, for the scoring hot path.
+     *
+     * One merge pass over both sides in start order, O(n + m). Of the slots on the other side
+     * that started no later than the current one, the one ending last overlaps it the most,
+     * so only the running maximum end of each side is kept. Every pair is covered when its
+     * later-starting slot is reached.
+     */
+    public long bestOverlapSeconds(AvailabilitySlots requesterSlots, AvailabilitySlots candidateSlots) {
+        long bestOverlap = 0;
+        int requesterMaxEnd = Integer.MIN_VALUE;
+        int candidateMaxEnd = Integer.MIN_VALUE;
+
+        int i = 0;
+        int j = 0;
+        while (i < requesterSlots.size() || j < candidateSlots.size()) {
+            if (j == candidateSlots.size() || (i < requesterSlots.size() && requesterSlots.start(i) <= candidateSlots.start(j))) {
+                int end = requesterSlots.end(i);
+                long overlap = (long) Math.min(end, candidateMaxEnd) - requesterSlots.start(i);
+                if (overlap > bestOverlap) bestOverlap = overlap;
+                if (end > requesterMaxEnd) requesterMaxEnd = end;
+                i++;
+            } else {
+                int end = candidateSlots.end(j);
+                long overlap = (long) Math.min(end, requesterMaxEnd) - candidateSlots.start(j);
+                if (overlap > bestOverlap) bestOverlap = overlap;
+                if (end > candidateMaxEnd) candidateMaxEnd = end;
+                j++;
+            }
+        }
+        return bestOverlap;
+    }
+
+    /**
+     * Smallest gap in seconds between non-overlapping requester and candidate slots,
+     * {@code Long.MAX_VALUE} if there is none. Touching slots (distance 0) are not a gap.
+     * Allocation-free half of {@link #findBestSlotMatch}, for the scoring hot path.
+     *
+     * Two merge passes, O(n + m): one for candidate slots starting after a requester slot ends,
+     * one the other way round.
+     */
+    public long bestGapSeconds(AvailabilitySlots requesterSlots, AvailabilitySlots candidateSlots) {
+        return Math.min(smallestGapAfter(requesterSlots, candidateSlots), smallestGapAfter(candidateSlots, requesterSlots));
+    }
+
+    // Smallest start(later) - end(earlier) > 0. Starts and the separately sorted ends both ascend,
+    // so the closest end before each start is found by advancing one pointer
+    private static long smallestGapAfter(AvailabilitySlots earlier, AvailabilitySlots later) {
+        long bestGap = Long.MAX_VALUE;
+        int ended = 0; // ends before the current start
+        for (int j = 0; j < later.size(); j++) {
+            int start = later.start(j);
+            while (ended < earlier.size() && earlier.sortedEnd(ended) < start) ended++;
+            if (ended > 0) {
+                long gap = start - earlier.sortedEnd(ended - 1);
+                if (gap < bestGap) bestGap = gap;
+            }
+        }
+        return bestGap;
+    }
+
+    // Original LocalTime-based sweep, not used for scoring. Kept as the baseline for TimeMatcherBenchmark
+    // and the equivalence test; same results as findBestMatch for slots that do not cross midnight
+    TimeMatchResult findBestMatchSortedSweep(List<TimeSlotData> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
         long bestOverlap = 0;
         long bestDistance = Long.MAX_VALUE;
 
         // Sort both lists by start time - O(n log n + m log m)
-        List<UserAvailability> sortedRequester = new ArrayList<>(requesterSlots);
-        sortedRequester.sort(Comparator.comparing(UserAvailability::getStartTime));
+        List<TimeSlotData> sortedRequester = new ArrayList<>(requesterSlots);
+        sortedRequester.sort(Comparator.comparing(TimeSlotData::startTime));
 
         List<UserSkillAvailabilityData> sortedCandidate = new ArrayList<>(candidateSlots);
         sortedCandidate.sort(Comparator.comparing(UserSkillAvailabilityData::startTime));
 
         // Sweep-line algorithm: O(n + m) with early termination
-        for (UserAvailability requester : sortedRequester) {
-            LocalTime requesterStartTime = requester.getStartTime();
-            LocalTime requesterEndTime = requester.getEndTime();
+        for (TimeSlotData requester : sortedRequester) {
+            LocalTime requesterStartTime = requester.startTime();
+            LocalTime requesterEndTime = requester.endTime();
 
             for (UserSkillAvailabilityData candidate : sortedCandidate) {
                 LocalTime candidateStartTime = candidate.startTime();
@@ -0,0 +1,108 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.Recommendation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primitive counterpart of {@link TopRecommendations} for scoring a {@link CandidateBatch}.
+ *
+ * The heap holds scores and batch positions in parallel arrays, so offering a candidate
+ * allocates nothing; {@link Recommendation}s are only created for the winners in
+ * {@link #toSortedList()}. Ranking is the same: score descending, ties broken by user ID.
+ */
+class TopCandidates {
+
+    private final CandidateBatch candidates;
+    private final int capacity;
+
+    // Min-heap: the worst retained candidate is at index 0
+    private final double[] scores;
+    private final int[] positions;
+    private int size;
+
+    TopCandidates(CandidateBatch candidates, int capacity) {
+        this.candidates = candidates;
+        this.capacity = capacity;
+        this.scores = new double[capacity];
+        this.positions = new int[capacity];
+    }
+
+    void offer(double score, int position) {
+        if (size < capacity) {
+            siftUp(size++, score, position);
+        } else if (capacity > 0 && ranksAbove(score, position, scores[0], positions[0])) {
+            siftDown(0, score, position); // replaces the worst
+        }
+    }
+
+    /**
+     * Returns whether a candidate with the given score would be retained,
+     * i.e. the heap is not yet full or it ranks above the current worst entry.
+     */
+    boolean wouldAccept(double score, int position) {
+        if (size < capacity) return true;
+        if (capacity == 0) return false;
+        return ranksAbove(score, position, scores[0], positions[0]);
+    }
+
+    /**
+     * Returns whether no candidate scoring at most {@code bound} could be retained, whatever its user ID.
+     */
+    boolean rejectsAllUpTo(double bound) {
+        return size == capacity && (capacity == 0 || bound < scores[0]);
+    }
+
+    TopCandidates merge(TopCandidates other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.positions[i]);
+        }
+        return this;
+    }
+
+    List<Recommendation> toSortedList() {
+        List<Recommendation> recommendations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            recommendations.add(new Recommendation(
+                    candidates.userIds[positions[i]], candidates.displayNames[positions[i]], scores[i]));
+        }
+        recommendations.sort(TopRecommendations.RANKING);
+        return List.copyOf(recommendations);
+    }
+
+    private boolean ranksAbove(double score, int position, double otherScore, int otherPosition) {
+        int byScore = Double.compare(score, otherScore);
+        return byScore > 0
+                || (byScore == 0 && candidates.userIds[position].compareTo(candidates.userIds[otherPosition]) < 0);
+    }
+
+    private void siftUp(int index, double score, int position) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(scores[parent], positions[parent], score, position)) break;
+            scores[index] = scores[parent];
+            positions[index] = positions[parent];
+            index = parent;
+        }
+        scores[index] = score;
+        positions[index] = position;
+    }
+
+    private void siftDown(int index, double score, int position) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && ranksAbove(scores[child], positions[child], scores[right], positions[right])) {
+                child = right;
+            }
+            if (!ranksAbove(score, position, scores[child], positions[child])) break;
+            scores[index] = scores[child];
+            positions[index] = positions[child];
+            index = child;
+        }
+        scores[index] = score;
+        positions[index] = position;
+    }
+}
@@ -0,0 +1,66 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.Recommendation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Bounded min-heap holding the best {@code capacity} recommendations seen so far.
+ *
+ * Ranking is by score descending, ties broken by user ID ascending. Because this order is
+ * total, the retained set does not depend on the order candidates are offered in, which lets
+ * per-worker heaps be merged into exactly the result of a single sequential pass.
+ */
+class TopRecommendations {
+
+    // Best first
+    static final Comparator<Recommendation> RANKING = Comparator
+            .comparingDouble(Recommendation::score).reversed()
+            .thenComparing(Recommendation::userId);
+
+    private final int capacity;
+
+    // Min-heap: the worst retained recommendation is at the head
+    private final PriorityQueue<Recommendation> heap;
+
+    TopRecommendations(int capacity) {
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, RANKING.reversed()); // +1 to avoid resizing
+    }
+
+    void offer(Recommendation recommendation) {
+        heap.offer(recommendation);
+
+        // Keep only top N
+        if (heap.size() > capacity) {
+            heap.poll(); // Remove worst
+        }
+    }
+
+    /**
+     * Returns whether a recommendation with the given score and user ID would be retained,
+     * i.e. the heap is not yet full or it ranks above the current worst entry.
+     */
+    boolean wouldAccept(double score, UUID userId) {
+        if (heap.size() < capacity) return true;
+        if (capacity == 0) return false;
+
+        Recommendation worst = heap.peek();
+        int byScore = Double.compare(score, worst.score());
+        return byScore > 0 || (byScore == 0 && userId.compareTo(worst.userId()) < 0);
+    }
+
+    TopRecommendations merge(TopRecommendations other) {
+        other.heap.forEach(this::offer);
+        return this;
+    }
+
+    List<Recommendation> toSortedList() {
+        return heap.stream()
+                .sorted(RANKING)
+                .toList();
+    }
+}
@@ -23,7 +23,9 @@ public class GlobalExceptionHandler {
             DuplicateRatingException.class,
             SelfMessageException.class,
             ConversationNotFoundException.class,
-            PairingSessionNotFoundException.class
+            PairingSessionNotFoundException.class,
+            InvalidRecommendationCursorException.class,
+            InvalidMessageCursorException.class
     })
     public ResponseEntity<?> handleCustomExceptions(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
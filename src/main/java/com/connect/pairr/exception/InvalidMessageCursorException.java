@@ -0,0 +1,7 @@
+package com.connect.pairr.exception;
+
+public class InvalidMessageCursorException extends RuntimeException {
+    public InvalidMessageCursorException() {
+        super("Invalid message cursor");
+    }
+}
@@ -0,0 +1,7 @@
+package com.connect.pairr.exception;
+
+public class InvalidRecommendationCursorException extends RuntimeException {
+    public InvalidRecommendationCursorException() {
+        super("Invalid recommendation cursor");
+    }
+}
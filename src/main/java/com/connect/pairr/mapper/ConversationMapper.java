@@ -1,36 +1,30 @@
 package com.connect.pairr.mapper;
 
 import com.connect.pairr.model.dto.ConversationResponse;
-import com.connect.pairr.model.entity.Conversation;
-import com.connect.pairr.model.entity.Message;
-import com.connect.pairr.model.entity.User;
-
-import java.util.UUID;
+import com.connect.pairr.model.dto.ConversationSummaryData;
 
 public class ConversationMapper {
 
+    // The conversations.last_message_preview column holds this plus "..."
     private static final int LAST_MESSAGE_PREVIEW_LENGTH = 100;
 
-    public static ConversationResponse toResponse(Conversation conversation, UUID currentUserId, Message lastMessage, long unreadCount) {
-        User otherUser = conversation.getParticipant1().getId().equals(currentUserId)
-                ? conversation.getParticipant2()
-                : conversation.getParticipant1();
-
-        String preview = null;
-        if (lastMessage != null) {
-            String content = lastMessage.getContent();
-            preview = content.length() > LAST_MESSAGE_PREVIEW_LENGTH
-                    ? content.substring(0, LAST_MESSAGE_PREVIEW_LENGTH) + "..."
-                    : content;
-        }
-
+    public static ConversationResponse toResponse(ConversationSummaryData conversation) {
         return ConversationResponse.builder()
-                .id(conversation.getId())
-                .otherUserId(otherUser.getId())
-                .otherUserDisplayName(otherUser.getDisplayName())
-                .lastMessage(preview)
-                .lastMessageAt(conversation.getLastMessageAt())
-                .unreadCount(unreadCount)
+                .id(conversation.id())
+                .otherUserId(conversation.otherUserId())
+                .otherUserDisplayName(conversation.otherUserDisplayName())
+                .lastMessage(conversation.lastMessage())
+                .lastMessageAt(conversation.lastMessageAt())
+                .unreadCount(conversation.unreadCount())
                 .build();
     }
+
+    /**
+     * The start of a message as the inbox shows it.
+     */
+    public static String preview(String content) {
+        return content.length() > LAST_MESSAGE_PREVIEW_LENGTH
+                ? content.substring(0, LAST_MESSAGE_PREVIEW_LENGTH) + "..."
+                : content;
+    }
 }
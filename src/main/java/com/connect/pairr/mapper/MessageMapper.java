@@ -7,7 +7,7 @@ import com.connect.pairr.model.entity.User;
 
 public class MessageMapper {
 
-    public static MessageResponse toResponse(Message message) {
+    public static MessageResponse toResponse(Message message, boolean read) {
         return MessageResponse.builder()
                 .id(message.getId())
                 .conversationId(message.getConversation().getId())
@@ -15,6 +15,7 @@ public class MessageMapper {
                 .senderDisplayName(message.getSender().getDisplayName())
                 .content(message.getContent())
                 .createdAt(message.getCreatedAt())
+                .read(read)
                 .build();
     }
 
@@ -9,13 +9,14 @@ import java.time.LocalTime;
 
 public record AddUserAvailabilityRequest(
         @NotNull @Schema(description = "WEEKDAY or WEEKEND") DayType dayType,
-        @NotNull @Schema(description = "Start time (must be before endTime)", example = "09:00") LocalTime startTime,
-        @NotNull @Schema(description = "End time", example = "17:00") LocalTime endTime
+        @NotNull @Schema(description = "Start time (must differ from endTime)", example = "09:00") LocalTime startTime,
+        @NotNull @Schema(description = "End time; before startTime for a slot crossing midnight, e.g. 22:00-02:00", example = "17:00") LocalTime endTime
 ) {
-    @AssertTrue(message = "startTime must be before endTime")
+    @AssertTrue(message = "startTime must differ from endTime")
     private boolean isValidTimeRange() {
         // null-guard needed because @AssertTrue may run before @NotNull
         if (startTime == null || endTime == null) return true;
-        return startTime.isBefore(endTime);
+        // An end before the start means the slot crosses midnight
+        return !startTime.equals(endTime);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.DayType;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+public record AvailabilitySlotData(
+        UUID userId,
+        DayType dayType,
+        LocalTime startTime,
+        LocalTime endTime
+) {}
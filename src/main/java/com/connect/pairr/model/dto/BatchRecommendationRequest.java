@@ -0,0 +1,17 @@
+package com.connect.pairr.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchRecommendationRequest(
+        @NotEmpty @Size(max = 50, message = "at most 50 queries per batch") List<@Valid RecommendationQuery> queries,
+        @Min(value = 1, message = "numberOfRecommendations must be at least 1")
+        @Max(value = 100, message = "numberOfRecommendations must be at most 100")
+        @Schema(description = "Recommendations per query", example = "10") int numberOfRecommendations
+) {}
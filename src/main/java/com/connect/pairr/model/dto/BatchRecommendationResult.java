@@ -0,0 +1,15 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.DayType;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record BatchRecommendationResult(
+        UUID skillId,
+        DayType dayType,
+        List<Recommendation> recommendations,
+        String error // set instead of recommendations when this query cannot be served, e.g. missing requester skill
+) {}
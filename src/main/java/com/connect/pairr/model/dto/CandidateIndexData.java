@@ -0,0 +1,51 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One candidate for one skill and day type, with all of its availability slots for the day type
+ * as second-of-day arrays ({@code startSeconds[i]} to {@code endSeconds[i]} is one slot).
+ */
+public record CandidateIndexData(
+        UUID userId,
+        String displayName,
+        UUID skillId,
+        ProficiencyLevel proficiency,
+        BigDecimal rating,
+        BigDecimal overallRating,
+        Long completedSessionsCount,
+        DayType dayType,
+        int[] startSeconds,
+        int[] endSeconds
+) {
+
+    /**
+     * Used by the {@code CandidateIndexData} result set mapping, which reads the enums as text.
+     */
+    public CandidateIndexData(UUID userId, String displayName, UUID skillId, String proficiency,
+                              BigDecimal rating, BigDecimal overallRating, Long completedSessionsCount,
+                              String dayType, int[] startSeconds, int[] endSeconds) {
+        this(userId, displayName, skillId, ProficiencyLevel.valueOf(proficiency), rating, overallRating,
+                completedSessionsCount, DayType.valueOf(dayType), startSeconds, endSeconds);
+    }
+
+    /**
+     * The same candidate as the engine's input, without the skill and day type it is keyed by.
+     */
+    public CandidateSlotsData toCandidateSlots() {
+        return new CandidateSlotsData(
+                userId,
+                displayName,
+                proficiency,
+                rating,
+                overallRating,
+                completedSessionsCount,
+                startSeconds,
+                endSeconds
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.ProficiencyLevel;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One recommendation candidate with all of its availability slots for a day type, as
+ * second-of-day arrays ({@code startSeconds[i]} to {@code endSeconds[i]} is one slot).
+ */
+public record CandidateSlotsData(
+        UUID userId,
+        String displayName,
+        ProficiencyLevel proficiency,
+        BigDecimal rating,
+        BigDecimal overallRating,
+        Long completedSessionsCount,
+        int[] startSeconds,
+        int[] endSeconds
+) {
+
+    /**
+     * Used by the {@code CandidateSlotsData} result set mapping, which reads proficiency as text.
+     */
+    public CandidateSlotsData(UUID userId, String displayName, String proficiency, BigDecimal rating,
+                              BigDecimal overallRating, Long completedSessionsCount,
+                              int[] startSeconds, int[] endSeconds) {
+        this(userId, displayName, ProficiencyLevel.valueOf(proficiency), rating, overallRating,
+                completedSessionsCount, startSeconds, endSeconds);
+    }
+}
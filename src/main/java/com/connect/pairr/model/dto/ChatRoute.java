@@ -0,0 +1,15 @@
+package com.connect.pairr.model.dto;
+
+import java.util.UUID;
+
+/**
+ * What a message from one user to another needs besides its content: the conversation it goes to
+ * and the sender's display name. Resolved by {@code ChatService.resolveRoute} and cached per
+ * (sender, recipient) by {@code ChatMessageWriter}.
+ */
+public record ChatRoute(
+        UUID conversationId,
+        UUID participant1Id,
+        UUID participant2Id,
+        String senderDisplayName
+) {}
@@ -0,0 +1,19 @@
+package com.connect.pairr.model.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One conversation of a user's inbox page, with the other participant, the start of the last
+ * message and the user's unread count, as {@code ConversationRepository.findInboxPage} returns it.
+ * {@code totalConversations} is the number of the user's conversations over all pages.
+ */
+public record ConversationSummaryData(
+        UUID id,
+        UUID otherUserId,
+        String otherUserDisplayName,
+        String lastMessage,
+        Instant lastMessageAt,
+        Long unreadCount,
+        Long totalConversations
+) {}
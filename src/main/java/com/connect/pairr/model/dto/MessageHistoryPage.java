@@ -0,0 +1,10 @@
+package com.connect.pairr.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record MessageHistoryPage(
+        @Schema(description = "Oldest first, like the paged endpoint") List<MessageResponse> messages,
+        @Schema(description = "Pass as before to get the next older page; null once the start of the conversation is reached") String nextCursor
+) {}
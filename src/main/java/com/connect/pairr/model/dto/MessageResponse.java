@@ -12,5 +12,7 @@ public record MessageResponse(
         UUID senderId,
         String senderDisplayName,
         String content,
-        Instant createdAt
+        Instant createdAt,
+        // Whether the recipient has read it, by their read watermark
+        boolean read
 ) {}
@@ -0,0 +1,18 @@
+package com.connect.pairr.model.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A chat message accepted by {@code ChatMessageWriter} and delivered, but not yet written.
+ * Its ID and creation time are assigned when it is accepted, so they are final once delivered.
+ */
+public record PendingMessage(
+        UUID id,
+        UUID conversationId,
+        UUID participant1Id,
+        UUID senderId,
+        String content,
+        Instant createdAt,
+        long acceptedNanos
+) {}
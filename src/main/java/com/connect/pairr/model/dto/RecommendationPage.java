@@ -0,0 +1,10 @@
+package com.connect.pairr.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record RecommendationPage(
+        List<Recommendation> recommendations,
+        @Schema(description = "Pass as cursor to get the next page; null on the last page") String nextCursor
+) {}
@@ -0,0 +1,12 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.DayType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record RecommendationQuery(
+        @NotNull UUID skillId,
+        @NotNull @Schema(description = "WEEKDAY or WEEKEND") DayType dayType
+) {}
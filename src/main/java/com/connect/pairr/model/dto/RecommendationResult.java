@@ -0,0 +1,47 @@
+package com.connect.pairr.model.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Recommendations plus where they came from and when they were ranked.
+ * {@code coverage} is only set when the ranking was computed within a latency budget.
+ */
+public record RecommendationResult(
+        List<Recommendation> recommendations,
+        Source source,
+        Instant computedAt,
+        Coverage coverage
+) {
+
+    /**
+     * How much of the candidate pool a budgeted ranking looked at.
+     *
+     * @param candidatesTotal     candidates in the pool
+     * @param candidatesEvaluated candidates that were time-matched
+     * @param exact               false if the budget ran out, so better candidates may have been missed
+     */
+    public record Coverage(int candidatesTotal, int candidatesEvaluated, boolean exact) {}
+
+    public enum Source {
+        LIVE,        // ranked for this request (or an earlier cached one)
+        PRECOMPUTED  // read from the precomputed_recommendations table
+    }
+
+    public RecommendationResult(List<Recommendation> recommendations, Source source, Instant computedAt) {
+        this(recommendations, source, computedAt, null);
+    }
+
+    public static RecommendationResult live(List<Recommendation> recommendations) {
+        return new RecommendationResult(recommendations, Source.LIVE, Instant.now());
+    }
+
+    public static RecommendationResult live(List<Recommendation> recommendations, Coverage coverage) {
+        return new RecommendationResult(recommendations, Source.LIVE, Instant.now(), coverage);
+    }
+
+    public long ageSeconds() {
+        return Math.max(0, Duration.between(computedAt, Instant.now()).toSeconds());
+    }
+}
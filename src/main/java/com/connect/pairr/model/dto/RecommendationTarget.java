@@ -0,0 +1,14 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.DayType;
+
+import java.util.UUID;
+
+/**
+ * A (user, skill, dayType) the user can request recommendations for.
+ */
+public record RecommendationTarget(
+        UUID userId,
+        UUID skillId,
+        DayType dayType
+) {}
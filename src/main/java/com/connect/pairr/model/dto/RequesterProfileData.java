@@ -0,0 +1,38 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.ProficiencyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * One row of {@code UserSkillRepository.getRequesterProfile}: the requester's skill columns
+ * (null when the skill is not registered) and one of their slots (null when they have none).
+ */
+public record RequesterProfileData(
+        UUID userId,
+        UUID skillId,
+        ProficiencyLevel proficiency,
+        BigDecimal rating,
+        BigDecimal overallRating,
+        LocalTime startTime,
+        LocalTime endTime
+) {
+
+    public boolean hasSkill() {
+        return skillId != null;
+    }
+
+    public boolean hasSlot() {
+        return startTime != null;
+    }
+
+    public RequesterSkillData toSkillData() {
+        return new RequesterSkillData(userId, skillId, proficiency, rating, overallRating);
+    }
+
+    public TimeSlotData toTimeSlot() {
+        return new TimeSlotData(startTime, endTime);
+    }
+}
@@ -0,0 +1,18 @@
+package com.connect.pairr.model.dto;
+
+import com.connect.pairr.model.enums.ProficiencyLevel;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * The requester's side of the non-time factors: the skill's proficiency and rating, and the
+ * requester's overall rating.
+ */
+public record RequesterSkillData(
+        UUID userId,
+        UUID skillId,
+        ProficiencyLevel proficiency,
+        BigDecimal rating,
+        BigDecimal overallRating
+) {}
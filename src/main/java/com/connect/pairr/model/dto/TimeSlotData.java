@@ -0,0 +1,11 @@
+package com.connect.pairr.model.dto;
+
+import java.time.LocalTime;
+
+/**
+ * One availability slot without its owner; an end before the start crosses midnight.
+ */
+public record TimeSlotData(
+        LocalTime startTime,
+        LocalTime endTime
+) {}
@@ -1,5 +1,6 @@
 package com.connect.pairr.model.entity;
 
+import com.connect.pairr.model.dto.ConversationSummaryData;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,6 +8,19 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+// Maps ConversationRepository.findInboxPage rows straight to records, without tuple conversion
+@SqlResultSetMapping(
+        name = "ConversationSummaryData",
+        classes = @ConstructorResult(targetClass = ConversationSummaryData.class, columns = {
+                @ColumnResult(name = "id", type = UUID.class),
+                @ColumnResult(name = "otherUserId", type = UUID.class),
+                @ColumnResult(name = "otherUserDisplayName", type = String.class),
+                @ColumnResult(name = "lastMessage", type = String.class),
+                @ColumnResult(name = "lastMessageAt", type = Instant.class),
+                @ColumnResult(name = "unreadCount", type = Long.class),
+                @ColumnResult(name = "totalConversations", type = Long.class)
+        })
+)
 @Table(
         name = "conversations",
         uniqueConstraints = @UniqueConstraint(
@@ -34,6 +48,26 @@ public class Conversation {
     @Column(name = "last_message_at")
     private Instant lastMessageAt;
 
+    // Inbox columns, kept up to date by ConversationRepository's atomic updates
+    @Column(name = "unread_count_p1", nullable = false)
+    private int unreadCountParticipant1;
+
+    @Column(name = "unread_count_p2", nullable = false)
+    private int unreadCountParticipant2;
+
+    @Column(name = "last_message_preview", length = 103)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_sender_id")
+    private UUID lastMessageSenderId;
+
+    // Read watermarks: each participant has read the other's messages up to this time
+    @Column(name = "last_read_at_p1")
+    private Instant lastReadAtParticipant1;
+
+    @Column(name = "last_read_at_p2")
+    private Instant lastReadAtParticipant2;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
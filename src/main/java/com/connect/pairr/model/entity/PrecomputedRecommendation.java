@@ -0,0 +1,74 @@
+package com.connect.pairr.model.entity;
+
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.enums.DayType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Entity
+@Table(
+        name = "precomputed_recommendations",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_precomputed_recommendation",
+                columnNames = {"user_id", "skill_id", "day_type"}
+        )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrecomputedRecommendation {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "skill_id", nullable = false)
+    private UUID skillId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_type", nullable = false, length = 10)
+    private DayType dayType;
+
+    // Number of recommendations ranked; requests for up to this many can be served from the row
+    @Column(name = "top_k", nullable = false)
+    private int topK;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private List<Recommendation> recommendations;
+
+    // Lowest score of a full ranking, null while it holds fewer than topK; a changed candidate
+    // whose best possible score is below it cannot enter the ranking
+    @Column(name = "cutoff_score")
+    private Double cutoffScore;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+
+    // Set when a user affecting this ranking changed; dirty rows are not served
+    @Column(nullable = false)
+    private boolean dirty;
+
+    // Database time of the latest mark; the row is only re-ranked from a candidate index loaded after it
+    @Column(name = "dirtied_at")
+    private Instant dirtiedAt;
+
+    // Bumped when marking dirty, so a recomputation that raced with a change is not saved as clean
+    @Version
+    private long version;
+
+    @PrePersist
+    void prePersist() {
+        this.id = UUID.randomUUID();
+    }
+}
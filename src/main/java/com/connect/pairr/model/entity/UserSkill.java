@@ -1,5 +1,7 @@
 package com.connect.pairr.model.entity;
 
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
 import com.connect.pairr.model.enums.ProficiencyLevel;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,6 +13,36 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
+// Maps UserSkillRepository.getRecommendationCandidates rows straight to records, without tuple conversion
+@SqlResultSetMapping(
+        name = "CandidateSlotsData",
+        classes = @ConstructorResult(targetClass = CandidateSlotsData.class, columns = {
+                @ColumnResult(name = "userId", type = UUID.class),
+                @ColumnResult(name = "displayName", type = String.class),
+                @ColumnResult(name = "proficiency", type = String.class),
+                @ColumnResult(name = "rating", type = BigDecimal.class),
+                @ColumnResult(name = "overallRating", type = BigDecimal.class),
+                @ColumnResult(name = "completedSessionsCount", type = Long.class),
+                @ColumnResult(name = "startSeconds", type = int[].class),
+                @ColumnResult(name = "endSeconds", type = int[].class)
+        })
+)
+// Maps the aggregated candidate index rows of UserSkillRepository the same way
+@SqlResultSetMapping(
+        name = "CandidateIndexData",
+        classes = @ConstructorResult(targetClass = CandidateIndexData.class, columns = {
+                @ColumnResult(name = "userId", type = UUID.class),
+                @ColumnResult(name = "displayName", type = String.class),
+                @ColumnResult(name = "skillId", type = UUID.class),
+                @ColumnResult(name = "proficiency", type = String.class),
+                @ColumnResult(name = "rating", type = BigDecimal.class),
+                @ColumnResult(name = "overallRating", type = BigDecimal.class),
+                @ColumnResult(name = "completedSessionsCount", type = Long.class),
+                @ColumnResult(name = "dayType", type = String.class),
+                @ColumnResult(name = "startSeconds", type = int[].class),
+                @ColumnResult(name = "endSeconds", type = int[].class)
+        })
+)
 @Table(
         name = "user_skills",
         uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "skill_id"})
@@ -0,0 +1,9 @@
+package com.connect.pairr.model.event;
+
+import java.util.UUID;
+
+public record PairingSessionCompletedEvent(
+        UUID sessionId,
+        UUID requesterId,
+        UUID requesteeId
+) {}
@@ -0,0 +1,9 @@
+package com.connect.pairr.model.event;
+
+import java.util.UUID;
+
+public record RatingSubmittedEvent(
+        UUID fromUserId,
+        UUID toUserId,
+        UUID skillId
+) {}
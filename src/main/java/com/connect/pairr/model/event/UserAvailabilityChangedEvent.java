@@ -0,0 +1,7 @@
+package com.connect.pairr.model.event;
+
+import java.util.UUID;
+
+public record UserAvailabilityChangedEvent(
+        UUID userId
+) {}
@@ -0,0 +1,9 @@
+package com.connect.pairr.model.event;
+
+import java.util.Set;
+import java.util.UUID;
+
+public record UserSkillsChangedEvent(
+        UUID userId,
+        Set<UUID> previousSkillIds
+) {}
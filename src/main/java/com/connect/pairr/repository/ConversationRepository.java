@@ -1,14 +1,17 @@
 package com.connect.pairr.repository;
 
+import com.connect.pairr.model.dto.ConversationSummaryData;
 import com.connect.pairr.model.entity.Conversation;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,10 +21,84 @@ public interface ConversationRepository extends JpaRepository<Conversation, UUID
     @EntityGraph(attributePaths = {"participant1", "participant2"})
     Optional<Conversation> findByParticipant1IdAndParticipant2Id(UUID participant1Id, UUID participant2Id);
 
-    @EntityGraph(attributePaths = {"participant1", "participant2"})
+    /**
+     * One page of a user's conversations, most recent first, in a single query over
+     * {@code conversations}: the preview and the user's unread count are kept on the row, and
+     * {@code count(*) OVER ()} gives the number of the user's conversations over all pages.
+     */
+    @NativeQuery(sqlResultSetMapping = "ConversationSummaryData", value = """
+        SELECT c.id AS "id",
+               other.id AS "otherUserId",
+               other.display_name AS "otherUserDisplayName",
+               c.last_message_preview AS "lastMessage",
+               c.last_message_at AS "lastMessageAt",
+               CASE WHEN c.participant_1_id = :userId
+                    THEN c.unread_count_p1 ELSE c.unread_count_p2 END AS "unreadCount",
+               count(*) OVER () AS "totalConversations"
+        FROM conversations c
+        JOIN users other ON other.id = CASE WHEN c.participant_1_id = :userId
+                                            THEN c.participant_2_id ELSE c.participant_1_id END
+        WHERE c.participant_1_id = :userId OR c.participant_2_id = :userId
+        ORDER BY c.last_message_at DESC, c.id
+        LIMIT :limit OFFSET :offset
+    """)
+    List<ConversationSummaryData> findInboxPage(
+            @Param("userId") UUID userId,
+            @Param("limit") int limit,
+            @Param("offset") long offset
+    );
+
+    /**
+     * Records a new message in one statement: the recipient's unread count goes up by one unless
+     * their read watermark is already past it, and the last message columns move to it unless a
+     * newer message got there first. Concurrent sends to the same conversation are serialised by
+     * the row lock, so no increment is lost.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Conversation c
+        SET c.unreadCountParticipant1 = c.unreadCountParticipant1
+                + CASE WHEN c.participant1.id <> :senderId
+                            AND (c.lastReadAtParticipant1 IS NULL OR c.lastReadAtParticipant1 < :sentAt)
+                       THEN 1 ELSE 0 END,
+            c.unreadCountParticipant2 = c.unreadCountParticipant2
+                + CASE WHEN c.participant2.id <> :senderId
+                            AND (c.lastReadAtParticipant2 IS NULL OR c.lastReadAtParticipant2 < :sentAt)
+                       THEN 1 ELSE 0 END,
+            c.lastMessagePreview = CASE WHEN c.lastMessageAt IS NULL OR c.lastMessageAt <= :sentAt
+                                        THEN :preview ELSE c.lastMessagePreview END,
+            c.lastMessageSenderId = CASE WHEN c.lastMessageAt IS NULL OR c.lastMessageAt <= :sentAt
+                                         THEN :senderId ELSE c.lastMessageSenderId END,
+            c.lastMessageAt = CASE WHEN c.lastMessageAt IS NULL OR c.lastMessageAt <= :sentAt
+                                   THEN :sentAt ELSE c.lastMessageAt END
+        WHERE c.id = :conversationId
+    """)
+    void recordMessage(
+            @Param("conversationId") UUID conversationId,
+            @Param("senderId") UUID senderId,
+            @Param("preview") String preview,
+            @Param("sentAt") Instant sentAt
+    );
+
+    /**
+     * Marks the conversation read for the given participant in one single-row update: their read
+     * watermark moves to the last message and their unread count goes to zero. The watermark is
+     * taken from the row itself, under its lock, so it always agrees with the count.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Conversation c
+        SET c.unreadCountParticipant1 = CASE WHEN c.participant1.id = :userId THEN 0 ELSE c.unreadCountParticipant1 END,
+            c.unreadCountParticipant2 = CASE WHEN c.participant2.id = :userId THEN 0 ELSE c.unreadCountParticipant2 END,
+            c.lastReadAtParticipant1 = CASE WHEN c.participant1.id = :userId THEN c.lastMessageAt ELSE c.lastReadAtParticipant1 END,
+            c.lastReadAtParticipant2 = CASE WHEN c.participant2.id = :userId THEN c.lastMessageAt ELSE c.lastReadAtParticipant2 END
+        WHERE c.id = :conversationId
+    """)
+    void markRead(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
+
     @Query("""
-        SELECT c FROM Conversation c
+        SELECT count(c) FROM Conversation c
         WHERE c.participant1.id = :userId OR c.participant2.id = :userId
     """)
-    Page<Conversation> findAllByParticipant(@Param("userId") UUID userId, Pageable pageable);
+    long countByParticipant(@Param("userId") UUID userId);
 }
@@ -0,0 +1,134 @@
+package com.connect.pairr.repository;
+
+import com.connect.pairr.mapper.ConversationMapper;
+import com.connect.pairr.model.dto.PendingMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes accepted chat messages in JDBC batches: one batched INSERT for the messages, then one
+ * batched UPDATE with a single statement per conversation for its inbox columns. Must run in a
+ * transaction. IDs and creation times are the ones assigned on acceptance, so this bypasses the
+ * {@code Message} entity, whose {@code @PrePersist} would replace them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageBatchRepository {
+
+    private static final String INSERT_MESSAGE = """
+        INSERT INTO messages (id, conversation_id, sender_id, content, created_at)
+        VALUES (?, ?, ?, ?, ?)
+    """;
+
+    // Same rules as ConversationRepository.recordMessage, for all of a batch's messages at once:
+    // a participant's count only grows if their watermark is before the oldest message to them,
+    // and the last message columns only move forward
+    private static final String RECORD_MESSAGES = """
+        UPDATE conversations
+        SET unread_count_p1 = unread_count_p1
+                + CASE WHEN last_read_at_p1 IS NULL OR last_read_at_p1 < ? THEN ? ELSE 0 END,
+            unread_count_p2 = unread_count_p2
+                + CASE WHEN last_read_at_p2 IS NULL OR last_read_at_p2 < ? THEN ? ELSE 0 END,
+            last_message_preview = CASE WHEN last_message_at IS NULL OR last_message_at <= ?
+                                        THEN ? ELSE last_message_preview END,
+            last_message_sender_id = CASE WHEN last_message_at IS NULL OR last_message_at <= ?
+                                          THEN ? ELSE last_message_sender_id END,
+            last_message_at = CASE WHEN last_message_at IS NULL OR last_message_at <= ?
+                                   THEN ? ELSE last_message_at END
+        WHERE id = ?
+    """;
+
+    // Idempotent, so a message dead-lettered by an attempt whose commit was not confirmed can be retried
+    private static final String INSERT_DEAD_LETTER = """
+        INSERT INTO chat_message_dead_letters (id, conversation_id, sender_id, content, created_at, error)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (id) DO NOTHING
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the messages and updates their conversations. Messages must be in acceptance order.
+     */
+    public void insertAll(List<PendingMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, messages.size(), (statement, message) -> {
+            statement.setObject(1, message.id());
+            statement.setObject(2, message.conversationId());
+            statement.setObject(3, message.senderId());
+            statement.setString(4, message.content());
+            statement.setTimestamp(5, Timestamp.from(message.createdAt()));
+        });
+
+        List<ConversationDelta> deltas = ConversationDelta.of(messages);
+        jdbcTemplate.batchUpdate(RECORD_MESSAGES, deltas, deltas.size(), (statement, delta) -> {
+            statement.setTimestamp(1, timestamp(delta.oldestToParticipant1));
+            statement.setInt(2, delta.toParticipant1);
+            statement.setTimestamp(3, timestamp(delta.oldestToParticipant2));
+            statement.setInt(4, delta.toParticipant2);
+            Timestamp lastAt = Timestamp.from(delta.last.createdAt());
+            statement.setTimestamp(5, lastAt);
+            statement.setString(6, ConversationMapper.preview(delta.last.content()));
+            statement.setTimestamp(7, lastAt);
+            statement.setObject(8, delta.last.senderId());
+            statement.setTimestamp(9, lastAt);
+            statement.setTimestamp(10, lastAt);
+            statement.setObject(11, delta.conversationId);
+        });
+    }
+
+    /**
+     * Keeps a message that could not be inserted, with the reason, in {@code chat_message_dead_letters}.
+     */
+    public void insertDeadLetter(PendingMessage message, String error) {
+        jdbcTemplate.update(INSERT_DEAD_LETTER,
+                message.id(),
+                message.conversationId(),
+                message.senderId(),
+                message.content(),
+                Timestamp.from(message.createdAt()),
+                error);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    // What a batch adds to one conversation
+    private static final class ConversationDelta {
+        final UUID conversationId;
+        int toParticipant1;
+        int toParticipant2;
+        Instant oldestToParticipant1;
+        Instant oldestToParticipant2;
+        PendingMessage last;
+
+        private ConversationDelta(UUID conversationId) {
+            this.conversationId = conversationId;
+        }
+
+        static List<ConversationDelta> of(List<PendingMessage> messages) {
+            Map<UUID, ConversationDelta> deltas = new LinkedHashMap<>();
+            for (PendingMessage message : messages) {
+                ConversationDelta delta = deltas.computeIfAbsent(message.conversationId(), ConversationDelta::new);
+                if (message.senderId().equals(message.participant1Id())) {
+                    delta.toParticipant2++;
+                    if (delta.oldestToParticipant2 == null) delta.oldestToParticipant2 = message.createdAt();
+                } else {
+                    delta.toParticipant1++;
+                    if (delta.oldestToParticipant1 == null) delta.oldestToParticipant1 = message.createdAt();
+                }
+                delta.last = message;
+            }
+            return new ArrayList<>(deltas.values());
+        }
+    }
+}
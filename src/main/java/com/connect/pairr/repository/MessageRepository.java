@@ -1,17 +1,17 @@
 package com.connect.pairr.repository;
 
 import com.connect.pairr.model.entity.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -23,11 +23,35 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
     @EntityGraph(attributePaths = "sender")
     Page<Message> findAllByConversationId(UUID conversationId, Pageable pageable);
 
-    Optional<Message> findFirstByConversationIdOrderByCreatedAtDesc(UUID conversationId);
-
-    long countByConversationIdAndSenderIdNotAndIsReadFalse(UUID conversationId, UUID senderId);
-
-    @Modifying
-    @Query("UPDATE Message m SET m.isRead = true WHERE m.conversation.id = :conversationId AND m.sender.id <> :userId AND m.isRead = false")
-    void markAllAsRead(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
+    /**
+     * The newest messages of a conversation, newest first, read backwards off
+     * {@code idx_messages_conversation_created_id}.
+     */
+    @EntityGraph(attributePaths = "sender")
+    @Query("""
+        SELECT m FROM Message m
+        WHERE m.conversation.id = :conversationId
+        ORDER BY m.createdAt DESC, m.id DESC
+    """)
+    List<Message> findLatest(@Param("conversationId") UUID conversationId, Limit limit);
+
+    /**
+     * The messages of a conversation ordered before (createdAt, id), newest first. The redundant
+     * {@code createdAt <= :createdAt} bound lets PostgreSQL seek
+     * {@code idx_messages_conversation_created_id} to the cursor instead of filtering every newer row.
+     */
+    @EntityGraph(attributePaths = "sender")
+    @Query("""
+        SELECT m FROM Message m
+        WHERE m.conversation.id = :conversationId
+          AND m.createdAt <= :createdAt
+          AND (m.createdAt < :createdAt OR m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC
+    """)
+    List<Message> findBefore(
+            @Param("conversationId") UUID conversationId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Limit limit
+    );
 }
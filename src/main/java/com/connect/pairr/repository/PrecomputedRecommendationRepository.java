@@ -0,0 +1,78 @@
+package com.connect.pairr.repository;
+
+import com.connect.pairr.model.entity.PrecomputedRecommendation;
+import com.connect.pairr.model.enums.DayType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PrecomputedRecommendationRepository extends JpaRepository<PrecomputedRecommendation, UUID> {
+
+    Optional<PrecomputedRecommendation> findByUserIdAndSkillIdAndDayType(UUID userId, UUID skillId, DayType dayType);
+
+    List<PrecomputedRecommendation> findByDirtyTrue(Pageable pageable);
+
+    /**
+     * Dirty rows last marked before {@code markedBefore}, or before marks were timestamped.
+     */
+    @Query("""
+        SELECT p FROM PrecomputedRecommendation p
+        WHERE p.dirty = true
+          AND (p.dirtiedAt IS NULL OR p.dirtiedAt < :markedBefore)
+    """)
+    List<PrecomputedRecommendation> findDirtyMarkedBefore(@Param("markedBefore") Instant markedBefore, Pageable pageable);
+
+    List<PrecomputedRecommendation> findByUserIdIn(Collection<UUID> userIds);
+
+    /**
+     * Marks the rankings requested by the user, and those the user is ranked in, as dirty.
+     */
+    @Modifying
+    @NativeQuery("""
+        UPDATE precomputed_recommendations
+        SET dirty = true, dirtied_at = now(), version = version + 1
+        WHERE user_id = :userId
+           OR recommendations @> jsonb_build_array(jsonb_build_object('userId', CAST(:userId AS text)))
+    """)
+    int markDirtyWhereRequesterOrRanked(@Param("userId") UUID userId);
+
+    /**
+     * Marks the rankings for the skill on the given day types that a candidate scoring up to
+     * {@code maxScore} could enter: those not yet full, and those whose cutoff it reaches.
+     */
+    @Modifying
+    @NativeQuery("""
+        UPDATE precomputed_recommendations
+        SET dirty = true, dirtied_at = now(), version = version + 1
+        WHERE skill_id = :skillId
+          AND day_type IN (:dayTypes)
+          AND (cutoff_score IS NULL OR cutoff_score <= :maxScore)
+    """)
+    int markDirtyWhereCandidate(@Param("skillId") UUID skillId,
+                                @Param("dayTypes") Collection<String> dayTypes,
+                                @Param("maxScore") double maxScore);
+
+    /**
+     * Deletes the rankings whose requester no longer has the skill, or no availability on the day type.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        DELETE FROM PrecomputedRecommendation p
+        WHERE NOT EXISTS (SELECT 1 FROM UserSkill us WHERE us.user.id = p.userId AND us.skill.id = p.skillId)
+           OR NOT EXISTS (SELECT 1 FROM UserAvailability ua WHERE ua.user.id = p.userId AND ua.dayType = p.dayType)
+    """)
+    int deleteObsolete();
+}
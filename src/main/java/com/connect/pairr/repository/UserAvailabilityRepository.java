@@ -1,26 +1,38 @@
 package com.connect.pairr.repository;
 
+import com.connect.pairr.model.dto.AvailabilitySlotData;
 import com.connect.pairr.model.entity.UserAvailability;
 import com.connect.pairr.model.enums.DayType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface UserAvailabilityRepository extends JpaRepository<UserAvailability, UUID> {
 
-    /**
-     * Fetch all availabilities for a user on a specific day type **for a specific skill**.
-     * Skill is fetched via UserSkill mapping table.
-     */
-    List<UserAvailability> findByUserIdAndDayType(@Param("userId") UUID userId,
-                                                  @Param("dayType") DayType dayType);
-
     List<UserAvailability> findAllByUserId(UUID userId);
 
     void deleteAllByUserId(UUID userId);
+
+    /**
+     * Every availability slot, used to build the in-memory availability interval index.
+     */
+    @Query("""
+        SELECT new com.connect.pairr.model.dto.AvailabilitySlotData(ua.user.id, ua.dayType, ua.startTime, ua.endTime)
+        FROM UserAvailability ua
+    """)
+    List<AvailabilitySlotData> getAvailabilitySlotData();
+
+    @Query("""
+        SELECT new com.connect.pairr.model.dto.AvailabilitySlotData(ua.user.id, ua.dayType, ua.startTime, ua.endTime)
+        FROM UserAvailability ua
+        WHERE ua.user.id IN :userIds
+    """)
+    List<AvailabilitySlotData> getAvailabilitySlotData(@Param("userIds") Collection<UUID> userIds);
 }
 
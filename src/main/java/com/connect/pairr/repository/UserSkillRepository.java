@@ -1,47 +1,296 @@
 package com.connect.pairr.repository;
 
-import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.dto.RecommendationTarget;
+import com.connect.pairr.model.dto.RequesterProfileData;
+import com.connect.pairr.model.dto.RequesterSkillData;
 import com.connect.pairr.model.entity.Skill;
 import com.connect.pairr.model.entity.User;
 import com.connect.pairr.model.entity.UserSkill;
 import com.connect.pairr.model.enums.DayType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserSkillRepository extends JpaRepository<UserSkill, UUID> {
 
+    /**
+     * Streams the candidates for a skill and day type, one row per candidate with every slot of the
+     * day type aggregated as in {@link #getRecommendationCandidates}. Rows are fetched through a
+     * server-side cursor in batches; the stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @NativeQuery(sqlResultSetMapping = "CandidateSlotsData", value = """
+        SELECT u.id AS "userId",
+               u.display_name AS "displayName",
+               us.proficiency AS "proficiency",
+               us.rating AS "rating",
+               u.overall_rating AS "overallRating",
+               u.completed_sessions_count AS "completedSessionsCount",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.start_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "startSeconds",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.end_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "endSeconds"
+        FROM users u
+        JOIN user_skills us ON us.user_id = u.id
+        JOIN user_availability ua ON ua.user_id = u.id
+        WHERE us.skill_id = :skillId
+          AND ua.day_type = :dayType
+          AND u.id <> :requesterUserId
+        GROUP BY u.id, us.id
+    """)
+    Stream<CandidateSlotsData> streamRecommendationCandidates(
+            @Param("skillId") UUID skillId,
+            @Param("dayType") String dayType,
+            @Param("requesterUserId") UUID requesterUserId
+    );
+
+    /**
+     * Start of the current transaction on the database clock, in epoch milliseconds (rounded down).
+     * Rows read later in the same transaction include every change committed before it.
+     */
+    @Query(nativeQuery = true, value = "SELECT CAST(floor(EXTRACT(EPOCH FROM now()) * 1000) AS bigint)")
+    long currentTransactionStartMillis();
+
+    /**
+     * Pre-ranks candidates in PostgreSQL by their best single-slot overlap with the requester
+     * (capped at {@code maxOverlapSeconds}), using the GiST indexes on {@code slot_range} and
+     * {@code slot_range_tail}. A slot crossing midnight is matched on its evening part
+     * ({@code slot_range}) and on its morning part ({@code slot_range_tail}), as in {@code TimeMatcher}.
+     * Candidates without any overlap rank last. Returns at most {@code limit} user IDs.
+     * Overlaps are only aggregated for users holding the skill, so the GROUP BY runs over candidates
+     * rather than everyone with a matching slot.
+     */
+    @Query(nativeQuery = true, value = """
+        WITH overlaps AS (
+            SELECT ua.user_id,
+                   MAX(GREATEST(
+                       upper(ua.slot_range * r.slot_range) - lower(ua.slot_range * r.slot_range),
+                       upper(ua.slot_range * r.slot_range_tail) - lower(ua.slot_range * r.slot_range_tail),
+                       upper(ua.slot_range_tail * r.slot_range) - lower(ua.slot_range_tail * r.slot_range)
+                   )) AS best_overlap
+            FROM user_availability r
+            JOIN user_availability ua
+              ON (ua.slot_range && r.slot_range
+                  OR ua.slot_range && r.slot_range_tail
+                  OR ua.slot_range_tail && r.slot_range)
+             AND ua.day_type = r.day_type
+            JOIN user_skills us
+              ON us.user_id = ua.user_id
+             AND us.skill_id = :skillId
+             AND us.user_id <> :requesterUserId
+            WHERE r.user_id = :requesterUserId
+              AND r.day_type = :dayType
+            GROUP BY ua.user_id
+        )
+        SELECT us.user_id
+        FROM user_skills us
+        LEFT JOIN overlaps o ON o.user_id = us.user_id
+        WHERE us.skill_id = :skillId
+          AND us.user_id <> :requesterUserId
+          AND EXISTS (
+              SELECT 1 FROM user_availability a
+              WHERE a.user_id = us.user_id AND a.day_type = :dayType
+          )
+        ORDER BY LEAST(COALESCE(o.best_overlap, 0), :maxOverlapSeconds) DESC, us.user_id
+        LIMIT :limit
+    """)
+    List<UUID> findRangeShortlist(
+            @Param("skillId") UUID skillId,
+            @Param("dayType") String dayType,
+            @Param("requesterUserId") UUID requesterUserId,
+            @Param("maxOverlapSeconds") int maxOverlapSeconds,
+            @Param("limit") int limit
+    );
+
+    /**
+     * The given candidates for a skill and day type, one row per candidate with every slot of the
+     * day type aggregated into second-of-day arrays, ordered by start. The user and skill columns
+     * are sent once per candidate instead of once per slot, and the rows need no grouping.
+     */
+    @NativeQuery(sqlResultSetMapping = "CandidateSlotsData", value = """
+        SELECT u.id AS "userId",
+               u.display_name AS "displayName",
+               us.proficiency AS "proficiency",
+               us.rating AS "rating",
+               u.overall_rating AS "overallRating",
+               u.completed_sessions_count AS "completedSessionsCount",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.start_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "startSeconds",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.end_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "endSeconds"
+        FROM users u
+        JOIN user_skills us ON us.user_id = u.id
+        JOIN user_availability ua ON ua.user_id = u.id
+        WHERE us.skill_id = :skillId
+          AND ua.day_type = :dayType
+          AND u.id IN (:userIds)
+        GROUP BY u.id, us.id
+    """)
+    List<CandidateSlotsData> getRecommendationCandidates(
+            @Param("skillId") UUID skillId,
+            @Param("dayType") String dayType,
+            @Param("userIds") Collection<UUID> userIds
+    );
+
+    /**
+     * Every (user, skill, day type) combination with the user's slots of the day type aggregated,
+     * used to build the in-memory candidate index. One row per index entry instead of one per slot.
+     */
+    @NativeQuery(sqlResultSetMapping = "CandidateIndexData", value = """
+        SELECT u.id AS "userId",
+               u.display_name AS "displayName",
+               us.skill_id AS "skillId",
+               us.proficiency AS "proficiency",
+               us.rating AS "rating",
+               u.overall_rating AS "overallRating",
+               u.completed_sessions_count AS "completedSessionsCount",
+               ua.day_type AS "dayType",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.start_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "startSeconds",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.end_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "endSeconds"
+        FROM users u
+        JOIN user_skills us ON us.user_id = u.id
+        JOIN user_availability ua ON ua.user_id = u.id
+        GROUP BY u.id, us.id, ua.day_type
+    """)
+    List<CandidateIndexData> getCandidateIndexData();
+
+    /**
+     * Same rows as {@link #getCandidateIndexData()}, restricted to the given users.
+     * Used to refresh index entries after a user's profile changes.
+     */
+    @NativeQuery(sqlResultSetMapping = "CandidateIndexData", value = """
+        SELECT u.id AS "userId",
+               u.display_name AS "displayName",
+               us.skill_id AS "skillId",
+               us.proficiency AS "proficiency",
+               us.rating AS "rating",
+               u.overall_rating AS "overallRating",
+               u.completed_sessions_count AS "completedSessionsCount",
+               ua.day_type AS "dayType",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.start_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "startSeconds",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.end_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "endSeconds"
+        FROM users u
+        JOIN user_skills us ON us.user_id = u.id
+        JOIN user_availability ua ON ua.user_id = u.id
+        WHERE u.id IN (:userIds)
+        GROUP BY u.id, us.id, ua.day_type
+    """)
+    List<CandidateIndexData> getCandidateIndexData(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Candidate rows for several (skill, dayType) queries in one round trip, aggregated like
+     * {@link #getCandidateIndexData()}. Covers every combination of the given skills and day types,
+     * so callers keep only the pairs they asked for.
+     */
+    @NativeQuery(sqlResultSetMapping = "CandidateIndexData", value = """
+        SELECT u.id AS "userId",
+               u.display_name AS "displayName",
+               us.skill_id AS "skillId",
+               us.proficiency AS "proficiency",
+               us.rating AS "rating",
+               u.overall_rating AS "overallRating",
+               u.completed_sessions_count AS "completedSessionsCount",
+               ua.day_type AS "dayType",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.start_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "startSeconds",
+               array_agg(CAST(FLOOR(EXTRACT(EPOCH FROM ua.end_time)) AS int) ORDER BY ua.start_time, ua.end_time) AS "endSeconds"
+        FROM users u
+        JOIN user_skills us ON us.user_id = u.id
+        JOIN user_availability ua ON ua.user_id = u.id
+        WHERE us.skill_id IN (:skillIds)
+          AND ua.day_type IN (:dayTypes)
+          AND u.id <> :requesterUserId
+        GROUP BY u.id, us.id, ua.day_type
+    """)
+    List<CandidateIndexData> getBatchRecommendationCandidates(
+            @Param("skillIds") Collection<UUID> skillIds,
+            @Param("dayTypes") Collection<String> dayTypes,
+            @Param("requesterUserId") UUID requesterUserId
+    );
+
+    /**
+     * The next users holding a skill after {@code afterUserId}, in ID order, for walking all users
+     * in chunks.
+     */
+    @Query("""
+        SELECT DISTINCT us.user.id
+        FROM UserSkill us
+        WHERE us.user.id > :afterUserId
+        ORDER BY us.user.id
+    """)
+    List<UUID> findUserIdsWithSkillsAfter(@Param("afterUserId") UUID afterUserId, Limit limit);
+
+    /**
+     * Every (user, skill, dayType) the given users can request recommendations for: they hold
+     * the skill and have availability on that day type.
+     */
+    @Query("""
+        SELECT DISTINCT new com.connect.pairr.model.dto.RecommendationTarget(us.user.id, us.skill.id, ua.dayType)
+        FROM UserSkill us
+        JOIN UserAvailability ua ON ua.user = us.user
+        WHERE us.user.id IN :userIds
+    """)
+    List<RecommendationTarget> findRecommendationTargets(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Everything a recommendation request needs from the requester, in one round trip: one row per
+     * slot on the day type, each carrying the skill columns. The skill columns are null if the
+     * requester does not have the skill, and the slot columns are null if they have no slot that
+     * day. No rows means the user does not exist.
+     */
     @Query("""
-        SELECT new com.connect.pairr.model.dto.UserSkillAvailabilityData(
+        SELECT new com.connect.pairr.model.dto.RequesterProfileData(
             u.id,
-            u.displayName,
+            us.skill.id,
             us.proficiency,
             us.rating,
             u.overallRating,
-            u.completedSessionsCount,
             ua.startTime,
             ua.endTime
         )
         FROM User u
-        JOIN UserSkill us ON us.user = u
-        JOIN UserAvailability ua ON ua.user = u
-        WHERE us.skill.id = :skillId
-          AND ua.dayType = :dayType
-          AND u.id <> :requesterUserId
+        LEFT JOIN UserSkill us ON us.user = u AND us.skill.id = :skillId
+        LEFT JOIN UserAvailability ua ON ua.user = u AND ua.dayType = :dayType
+        WHERE u.id = :userId
     """)
-    List<UserSkillAvailabilityData> getRecommendationCandidates(
+    List<RequesterProfileData> getRequesterProfile(
+            @Param("userId") UUID userId,
             @Param("skillId") UUID skillId,
-            @Param("dayType") DayType dayType,
-            @Param("requesterUserId") UUID requesterUserId
+            @Param("dayType") DayType dayType
     );
 
+    /**
+     * The requester's side of the non-time factors for every skill they have.
+     */
+    @Query("""
+        SELECT new com.connect.pairr.model.dto.RequesterSkillData(
+            u.id,
+            us.skill.id,
+            us.proficiency,
+            us.rating,
+            u.overallRating
+        )
+        FROM UserSkill us
+        JOIN us.user u
+        WHERE u.id = :userId
+    """)
+    List<RequesterSkillData> getRequesterSkills(@Param("userId") UUID userId);
+
+    @Query("SELECT us.skill.id FROM UserSkill us WHERE us.user.id IN :userIds")
+    Set<UUID> findSkillIdsByUserIds(@Param("userIds") Collection<UUID> userIds);
+
     boolean existsByUserAndSkill(User user, Skill skill);
 
     @EntityGraph(attributePaths = {"skill", "skill.category"})
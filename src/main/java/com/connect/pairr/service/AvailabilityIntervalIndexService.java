@@ -0,0 +1,67 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.core.recommendation.AvailabilityIntervalIndex;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
+import com.connect.pairr.repository.UserAvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link AvailabilityIntervalIndex} in sync with the database: loaded at startup,
+ * then a user's slots are replaced after each committed availability change. Only maintained
+ * when overlap-first candidate selection is turned on, since nothing else reads the index.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityIntervalIndexService {
+
+    private final AvailabilityIntervalIndex availabilityIntervalIndex;
+    private final UserAvailabilityRepository userAvailabilityRepository;
+
+    @Value("${recommendation.interval-index.enabled:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        if (!enabled) return;
+
+        long version = availabilityIntervalIndex.nextVersion();
+        availabilityIntervalIndex.load(userAvailabilityRepository.getAvailabilitySlotData(), version);
+
+        // Reload users whose changes committed while the initial load was running
+        Set<UUID> pendingUserIds = availabilityIntervalIndex.drainPendingUserIds();
+        if (!pendingUserIds.isEmpty()) {
+            refreshUsers(pendingUserIds);
+        }
+        log.info("Availability interval index loaded.");
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserAvailabilityChanged(UserAvailabilityChangedEvent event) {
+        refreshUsers(List.of(event.userId()));
+    }
+
+    // Versioned before reading, as CandidateIndexService does, so an out-of-order refresh cannot undo a newer one
+    private void refreshUsers(Collection<UUID> userIds) {
+        if (!enabled) return;
+        long version = availabilityIntervalIndex.nextVersion();
+        availabilityIntervalIndex.replaceUsers(userIds, userAvailabilityRepository.getAvailabilitySlotData(userIds), version);
+    }
+}
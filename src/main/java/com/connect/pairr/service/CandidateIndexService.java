@@ -0,0 +1,135 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.core.recommendation.CandidateIndex;
+import com.connect.pairr.model.event.PairingSessionCompletedEvent;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
+import com.connect.pairr.repository.UserSkillRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory {@link CandidateIndex} in sync with the database.
+ *
+ * The index is loaded once at startup and then refreshed per user after each
+ * profile-changing transaction commits, so rolled-back changes never reach it.
+ * Listeners run first among after-commit listeners, so later ones see the updated index.
+ *
+ * Those events only cover changes made through this instance. With several instances, a change
+ * made through another one reaches this index with the next full reload, every
+ * {@code recommendation.candidate-index.reload-interval}. {@link #currentAsOf} tells callers
+ * which changes the index is guaranteed to include.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandidateIndexService {
+
+    private final CandidateIndex candidateIndex;
+    private final UserSkillRepository userSkillRepository;
+
+    @Value("${recommendation.candidate-index.enabled:true}")
+    private boolean enabled;
+
+    // Database time the last full load or reload started; EPOCH until the first one
+    private volatile Instant loadedAsOf = Instant.EPOCH;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        if (!enabled) return;
+
+        long version = candidateIndex.nextVersion();
+        Instant asOf = Instant.ofEpochMilli(userSkillRepository.currentTransactionStartMillis());
+        candidateIndex.load(userSkillRepository.getCandidateIndexData(), version);
+        markLoaded(asOf);
+
+        // Reload users whose changes committed while the initial load was running
+        Set<UUID> pendingUserIds = candidateIndex.drainPendingUserIds();
+        if (!pendingUserIds.isEmpty()) {
+            refreshUsers(pendingUserIds);
+        }
+        log.info("Recommendation candidate index loaded.");
+    }
+
+    // Picks up changes committed through other instances, which this one gets no events for
+    @Scheduled(fixedDelayString = "${recommendation.candidate-index.reload-interval:PT5M}",
+            initialDelayString = "${recommendation.candidate-index.reload-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void reloadIndex() {
+        if (!enabled || !candidateIndex.isReady()) return;
+
+        long version = candidateIndex.nextVersion();
+        Instant asOf = Instant.ofEpochMilli(userSkillRepository.currentTransactionStartMillis());
+        candidateIndex.reload(userSkillRepository.getCandidateIndexData(), version);
+        markLoaded(asOf);
+        log.debug("Recommendation candidate index reloaded as of {}.", asOf);
+    }
+
+    /**
+     * Database time up to which every committed change, from any instance, is in the index:
+     * the start of its last full load or reload. {@link Instant#EPOCH} before the first load.
+     * Empty when the index is disabled, since rankings then read candidates from the database.
+     */
+    public Optional<Instant> currentAsOf() {
+        return enabled ? Optional.of(loadedAsOf) : Optional.empty();
+    }
+
+    private synchronized void markLoaded(Instant asOf) {
+        if (asOf.isAfter(loadedAsOf)) loadedAsOf = asOf;
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserSkillsChanged(UserSkillsChangedEvent event) {
+        refreshUsers(List.of(event.userId()));
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserAvailabilityChanged(UserAvailabilityChangedEvent event) {
+        refreshUsers(List.of(event.userId()));
+    }
+
+    // Skill rating and overall rating of the rated user changed
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onRatingSubmitted(RatingSubmittedEvent event) {
+        refreshUsers(List.of(event.toUserId()));
+    }
+
+    // Completed session counts of both participants changed
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onPairingSessionCompleted(PairingSessionCompletedEvent event) {
+        refreshUsers(List.of(event.requesterId(), event.requesteeId()));
+    }
+
+    // Versioned before reading, so a refresh that reads first but applies last cannot undo a newer one
+    private void refreshUsers(Collection<UUID> userIds) {
+        if (!enabled) return;
+        long version = candidateIndex.nextVersion();
+        candidateIndex.replaceUsers(userIds, userSkillRepository.getCandidateIndexData(userIds), version);
+    }
+}
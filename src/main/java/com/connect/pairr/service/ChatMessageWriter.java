@@ -0,0 +1,452 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.config.CacheConfig;
+import com.connect.pairr.exception.SelfMessageException;
+import com.connect.pairr.model.dto.ChatRoute;
+import com.connect.pairr.model.dto.MessageResponse;
+import com.connect.pairr.model.dto.PendingMessage;
+import com.connect.pairr.model.dto.SendMessageRequest;
+import com.connect.pairr.repository.MessageBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind path for WebSocket chat messages.
+ *
+ * A message is accepted without a transaction: the conversation and sender name come from a cache
+ * of {@link ChatService#resolveRoute}, and the ID and creation time are assigned here, so the
+ * message can be delivered at once with its final identity. Creation times are strictly
+ * increasing (at PostgreSQL's microsecond precision), which gives every accepted message its
+ * place in the (created_at, id) history order.
+ *
+ * Accepted messages wait in a bounded queue. One writer thread persists them in JDBC batches
+ * ({@link MessageBatchRepository}), once {@code chat.write-behind.batch-size} messages are waiting
+ * or {@code chat.write-behind.flush-interval} after the first one. A batch that fails is retried,
+ * then written message by message, so one bad message cannot hold back the others. A message that
+ * is rejected on its own was still delivered, so it is kept in {@code chat_message_dead_letters};
+ * if even that fails (the database is unavailable), it is queued again and retried with a growing
+ * backoff. When the queue is full, or once shutdown has begun, the sender writes its own message
+ * before it is delivered.
+ *
+ * On shutdown the writer stops after the web server and the STOMP broker, and flushes every
+ * accepted message before the data source is closed. Messages the writer has not reached within
+ * {@code chat.write-behind.shutdown-timeout} are written by the thread stopping it.
+ */
+@Service
+@Slf4j
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private record RouteKey(UUID senderId, UUID recipientId) {}
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+
+    private final ChatService chatService;
+    private final MessageBatchRepository messageBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache routes;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<PendingMessage> queue;
+    // Messages neither written nor dead-lettered, for the writer to retry once retryAtNanos has passed
+    private final Queue<PendingMessage> retries = new ConcurrentLinkedQueue<>();
+    private int retryRound;
+    private long retryAtNanos;
+    // Held shared to enqueue, and exclusively to stop and to requeue, so nothing is queued or
+    // requeued after the final drain
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    // Set when shutdown stops waiting for the writer; the writer then exits and the stopping thread writes the rest
+    private volatile boolean closed;
+    private Thread writer;
+
+    // Last assigned creation time, in microseconds since the epoch
+    private final AtomicLong lastCreatedAtMicros = new AtomicLong();
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private final Counter written;
+    private final Counter writtenDirectly;
+    private final Counter deadLettered;
+    private final Counter requeued;
+
+    public ChatMessageWriter(
+            ChatService chatService,
+            MessageBatchRepository messageBatchRepository,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            MeterRegistry registry,
+            @Value("${chat.write-behind.enabled:true}") boolean enabled,
+            @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.write-behind.batch-size:500}") int batchSize,
+            @Value("${chat.write-behind.flush-interval:50ms}") Duration flushInterval,
+            @Value("${chat.write-behind.retry-attempts:3}") int retryAttempts,
+            @Value("${chat.write-behind.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${chat.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout
+    ) {
+        this.chatService = chatService;
+        this.messageBatchRepository = messageBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.routes = Objects.requireNonNull(cacheManager.getCache(CacheConfig.CHAT_ROUTES_CACHE));
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.retryAttempts = retryAttempts;
+        this.retryBackoff = retryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("pairr.chat.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted chat messages waiting to be written")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("pairr.chat.write-behind.batch.size")
+                .description("Chat messages written per batch")
+                .baseUnit("messages")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) batchSize)
+                .register(registry);
+        this.flushLatency = Timer.builder("pairr.chat.write-behind.flush.latency")
+                .description("Time from accepting the oldest message of a batch to the batch being committed")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        this.written = Counter.builder("pairr.chat.write-behind.written")
+                .description("Chat messages written by the writer thread")
+                .register(registry);
+        this.writtenDirectly = Counter.builder("pairr.chat.write-behind.direct")
+                .description("Chat messages written by their sender because the queue was full or shutting down")
+                .register(registry);
+        this.deadLettered = Counter.builder("pairr.chat.write-behind.dead-lettered")
+                .description("Accepted chat messages rejected by the messages table and kept as dead letters")
+                .register(registry);
+        this.requeued = Counter.builder("pairr.chat.write-behind.requeued")
+                .description("Accepted chat messages queued again because neither they nor their dead letter could be written")
+                .register(registry);
+    }
+
+    /**
+     * Accepts a message and returns it as delivered: with its ID and creation time, and usually
+     * before it is written. With {@code chat.write-behind.enabled=false} it is written first,
+     * like the REST endpoint does.
+     */
+    public MessageResponse send(UUID senderId, SendMessageRequest request) {
+        if (!enabled) {
+            return chatService.sendMessage(senderId, request);
+        }
+        if (senderId.equals(request.recipientId())) {
+            throw new SelfMessageException();
+        }
+
+        ChatRoute route = route(senderId, request.recipientId());
+        PendingMessage message = new PendingMessage(UUID.randomUUID(), route.conversationId(),
+                route.participant1Id(), senderId, request.content(), nextCreatedAt(), System.nanoTime());
+
+        boolean queued;
+        acceptLock.readLock().lock();
+        try {
+            queued = running && queue.offer(message);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!queued) {
+            // Back pressure: the sender pays for its own write instead of the message being dropped
+            writeDirectly(message);
+        }
+
+        return MessageResponse.builder()
+                .id(message.id())
+                .conversationId(message.conversationId())
+                .senderId(senderId)
+                .senderDisplayName(route.senderDisplayName())
+                .content(message.content())
+                .createdAt(message.createdAt())
+                .read(false)
+                .build();
+    }
+
+    private ChatRoute route(UUID senderId, UUID recipientId) {
+        RouteKey key = new RouteKey(senderId, recipientId);
+        ChatRoute route = routes.get(key, ChatRoute.class);
+        if (route == null) {
+            route = chatService.resolveRoute(senderId, recipientId);
+            routes.put(key, route);
+        }
+        return route;
+    }
+
+    private Instant nextCreatedAt() {
+        Instant now = Instant.now();
+        long nowMicros = ChronoUnit.MICROS.between(Instant.EPOCH, now);
+        long micros = lastCreatedAtMicros.accumulateAndGet(nowMicros, (last, current) -> Math.max(last + 1, current));
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private void writeDirectly(PendingMessage message) {
+        transactionTemplate.executeWithoutResult(status -> messageBatchRepository.insertAll(List.of(message)));
+        writtenDirectly.increment();
+    }
+
+    // Writer thread
+
+    // The only writer thread: an unexpected failure ends the iteration, never the loop
+    private void drainLoop() {
+        while (true) {
+            try {
+                if (!drainOnce()) return;
+            } catch (RuntimeException e) {
+                log.error("Chat message writer iteration failed; continuing.", e);
+                sleep(retryBackoff);
+            }
+        }
+    }
+
+    // Writes the next batch; false once stopped and nothing is left to write
+    private boolean drainOnce() {
+        if (closed) return false;
+        if (!retries.isEmpty() && System.nanoTime() - retryAtNanos >= 0) {
+            List<PendingMessage> due = new ArrayList<>();
+            drainRetriesTo(due);
+            flush(due);
+            return true;
+        }
+
+        List<PendingMessage> batch = new ArrayList<>();
+        try {
+            PendingMessage first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+            if (first == null) {
+                return running || !queue.isEmpty() || !retries.isEmpty();
+            }
+            batch.add(first);
+            fill(batch);
+        } catch (InterruptedException e) {
+            // Not expected (stop() does not interrupt); write what was accepted and exit
+            Thread.currentThread().interrupt();
+            queue.drainTo(batch);
+            drainRetriesTo(batch);
+            flush(batch);
+            return false;
+        }
+        flush(batch);
+        return true;
+    }
+
+    // Tops the batch up until it is full or the flush interval after its first message has passed.
+    // Once shutdown has begun, only what is already queued is taken
+    private void fill(List<PendingMessage> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) return;
+
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void drainRetriesTo(List<PendingMessage> batch) {
+        PendingMessage message;
+        while ((message = retries.poll()) != null) {
+            batch.add(message);
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        if (batch.isEmpty()) return;
+
+        List<PendingMessage> unwritten = persist(batch);
+        if (unwritten.isEmpty()) {
+            retryRound = 0;
+        } else if (!requeue(unwritten)) {
+            logUnwritten(unwritten);
+        }
+        batchSizes.record(batch.size());
+        flushLatency.record(System.nanoTime() - batch.get(0).acceptedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // Hands the messages back for a retry after retry-backoff, doubling with every round that fails
+    // again, up to 64 times it. Checked and handed over under the lock stop() drains under, so they
+    // either reach that drain or are refused here; false once shutdown has stopped waiting
+    private boolean requeue(List<PendingMessage> unwritten) {
+        acceptLock.writeLock().lock();
+        try {
+            if (closed) return false;
+            retries.addAll(unwritten);
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        requeued.increment(unwritten.size());
+        retryRound = Math.min(retryRound + 1, MAX_BACKOFF_DOUBLINGS + 1);
+        retryAtNanos = System.nanoTime() + (retryBackoff.toNanos() << (retryRound - 1));
+        return true;
+    }
+
+    // Writes the batch as a whole, or else message by message, dead-lettering each message that is
+    // rejected on its own. Returns the messages that could be neither written nor dead-lettered
+    private List<PendingMessage> persist(List<PendingMessage> batch) {
+        if (writeWithRetries(batch)) {
+            written.increment(batch.size());
+            return List.of();
+        }
+
+        // Written one by one, so a message that cannot be written does not take the batch with it
+        List<PendingMessage> unwritten = new ArrayList<>();
+        for (PendingMessage message : batch) {
+            RuntimeException failure = write(List.of(message));
+            if (failure == null) {
+                written.increment();
+            } else if (writeDeadLetter(message, failure)) {
+                deadLettered.increment();
+                log.error("Chat message {} in conversation {} was rejected; kept as a dead letter.",
+                        message.id(), message.conversationId(), failure);
+            } else {
+                unwritten.add(message);
+            }
+        }
+        return unwritten;
+    }
+
+    private boolean writeWithRetries(List<PendingMessage> batch) {
+        for (int attempt = 1; attempt <= retryAttempts; attempt++) {
+            if (write(batch) == null) return true;
+            if (attempt < retryAttempts) sleep(retryBackoff);
+        }
+        return false;
+    }
+
+    // Null once written, otherwise the failure. Any failure counts, including TransactionException
+    // (e.g. no connection) thrown before the insert
+    private RuntimeException write(List<PendingMessage> messages) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageBatchRepository.insertAll(messages));
+            return null;
+        } catch (RuntimeException e) {
+            log.warn("Writing {} chat messages failed.", messages.size(), e);
+            return e;
+        }
+    }
+
+    private boolean writeDeadLetter(PendingMessage message, RuntimeException failure) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    messageBatchRepository.insertDeadLetter(message, failure.toString()));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Writing chat message {} as a dead letter failed.", message.id(), e);
+            return false;
+        }
+    }
+
+    private static void logUnwritten(List<PendingMessage> messages) {
+        for (PendingMessage message : messages) {
+            log.error("Chat message {} in conversation {} could not be written before shutdown.",
+                    message.id(), message.conversationId());
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Lifecycle
+
+    @Override
+    public void start() {
+        if (!enabled || running) return;
+        running = true;
+        closed = false;
+        writer = new Thread(this::drainLoop, "chat-message-writer");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting into the queue, then waits for every accepted message to be written. Whatever
+     * the writer has not taken by the shutdown timeout is written on the calling thread.
+     */
+    @Override
+    public void stop() {
+        if (!running) return;
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) return;
+
+        // Retried messages are older than queued ones, so they go first
+        List<PendingMessage> remaining = new ArrayList<>();
+        acceptLock.writeLock().lock();
+        try {
+            closed = true;
+            drainRetriesTo(remaining);
+            queue.drainTo(remaining);
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        log.warn("Chat message writer did not finish within {}; writing the {} remaining messages on this thread.",
+                shutdownTimeout, remaining.size());
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            logUnwritten(persist(List.copyOf(remaining.subList(from, Math.min(from + batchSize, remaining.size())))));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Strictly below the web server's graceful shutdown ({@code DEFAULT_PHASE - 1024}), the web server
+     * itself ({@code DEFAULT_PHASE - 2048}) and the STOMP broker ({@code DEFAULT_PHASE}), which
+     * therefore all stop accepting messages before this stops writing them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
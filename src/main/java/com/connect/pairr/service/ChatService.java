@@ -1,11 +1,15 @@
 package com.connect.pairr.service;
 
+import com.connect.pairr.core.chat.MessageCursor;
 import com.connect.pairr.exception.ConversationNotFoundException;
 import com.connect.pairr.exception.SelfMessageException;
 import com.connect.pairr.exception.UserNotFoundException;
 import com.connect.pairr.mapper.ConversationMapper;
 import com.connect.pairr.mapper.MessageMapper;
+import com.connect.pairr.model.dto.ChatRoute;
 import com.connect.pairr.model.dto.ConversationResponse;
+import com.connect.pairr.model.dto.ConversationSummaryData;
+import com.connect.pairr.model.dto.MessageHistoryPage;
 import com.connect.pairr.model.dto.MessageResponse;
 import com.connect.pairr.model.dto.SendMessageRequest;
 import com.connect.pairr.model.entity.Conversation;
@@ -16,6 +20,7 @@ import com.connect.pairr.repository.MessageRepository;
 import com.connect.pairr.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,39 +56,112 @@ public class ChatService {
         Message message = MessageMapper.toEntity(request.content(), conversation, sender);
         message = messageRepository.save(message);
 
-        conversation.setLastMessageAt(Instant.now());
-        conversationRepository.save(conversation);
+        conversationRepository.recordMessage(
+                conversation.getId(), senderId, ConversationMapper.preview(message.getContent()), message.getCreatedAt());
 
-        return MessageMapper.toResponse(message);
+        return MessageMapper.toResponse(message, false);
     }
 
+    /**
+     * Resolves the conversation between two users, creating it on their first message, and the
+     * sender's display name. {@link ChatMessageWriter} caches the result, so it can accept
+     * messages without reading users or conversations.
+     */
+    @Transactional
+    public ChatRoute resolveRoute(UUID senderId, UUID recipientId) {
+        if (senderId.equals(recipientId)) {
+            throw new SelfMessageException();
+        }
+
+        User sender = userRepository.findById(senderId)
+                .orElseThrow(() -> new UserNotFoundException(senderId));
+
+        User recipient = userRepository.findById(recipientId)
+                .orElseThrow(() -> new UserNotFoundException(recipientId));
+
+        Conversation conversation = findOrCreateConversation(sender, recipient);
+        return new ChatRoute(conversation.getId(), conversation.getParticipant1().getId(),
+                conversation.getParticipant2().getId(), sender.getDisplayName());
+    }
+
+    /**
+     * One page of the user's conversations, most recent first, with the last message preview and
+     * the user's unread count, both kept on the conversation. The page is read in a single query,
+     * which also counts the user's conversations; only a page past the end needs a separate count.
+     */
     @Transactional(readOnly = true)
     public Page<ConversationResponse> getConversations(UUID userId, Pageable pageable) {
-        // Ensure sorting by lastMessageAt DESC if not provided
+        // Always sorted by lastMessageAt DESC, whatever sort was requested
         Sort sort = Sort.by(Sort.Direction.DESC, "lastMessageAt");
         Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-        
-        Page<Conversation> conversations = conversationRepository.findAllByParticipant(userId, sortedPageable);
-
-        return conversations.map(conv -> {
-            Message lastMessage = messageRepository
-                    .findFirstByConversationIdOrderByCreatedAtDesc(conv.getId())
-                    .orElse(null);
-            
-            long unreadCount = messageRepository
-                    .countByConversationIdAndSenderIdNotAndIsReadFalse(conv.getId(), userId);
-            
-            return ConversationMapper.toResponse(conv, userId, lastMessage, unreadCount);
-        });
+
+        List<ConversationSummaryData> rows = conversationRepository.findInboxPage(
+                userId, sortedPageable.getPageSize(), sortedPageable.getOffset());
+
+        List<ConversationResponse> content = rows.stream()
+                .map(ConversationMapper::toResponse)
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, sortedPageable, () -> rows.isEmpty()
+                ? conversationRepository.countByParticipant(userId)
+                : rows.get(0).totalConversations());
     }
 
     @Transactional
     public void markMessagesAsRead(UUID userId, UUID conversationId) {
-        messageRepository.markAllAsRead(conversationId, userId);
+        conversationRepository.markRead(conversationId, userId);
     }
 
     @Transactional
     public Page<MessageResponse> getMessages(UUID userId, UUID conversationId, Pageable pageable) {
+        Conversation conversation = findParticipantConversation(userId, conversationId);
+
+        // Mark as read when viewing history
+        conversationRepository.markRead(conversationId, userId);
+
+        // Fetch newest first for pagination
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
+        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        Page<Message> messagePage = messageRepository.findAllByConversationId(conversationId, sortedPageable);
+
+        List<MessageResponse> content = toChronologicalResponses(messagePage.getContent(), conversation, userId, true);
+        return new PageImpl<>(content, pageable, messagePage.getTotalElements());
+    }
+
+    /**
+     * One page of a conversation's history, going back in time from {@code before} (or from the
+     * newest message if null). Pages are found by seeking the (conversation_id, created_at, id)
+     * index to the cursor, so deep pages cost the same as the first, and no total is counted.
+     * Only the first page marks the conversation as read.
+     */
+    @Transactional
+    public MessageHistoryPage getMessageHistory(UUID userId, UUID conversationId, String before, int limit) {
+        // Decoded first, so a malformed cursor fails before any other work
+        MessageCursor cursor = before == null ? null : MessageCursor.decode(before);
+
+        Conversation conversation = findParticipantConversation(userId, conversationId);
+        if (cursor == null) {
+            conversationRepository.markRead(conversationId, userId);
+        }
+
+        // One extra row tells whether an older page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<Message> newestFirst = cursor == null
+                ? messageRepository.findLatest(conversationId, fetch)
+                : messageRepository.findBefore(conversationId, cursor.createdAt(), cursor.id(), fetch);
+
+        boolean hasOlder = newestFirst.size() > limit;
+        if (hasOlder) {
+            newestFirst = newestFirst.subList(0, limit);
+        }
+
+        String nextCursor = hasOlder ? MessageCursor.before(newestFirst.get(limit - 1)).encode() : null;
+        return new MessageHistoryPage(
+                toChronologicalResponses(newestFirst, conversation, userId, cursor == null), nextCursor);
+    }
+
+    private Conversation findParticipantConversation(UUID userId, UUID conversationId) {
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ConversationNotFoundException(conversationId));
 
@@ -93,25 +171,34 @@ public class ChatService {
         if (!isParticipant) {
             throw new ConversationNotFoundException(conversationId);
         }
+        return conversation;
+    }
 
-        // Mark as read when viewing history
-        messageRepository.markAllAsRead(conversationId, userId);
-
-        // Fetch newest first for pagination
-        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
-        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-
-        Page<Message> messagePage = messageRepository.findAllByConversationId(conversationId, sortedPageable);
-        
-        // Reverse them so they are chronological for the frontend
-        List<Message> messages = new ArrayList<>(messagePage.getContent());
+    /**
+     * Reverses a newest-first page so it is chronological for the frontend, with read receipts:
+     * a message is read once its recipient's watermark has reached it. If the viewer has just
+     * marked the conversation read, their watermark is at the last message.
+     */
+    private static List<MessageResponse> toChronologicalResponses(List<Message> newestFirst, Conversation conversation,
+                                                                  UUID userId, boolean viewerMarkedRead) {
+        boolean viewerIsParticipant1 = conversation.getParticipant1().getId().equals(userId);
+        Instant viewerReadUpTo = viewerMarkedRead
+                ? conversation.getLastMessageAt()
+                : viewerIsParticipant1 ? conversation.getLastReadAtParticipant1() : conversation.getLastReadAtParticipant2();
+        Instant otherReadUpTo = viewerIsParticipant1
+                ? conversation.getLastReadAtParticipant2()
+                : conversation.getLastReadAtParticipant1();
+
+        List<Message> messages = new ArrayList<>(newestFirst);
         Collections.reverse(messages);
 
-        List<MessageResponse> content = messages.stream()
-                .map(MessageMapper::toResponse)
+        return messages.stream()
+                .map(message -> {
+                    Instant recipientReadUpTo = message.getSender().getId().equals(userId) ? otherReadUpTo : viewerReadUpTo;
+                    boolean read = recipientReadUpTo != null && !message.getCreatedAt().isAfter(recipientReadUpTo);
+                    return MessageMapper.toResponse(message, read);
+                })
                 .toList();
-
-        return new PageImpl<>(content, pageable, messagePage.getTotalElements());
     }
 
     private Conversation findOrCreateConversation(User user1, User user2) {
@@ -10,11 +10,13 @@ import com.connect.pairr.model.entity.PairingSession;
 import com.connect.pairr.model.entity.Skill;
 import com.connect.pairr.model.entity.User;
 import com.connect.pairr.model.enums.PairingStatus;
+import com.connect.pairr.model.event.PairingSessionCompletedEvent;
 import com.connect.pairr.repository.PairingSessionRepository;
 import com.connect.pairr.repository.RatingRepository;
 import com.connect.pairr.repository.SkillRepository;
 import com.connect.pairr.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -33,6 +35,7 @@ public class PairingSessionService {
     private final SkillRepository skillRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final RatingRepository ratingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_PENDING_PER_TARGET = 2;
     private static final int MAX_PENDING_GLOBAL = 10;
@@ -127,6 +130,8 @@ public class PairingSessionService {
                 requestee.setCompletedSessionsCount(requestee.getCompletedSessionsCount() + 1);
                 userRepository.save(requester);
                 userRepository.save(requestee);
+
+                eventPublisher.publishEvent(new PairingSessionCompletedEvent(session.getId(), requester.getId(), requestee.getId()));
             }
             case CANCELLED -> {
                 if (!session.getRequester().getId().equals(userId) && !session.getRequestee().getId().equals(userId)) {
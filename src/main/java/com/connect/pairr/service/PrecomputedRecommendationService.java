@@ -0,0 +1,214 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.core.recommendation.ScoreCalculator;
+import com.connect.pairr.exception.RequesterAvailabilityMissingException;
+import com.connect.pairr.exception.RequesterSkillMissingException;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationTarget;
+import com.connect.pairr.model.entity.PrecomputedRecommendation;
+import com.connect.pairr.model.event.PairingSessionCompletedEvent;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
+import com.connect.pairr.repository.PrecomputedRecommendationRepository;
+import com.connect.pairr.repository.UserSkillRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the precomputed_recommendations table that {@link RecommendationService} serves from.
+ *
+ * A nightly job ranks every (user, skill, dayType) the user can request, walking the users in
+ * chunks so only one chunk's rows are in memory. Between runs, a profile change marks dirty the
+ * rows it can affect, and a frequent job re-ranks only those: the changed user's own rows, the
+ * rows they are ranked in, and the rows for their skills and day types that their best possible
+ * score could enter (see {@link ScoreCalculator#maxFinalScoreOfCandidate}). A full ranking whose
+ * cutoff is above that score stays clean.
+ *
+ * Rankings are built from this instance's {@link CandidateIndexService candidate index}, which only
+ * includes changes made through other instances once it has been reloaded. A row marked dirty
+ * after the index was last loaded is therefore left dirty until a reload covers the change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrecomputedRecommendationService {
+
+    private final PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    private final UserSkillRepository userSkillRepository;
+    private final RecommendationService recommendationService;
+    private final ScoreCalculator scoreCalculator;
+    private final CandidateIndexService candidateIndexService;
+
+    @Value("${recommendation.precomputed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommendation.precomputed.top-k:100}")
+    private int topK;
+
+    @Value("${recommendation.precomputed.refresh-batch-size:500}")
+    private int refreshBatchSize;
+
+    @Value("${recommendation.precomputed.rebuild-chunk-size:200}")
+    private int rebuildChunkSize;
+
+    // Smallest UUID in PostgreSQL's order, where the user walk starts
+    private static final UUID FIRST_USER_ID = new UUID(0, 0);
+
+    @Scheduled(cron = "${recommendation.precomputed.rebuild-cron:0 0 3 * * *}")
+    public void rebuildAll() {
+        if (!enabled) return;
+
+        int targets = 0;
+        UUID afterUserId = FIRST_USER_ID;
+        List<UUID> userIds;
+        do {
+            userIds = userSkillRepository.findUserIdsWithSkillsAfter(afterUserId, Limit.of(rebuildChunkSize));
+            if (userIds.isEmpty()) break;
+            targets += rebuildUsers(userIds);
+            afterUserId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == rebuildChunkSize);
+
+        // Skill or availability removed since the row was ranked
+        int removed = precomputedRecommendationRepository.deleteObsolete();
+        log.info("Precomputed recommendations rebuilt for {} targets, {} removed.", targets, removed);
+    }
+
+    private int rebuildUsers(List<UUID> userIds) {
+        Map<RecommendationTarget, PrecomputedRecommendation> existing =
+                precomputedRecommendationRepository.findByUserIdIn(userIds).stream()
+                        .collect(Collectors.toMap(
+                                row -> new RecommendationTarget(row.getUserId(), row.getSkillId(), row.getDayType()),
+                                Function.identity()));
+        Instant indexAsOf = candidateIndexService.currentAsOf().orElse(null);
+
+        List<RecommendationTarget> targets = userSkillRepository.findRecommendationTargets(userIds);
+        for (RecommendationTarget target : targets) {
+            PrecomputedRecommendation row = existing.get(target);
+            if (row != null && !coveredByIndex(row, indexAsOf)) continue; // left for refreshDirty
+            recompute(row != null ? row : PrecomputedRecommendation.builder()
+                    .userId(target.userId())
+                    .skillId(target.skillId())
+                    .dayType(target.dayType())
+                    .build());
+        }
+        return targets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.precomputed.refresh-interval:PT1M}")
+    public void refreshDirty() {
+        if (!enabled) return;
+
+        Pageable batch = Pageable.ofSize(refreshBatchSize);
+        List<PrecomputedRecommendation> dirty = candidateIndexService.currentAsOf()
+                .map(indexAsOf -> precomputedRecommendationRepository.findDirtyMarkedBefore(indexAsOf, batch))
+                .orElseGet(() -> precomputedRecommendationRepository.findByDirtyTrue(batch));
+        dirty.forEach(this::recompute);
+        if (!dirty.isEmpty()) {
+            log.debug("Refreshed {} dirty precomputed recommendations.", dirty.size());
+        }
+    }
+
+    // Runs before the result cache is invalidated, so a request cannot re-cache a stale row
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserSkillsChanged(UserSkillsChangedEvent event) {
+        // A removed skill only matters to the rankings the user is in, which are marked either way
+        markDirtyForUsers(List.of(event.userId()));
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserAvailabilityChanged(UserAvailabilityChangedEvent event) {
+        markDirtyForUsers(List.of(event.userId()));
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRatingSubmitted(RatingSubmittedEvent event) {
+        markDirtyForUsers(List.of(event.toUserId()));
+    }
+
+    @TransactionalEventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onPairingSessionCompleted(PairingSessionCompletedEvent event) {
+        markDirtyForUsers(List.of(event.requesterId(), event.requesteeId()));
+    }
+
+    private void markDirtyForUsers(Collection<UUID> userIds) {
+        Map<UUID, List<CandidateIndexData>> rowsByUser = userSkillRepository.getCandidateIndexData(userIds).stream()
+                .collect(Collectors.groupingBy(CandidateIndexData::userId));
+
+        for (UUID userId : userIds) {
+            precomputedRecommendationRepository.markDirtyWhereRequesterOrRanked(userId);
+
+            // Rankings the user is a candidate for now, on the day types they are available
+            Map<UUID, List<CandidateIndexData>> rowsBySkill = rowsByUser.getOrDefault(userId, List.of()).stream()
+                    .collect(Collectors.groupingBy(CandidateIndexData::skillId));
+            rowsBySkill.forEach((skillId, rows) -> {
+                CandidateIndexData sample = rows.get(0);
+                double maxScore = scoreCalculator.maxFinalScoreOfCandidate(
+                        sample.rating(), sample.overallRating(), sample.completedSessionsCount());
+                Set<String> dayTypes = rows.stream().map(row -> row.dayType().name()).collect(Collectors.toSet());
+                precomputedRecommendationRepository.markDirtyWhereCandidate(skillId, dayTypes, maxScore);
+            });
+        }
+    }
+
+    // Clean, or marked before the index was loaded (null: rankings read the database), so a ranking includes the change
+    private static boolean coveredByIndex(PrecomputedRecommendation row, Instant indexAsOf) {
+        return !row.isDirty() || indexAsOf == null || row.getDirtiedAt() == null || row.getDirtiedAt().isBefore(indexAsOf);
+    }
+
+    private void recompute(PrecomputedRecommendation row) {
+        List<Recommendation> recommendations;
+        try {
+            recommendations = recommendationService.computeLiveRecommendations(
+                    row.getUserId(), row.getSkillId(), row.getDayType(), topK);
+        } catch (RequesterAvailabilityMissingException | RequesterSkillMissingException e) {
+            if (row.getId() != null) deleteQuietly(row);
+            return;
+        }
+
+        row.setRecommendations(recommendations);
+        row.setTopK(topK);
+        row.setCutoffScore(recommendations.size() >= topK ? recommendations.get(recommendations.size() - 1).score() : null);
+        row.setComputedAt(Instant.now());
+        row.setDirty(false);
+        try {
+            precomputedRecommendationRepository.save(row);
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Marked dirty again while ranking, or saved by another instance's job; the next refresh handles it
+            log.debug("Skipped saving precomputed recommendations for user {}: {}", row.getUserId(), e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(PrecomputedRecommendation row) {
+        try {
+            precomputedRecommendationRepository.delete(row);
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Skipped deleting precomputed recommendations for user {}: {}", row.getUserId(), e.getMessage());
+        }
+    }
+}
@@ -6,8 +6,10 @@ import com.connect.pairr.model.dto.AddRatingRequest;
 import com.connect.pairr.model.dto.RatingResponse;
 import com.connect.pairr.model.entity.*;
 import com.connect.pairr.model.enums.PairingStatus;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
 import com.connect.pairr.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class RatingService {
     private final SkillRepository skillRepository;
     private final UserSkillRepository userSkillRepository;
     private final PairingSessionRepository pairingSessionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public RatingResponse submitRating(UUID fromUserId, AddRatingRequest request) {
@@ -67,6 +70,8 @@ public class RatingService {
         toUser.setOverallRating(ratingRepository.averageRatingByToUserId(request.toUserId()));
         userRepository.save(toUser);
 
+        eventPublisher.publishEvent(new RatingSubmittedEvent(fromUserId, request.toUserId(), request.skillId()));
+
         return RatingMapper.toResponse(rating);
     }
 
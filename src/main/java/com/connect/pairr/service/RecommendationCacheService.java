@@ -0,0 +1,141 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.config.CacheConfig;
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationResult;
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.event.PairingSessionCompletedEvent;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
+import com.connect.pairr.repository.UserSkillRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches recommendation results per (requester, skill, dayType, N).
+ *
+ * A profile change of user X can change X's own results and any result for a skill X holds
+ * (or held), since X may enter, leave or move within those rankings. Entries matching either
+ * are removed after the change commits. Listeners run after the candidate index refresh
+ * (see {@link CandidateIndexService}) so a request cannot re-cache from a stale index.
+ *
+ * It also holds the short-lived ranked snapshots behind paged requests. Those expire by TTL
+ * only, so pages stay consistent with each other while a client browses.
+ */
+@Service
+public class RecommendationCacheService {
+
+    public record Key(
+            UUID requesterId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {}
+
+    /**
+     * A ranked snapshot for paging. {@code complete} if the ranking ran out of candidates
+     * before reaching the depth it was ranked to, so nothing ranks below its last entry.
+     */
+    public record Snapshot(List<Recommendation> recommendations, boolean complete) {}
+
+    private final Cache cache;
+    private final Cache snapshots;
+    private final UserSkillRepository userSkillRepository;
+
+    // Bumped on every invalidation, so results computed across one are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecommendationCacheService(CacheManager cacheManager, UserSkillRepository userSkillRepository) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.RECOMMENDATIONS_CACHE));
+        this.snapshots = Objects.requireNonNull(cacheManager.getCache(CacheConfig.RECOMMENDATION_SNAPSHOTS_CACHE));
+        this.userSkillRepository = userSkillRepository;
+    }
+
+    public Optional<RecommendationResult> get(Key key) {
+        return Optional.ofNullable(cache.get(key, RecommendationResult.class));
+    }
+
+    /**
+     * Returns the current generation; read it before computing a result that will be cached.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a result unless an invalidation happened since {@code computedAtGeneration}.
+     */
+    public void put(Key key, RecommendationResult result, long computedAtGeneration) {
+        cache.put(key, result);
+
+        // An invalidation may have run while this result was computed; checking after the put
+        // guarantees that either we see it here or it sees (and removes) our entry
+        if (generation.get() != computedAtGeneration) {
+            cache.evict(key);
+        }
+    }
+
+    public Optional<Snapshot> getSnapshot(Key key) {
+        return Optional.ofNullable(snapshots.get(key, Snapshot.class));
+    }
+
+    public void putSnapshot(Key key, Snapshot snapshot) {
+        snapshots.put(key, snapshot);
+    }
+
+    /**
+     * Removes every entry requested by one of the users or for one of the skills.
+     */
+    public void invalidate(Collection<UUID> userIds, Collection<UUID> skillIds) {
+        generation.incrementAndGet();
+
+        @SuppressWarnings("unchecked")
+        Map<Key, Object> entries = ((com.github.benmanes.caffeine.cache.Cache<Key, Object>) cache.getNativeCache()).asMap();
+        entries.keySet().removeIf(key -> userIds.contains(key.requesterId()) || skillIds.contains(key.skillId()));
+    }
+
+    @TransactionalEventListener
+    @Order(1)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserSkillsChanged(UserSkillsChangedEvent event) {
+        Set<UUID> skillIds = new HashSet<>(event.previousSkillIds());
+        skillIds.addAll(userSkillRepository.findSkillIdsByUserIds(List.of(event.userId())));
+        invalidate(List.of(event.userId()), skillIds);
+    }
+
+    @TransactionalEventListener
+    @Order(1)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserAvailabilityChanged(UserAvailabilityChangedEvent event) {
+        invalidateForUsers(List.of(event.userId()));
+    }
+
+    // The rated user's skill rating and overall rating changed
+    @TransactionalEventListener
+    @Order(1)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onRatingSubmitted(RatingSubmittedEvent event) {
+        invalidateForUsers(List.of(event.toUserId()));
+    }
+
+    // Completed session counts of both participants changed
+    @TransactionalEventListener
+    @Order(1)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onPairingSessionCompleted(PairingSessionCompletedEvent event) {
+        invalidateForUsers(List.of(event.requesterId(), event.requesteeId()));
+    }
+
+    private void invalidateForUsers(Collection<UUID> userIds) {
+        invalidate(userIds, userSkillRepository.findSkillIdsByUserIds(userIds));
+    }
+}
@@ -1,83 +1,589 @@
 package com.connect.pairr.service;
 
+import com.connect.pairr.model.dto.AvailabilitySlotData;
+import com.connect.pairr.model.dto.BatchRecommendationResult;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
 import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.core.recommendation.AvailabilityIntervalIndex;
+import com.connect.pairr.core.recommendation.AvailabilitySlots;
+import com.connect.pairr.core.recommendation.BudgetedRanking;
+import com.connect.pairr.core.recommendation.CandidateBatch;
+import com.connect.pairr.core.recommendation.CandidateIndex;
+import com.connect.pairr.core.recommendation.RecommendationCursor;
 import com.connect.pairr.core.recommendation.RecommendationEngine;
-import com.connect.pairr.model.dto.UserSkillAvailabilityData;
-import com.connect.pairr.model.entity.UserAvailability;
-import com.connect.pairr.model.entity.UserSkill;
+import com.connect.pairr.core.recommendation.RecommendationMetrics;
+import com.connect.pairr.core.recommendation.RecommendationMetrics.Stage;
+import com.connect.pairr.core.recommendation.ScoringBudget;
+import com.connect.pairr.core.recommendation.ScoringStats;
+import com.connect.pairr.model.dto.RecommendationPage;
+import com.connect.pairr.model.dto.RecommendationQuery;
+import com.connect.pairr.model.dto.RecommendationResult;
+import com.connect.pairr.model.dto.RequesterProfileData;
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.entity.PrecomputedRecommendation;
 import com.connect.pairr.model.enums.DayType;
-import com.connect.pairr.model.enums.ProficiencyLevel;
 import com.connect.pairr.exception.RequesterAvailabilityMissingException;
 import com.connect.pairr.exception.RequesterSkillMissingException;
+import com.connect.pairr.repository.PrecomputedRecommendationRepository;
 import com.connect.pairr.repository.UserSkillRepository;
 import com.connect.pairr.repository.UserAvailabilityRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class RecommendationService {
 
+    public enum CandidateSource {
+        IN_JVM,         // every candidate is scored in the JVM (candidate index, or a DB stream until it is loaded)
+        DATABASE_RANGES // PostgreSQL pre-ranks candidates by slot_range overlap; only a shortlist is scored
+    }
+
+    private static final int SECONDS_PER_HOUR = 60 * 60;
+
     private final UserSkillRepository userSkillRepository;
     private final UserAvailabilityRepository userAvailabilityRepository;
     private final RecommendationEngine recommendationEngine;
+    private final CandidateIndex candidateIndex;
+    private final AvailabilityIntervalIndex availabilityIntervalIndex;
+    private final RecommendationCacheService recommendationCache;
+    private final ForkJoinPool recommendationPool;
+    private final PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    private final RecommendationMetrics recommendationMetrics;
+    private final PlatformTransactionManager transactionManager;
+
+    // Live computations of getRecommendations, shared by identical concurrent requests
+    private final Map<Flight, CompletableFuture<RecommendationResult>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${recommendation.candidate-source:IN_JVM}")
+    private CandidateSource candidateSource;
+
+    @Value("${recommendation.database-ranges.shortlist-factor:5}")
+    private int shortlistFactor;
+
+    @Value("${recommendation.time-matching.max-overlap-hours:4}")
+    private int maxOverlapHours;
+
+    @Value("${recommendation.paging.snapshot-size:1000}")
+    private int snapshotSize;
+
+    @Value("${recommendation.precomputed.enabled:true}")
+    private boolean precomputedEnabled;
+
+    @Value("${recommendation.approximate.enabled:false}")
+    private boolean approximateEnabled;
+
+    @Value("${recommendation.approximate.min-candidates:100000}")
+    private int approximateMinCandidates;
+
+    @Value("${recommendation.approximate.time-limit:50ms}")
+    private Duration approximateTimeLimit;
+
+    @Value("${recommendation.approximate.max-evaluations:50000}")
+    private int approximateMaxEvaluations;
+
+    @Value("${recommendation.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${recommendation.coalescing.wait-timeout:5s}")
+    private Duration coalescingWaitTimeout;
+
+    @Value("${recommendation.interval-index.enabled:false}")
+    private boolean overlapFirst;
+
+    // A cache miss being computed; only requests seeing the same cache generation share it
+    private record Flight(RecommendationCacheService.Key key, long generation) {}
+
+    /**
+     * Serves from the result cache, then from a clean precomputed ranking that is deep enough,
+     * and only then ranks live. The result reports which one it came from and when it was ranked.
+     *
+     * With {@code recommendation.approximate.enabled}, pools of at least
+     * {@code recommendation.approximate.min-candidates} are ranked within a time and evaluation
+     * budget, most promising candidates first; the result's coverage then says how many candidates
+     * were evaluated and whether the budget cut the ranking short. Other callers always rank exactly.
+     *
+     * Identical requests (same requester, skill, day type and N) that miss the cache while one of
+     * them is being computed wait for that computation and share its result or exception, instead
+     * of running the pipeline again. A request arriving after a cache invalidation does not join a
+     * computation started before it. A request that has waited
+     * {@code recommendation.coalescing.wait-timeout} stops waiting and computes on its own.
+     *
+     * Runs without a transaction, so cache hits and waiting requests hold no database connection;
+     * only the computation itself runs in a read-only transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RecommendationResult getRecommendations(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {
+        RecommendationCacheService.Key cacheKey =
+                new RecommendationCacheService.Key(requesterUserId, skillId, dayType, numberOfRecommendations);
+
+        Optional<RecommendationResult> cached = recommendationCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long generation = recommendationCache.generation();
+        if (!coalescingEnabled) {
+            return computeAndCache(cacheKey, generation);
+        }
+
+        Flight flight = new Flight(cacheKey, generation);
+        CompletableFuture<RecommendationResult> leader = new CompletableFuture<>();
+        CompletableFuture<RecommendationResult> running = inFlight.putIfAbsent(flight, leader);
+        if (running != null) {
+            recommendationMetrics.recordCoalesced(dayType);
+            Optional<RecommendationResult> shared = await(running);
+            if (shared.isPresent()) return shared.get();
+            // The shared computation is taking too long; compute independently rather than keep waiting
+            recommendationMetrics.recordCoalescingTimeout(dayType);
+            return computeAndCache(cacheKey, generation);
+        }
+
+        try {
+            RecommendationResult result = computeAndCache(cacheKey, generation);
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Later requests find the result in the cache, or start a new computation
+            inFlight.remove(flight, leader);
+        }
+    }
+
+    private RecommendationResult computeAndCache(RecommendationCacheService.Key cacheKey, long generation) {
+        UUID requesterUserId = cacheKey.requesterId();
+        UUID skillId = cacheKey.skillId();
+        DayType dayType = cacheKey.dayType();
+        int numberOfRecommendations = cacheKey.numberOfRecommendations();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        RecommendationResult result = transaction.execute(status ->
+                findPrecomputed(requesterUserId, skillId, dayType, numberOfRecommendations)
+                        .orElseGet(() -> rank(requesterUserId, skillId, dayType, numberOfRecommendations, approximateEnabled)));
+        recommendationCache.put(cacheKey, result, generation);
+        return result;
+    }
+
+    // Empty if the computation has not finished within the wait timeout. Otherwise rethrows the
+    // computation's own exception, so followers fail exactly like the leader
+    private Optional<RecommendationResult> await(CompletableFuture<RecommendationResult> running) {
+        try {
+            // A copy, so the timeout does not complete the future other requests share
+            return Optional.of(running.copy()
+                    .orTimeout(coalescingWaitTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) return Optional.empty();
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Ranks from current data, bypassing the result cache and the precomputed table.
+     * Used by the job that fills the precomputed table.
+     */
+    public List<Recommendation> computeLiveRecommendations(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {
+        return computeRecommendations(requesterUserId, skillId, dayType, numberOfRecommendations);
+    }
+
+    private Optional<RecommendationResult> findPrecomputed(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {
+        if (!precomputedEnabled) return Optional.empty();
+
+        return precomputedRecommendationRepository.findByUserIdAndSkillIdAndDayType(requesterUserId, skillId, dayType)
+                .filter(row -> !row.isDirty() && numberOfRecommendations <= row.getTopK())
+                .map(row -> new RecommendationResult(
+                        topOf(row, numberOfRecommendations),
+                        RecommendationResult.Source.PRECOMPUTED,
+                        row.getComputedAt()));
+    }
+
+    private static List<Recommendation> topOf(PrecomputedRecommendation row, int numberOfRecommendations) {
+        List<Recommendation> ranked = row.getRecommendations();
+        return List.copyOf(ranked.subList(0, Math.min(numberOfRecommendations, ranked.size())));
+    }
+
+    /**
+     * Returns one page of the ranking, starting after {@code cursor} (or at the top if null).
+     *
+     * Pages are cut from a ranked snapshot of the top {@code recommendation.paging.snapshot-size}
+     * candidates. The snapshot is computed once per requester, skill and day type, then reused until
+     * it expires, so later pages cost a binary search. If it has expired, a fresh snapshot is ranked
+     * and the cursor still resumes at the right place, because it holds a position (score, userId)
+     * rather than an offset.
+     *
+     * A page reaching the end of a snapshot that was cut at its depth, rather than by running out
+     * of candidates, ranks the snapshot another {@code snapshot-size} deeper first, so paging
+     * continues until every candidate has been seen.
+     */
+    public RecommendationPage getRecommendationPage(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int pageSize,
+            String cursor
+    ) {
+        // Decoded first, so a malformed cursor fails before any ranking work
+        RecommendationCursor position = cursor == null ? null : RecommendationCursor.decode(cursor);
+
+        RecommendationCacheService.Key snapshotKey =
+                new RecommendationCacheService.Key(requesterUserId, skillId, dayType, snapshotSize);
+        RecommendationCacheService.Snapshot snapshot = recommendationCache.getSnapshot(snapshotKey).orElse(null);
+        if (snapshot == null) {
+            snapshot = rankSnapshot(requesterUserId, skillId, dayType, snapshotSize);
+            recommendationCache.putSnapshot(snapshotKey, snapshot);
+        }
+
+        List<Recommendation> ranked = snapshot.recommendations();
+        int start = position == null ? 0 : position.startIndexIn(ranked);
+        // The engine keeps only the top N, so going deeper re-ranks from the top; the ranking stays
+        // one sorted list and the cursor is found in it as before
+        while (!snapshot.complete() && start + pageSize >= ranked.size()) {
+            snapshot = rankSnapshot(requesterUserId, skillId, dayType, ranked.size() + snapshotSize);
+            recommendationCache.putSnapshot(snapshotKey, snapshot);
+            ranked = snapshot.recommendations();
+            start = position == null ? 0 : position.startIndexIn(ranked);
+        }
 
-    public List<Recommendation> getRecommendations(
+        int end = Math.min(start + pageSize, ranked.size());
+        List<Recommendation> page = ranked.subList(start, end);
+
+        String nextCursor = end < ranked.size() ? RecommendationCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new RecommendationPage(List.copyOf(page), nextCursor);
+    }
+
+    private RecommendationCacheService.Snapshot rankSnapshot(UUID requesterUserId, UUID skillId, DayType dayType, int depth) {
+        List<Recommendation> ranked = computeRecommendations(requesterUserId, skillId, dayType, depth);
+        return new RecommendationCacheService.Snapshot(ranked, ranked.size() < depth);
+    }
+
+    /**
+     * Answers several (skillId, dayType) queries for one requester in a single call.
+     *
+     * Cached queries are answered from the result cache. For the rest, the requester's availability
+     * and skills are loaded once, candidates for all of them come from the candidate index (or one
+     * batched query until it is loaded), and the queries are scored concurrently on the
+     * recommendation pool. A query the requester cannot be matched for (no availability on that
+     * day type, or skill not registered) gets an error instead of failing the whole batch.
+     * Results are returned in request order, duplicates removed.
+     */
+    public List<BatchRecommendationResult> getBatchRecommendations(
+            UUID requesterUserId,
+            List<RecommendationQuery> queries,
+            int numberOfRecommendations
+    ) {
+        Set<RecommendationQuery> distinctQueries = new LinkedHashSet<>(queries);
+        Map<RecommendationQuery, List<Recommendation>> results = new HashMap<>();
+        List<RecommendationQuery> misses = new ArrayList<>();
+        for (RecommendationQuery query : distinctQueries) {
+            recommendationCache.get(cacheKey(requesterUserId, query, numberOfRecommendations))
+                    .ifPresentOrElse(cached -> results.put(query, cached.recommendations()), () -> misses.add(query));
+        }
+
+        Map<RecommendationQuery, String> errors = new HashMap<>();
+        if (!misses.isEmpty()) {
+            long generation = recommendationCache.generation();
+
+            Map<DayType, List<TimeSlotData>> requesterAvailabilities = userAvailabilityRepository
+                    .getAvailabilitySlotData(List.of(requesterUserId)).stream()
+                    .collect(Collectors.groupingBy(AvailabilitySlotData::dayType,
+                            Collectors.mapping(slot -> new TimeSlotData(slot.startTime(), slot.endTime()), Collectors.toList())));
+            Map<UUID, RequesterSkillData> requesterSkills = userSkillRepository.getRequesterSkills(requesterUserId).stream()
+                    .collect(Collectors.toMap(RequesterSkillData::skillId, userSkill -> userSkill));
+
+            List<RecommendationQuery> servable = new ArrayList<>();
+            for (RecommendationQuery query : misses) {
+                if (!requesterAvailabilities.containsKey(query.dayType())) {
+                    errors.put(query, new RequesterAvailabilityMissingException().getMessage());
+                } else if (!requesterSkills.containsKey(query.skillId())) {
+                    errors.put(query, new RequesterSkillMissingException(query.skillId()).getMessage());
+                } else {
+                    servable.add(query);
+                }
+            }
+
+            Map<RecommendationQuery, CandidateBatch> candidates =
+                    loadBatchCandidates(requesterUserId, requesterAvailabilities, servable, numberOfRecommendations);
+
+            // The engine is pure, so only scoring moves to the pool; all DB access stays on this thread
+            Map<RecommendationQuery, CompletableFuture<List<Recommendation>>> scoring = new LinkedHashMap<>();
+            Map<RecommendationQuery, ScoringStats> stats = new HashMap<>();
+            for (RecommendationQuery query : servable) {
+                ScoringStats queryStats = recommendationMetrics.newScoringStats();
+                stats.put(query, queryStats);
+                scoring.put(query, CompletableFuture.supplyAsync(() -> recommendationEngine.recommend(
+                        requesterAvailabilities.get(query.dayType()),
+                        requesterSkills.get(query.skillId()),
+                        candidates.get(query),
+                        numberOfRecommendations,
+                        queryStats), recommendationPool));
+            }
+            scoring.forEach((query, future) -> {
+                List<Recommendation> recommendations = future.join();
+                recommendationMetrics.recordScoring(query.dayType(), stats.get(query));
+                recommendationCache.put(cacheKey(requesterUserId, query, numberOfRecommendations),
+                        RecommendationResult.live(recommendations), generation);
+                results.put(query, recommendations);
+            });
+        }
+
+        return distinctQueries.stream()
+                .map(query -> BatchRecommendationResult.builder()
+                        .skillId(query.skillId())
+                        .dayType(query.dayType())
+                        .recommendations(results.get(query))
+                        .error(errors.get(query))
+                        .build())
+                .toList();
+    }
+
+    private Map<RecommendationQuery, CandidateBatch> loadBatchCandidates(
+            UUID requesterUserId,
+            Map<DayType, List<TimeSlotData>> requesterAvailabilities,
+            List<RecommendationQuery> queries,
+            int numberOfRecommendations
+    ) {
+        Map<RecommendationQuery, CandidateBatch> candidates = new HashMap<>();
+        if (queries.isEmpty()) return candidates;
+
+        if (candidateSource == CandidateSource.DATABASE_RANGES) {
+            // The shortlist is ranked per query, so this source needs one round trip per query
+            for (RecommendationQuery query : queries) {
+                candidates.put(query, loadRangeShortlist(
+                        requesterUserId, query.skillId(), query.dayType(), numberOfRecommendations));
+            }
+            return candidates;
+        }
+
+        if (candidateIndex.isReady()) {
+            for (RecommendationQuery query : queries) {
+                candidates.put(query, preferOverlapping(
+                        candidateIndex.getCandidateBatch(query.skillId(), query.dayType()),
+                        requesterUserId,
+                        requesterAvailabilities.get(query.dayType()),
+                        query.dayType(),
+                        numberOfRecommendations));
+            }
+            return candidates;
+        }
+
+        Map<RecommendationQuery, List<CandidateSlotsData>> grouped = new HashMap<>();
+        queries.forEach(query -> grouped.put(query, new ArrayList<>()));
+        List<CandidateIndexData> rows = userSkillRepository.getBatchRecommendationCandidates(
+                queries.stream().map(RecommendationQuery::skillId).collect(Collectors.toSet()),
+                queries.stream().map(query -> query.dayType().name()).collect(Collectors.toSet()),
+                requesterUserId);
+        for (CandidateIndexData row : rows) {
+            List<CandidateSlotsData> forQuery = grouped.get(new RecommendationQuery(row.skillId(), row.dayType()));
+            if (forQuery == null) continue; // a skill and day type combination nobody asked for
+            forQuery.add(row.toCandidateSlots());
+        }
+        grouped.forEach((query, forQuery) -> candidates.put(query, CandidateBatch.of(forQuery)));
+        return candidates;
+    }
+
+    /**
+     * Time-compatible candidates first: if at least N candidates have a slot overlapping one of the
+     * requester's, only those are scored, found through the {@link AvailabilityIntervalIndex} in
+     * O(log n + k). Otherwise everyone is scored, so gap-distance scoring can fill the list.
+     *
+     * Approximate, hence opt-in ({@code recommendation.interval-index.enabled}): a candidate with
+     * only a small gap but stronger proficiency, ratings or sessions can outscore a weak overlapping
+     * one, and is then missed.
+     */
+    private CandidateBatch preferOverlapping(
+            CandidateBatch candidates,
+            UUID requesterUserId,
+            List<TimeSlotData> requesterAvailabilities,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {
+        if (!overlapFirst || !availabilityIntervalIndex.isReady() || candidates.size() <= numberOfRecommendations) {
+            return candidates;
+        }
+
+        Set<UUID> overlappingUserIds = availabilityIntervalIndex.findOverlappingUsers(dayType,
+                AvailabilitySlots.of(requesterAvailabilities, TimeSlotData::startTime, TimeSlotData::endTime));
+        overlappingUserIds.remove(requesterUserId);
+
+        CandidateBatch overlapping = candidates.restrictTo(overlappingUserIds);
+        return overlapping.size() >= numberOfRecommendations ? overlapping : candidates;
+    }
+
+    private static RecommendationCacheService.Key cacheKey(UUID requesterUserId, RecommendationQuery query, int numberOfRecommendations) {
+        return new RecommendationCacheService.Key(requesterUserId, query.skillId(), query.dayType(), numberOfRecommendations);
+    }
+
+    private List<Recommendation> computeRecommendations(
             UUID requesterUserId,
             UUID skillId,
             DayType dayType,
             int numberOfRecommendations
     ) {
+        return rank(requesterUserId, skillId, dayType, numberOfRecommendations, false).recommendations();
+    }
+
+    private RecommendationResult rank(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations,
+            boolean withinBudget
+    ) {
 
-        // Fetch requester availabilities for this skill
-        // TODO: make UserAvailability a proxy record
-        List<UserAvailability> requesterAvailabilities =
-                userAvailabilityRepository.findByUserIdAndDayType(requesterUserId, dayType);
+        long requesterStart = recommendationMetrics.start();
 
+        // Skill, overall rating and slots in one query, as projections: nothing enters the persistence context
+        List<RequesterProfileData> requesterProfile =
+                userSkillRepository.getRequesterProfile(requesterUserId, skillId, dayType);
+
+        List<TimeSlotData> requesterAvailabilities = requesterProfile.stream()
+                .filter(RequesterProfileData::hasSlot)
+                .map(RequesterProfileData::toTimeSlot)
+                .toList();
         if (requesterAvailabilities.isEmpty()) {
             throw new RequesterAvailabilityMissingException();
         }
 
-        Optional<UserSkill> requesterUserSkillOptional = userSkillRepository
-                .findByUserIdAndSkillId(requesterUserId, skillId);
-
-        if (requesterUserSkillOptional.isEmpty()) {
+        if (!requesterProfile.get(0).hasSkill()) {
             throw new RequesterSkillMissingException(skillId);
         }
+        RequesterSkillData requesterUserSkill = requesterProfile.get(0).toSkillData();
+        recommendationMetrics.recordStage(Stage.LOAD_REQUESTER, dayType, requesterStart);
 
-        ProficiencyLevel requesterProficiency = requesterUserSkillOptional.get().getProficiency();
-        UserSkill requesterUserSkill = requesterUserSkillOptional.get();
+        ScoringStats stats = recommendationMetrics.newScoringStats();
 
-        List<UserSkillAvailabilityData> candidates =
-                userSkillRepository.getRecommendationCandidates(skillId, dayType, requesterUserId);
+        // Until the in-memory index is loaded, stream candidates from the DB join instead.
+        // Each row is one candidate with its slots aggregated and is scored as it arrives, so
+        // memory depends on the number of recommendations rather than the number of candidates
+        if (candidateSource != CandidateSource.DATABASE_RANGES && !candidateIndex.isReady()) {
+            long streamStart = recommendationMetrics.start();
+            try (Stream<CandidateSlotsData> candidateRows =
+                         userSkillRepository.streamRecommendationCandidates(skillId, dayType.name(), requesterUserId)) {
+                List<Recommendation> recommendations = recommendationEngine.recommend(
+                        requesterAvailabilities,
+                        requesterUserSkill,
+                        candidateRows,
+                        numberOfRecommendations,
+                        stats);
+                recommendationMetrics.recordStage(Stage.STREAM, dayType, streamStart);
+                recommendationMetrics.recordScoring(dayType, stats);
+                return RecommendationResult.live(recommendations);
+            }
+        }
 
-        // Group by user
-        Map<UUID, List<UserSkillAvailabilityData>> groupedCandidates =
-                candidates.stream()
-                        .collect(Collectors.groupingBy(UserSkillAvailabilityData::userId));
+        CandidateBatch candidates;
+        if (candidateSource == CandidateSource.DATABASE_RANGES) {
+            candidates = loadRangeShortlist(requesterUserId, skillId, dayType, numberOfRecommendations);
+        } else {
+            long candidatesStart = recommendationMetrics.start();
+            candidates = preferOverlapping(
+                    candidateIndex.getCandidateBatch(skillId, dayType), requesterUserId, requesterAvailabilities, dayType, numberOfRecommendations);
+            recommendationMetrics.recordStage(Stage.LOAD_CANDIDATES, dayType, candidatesStart);
+        }
 
         // current user -> List.of(UA) [(uid1, name1, [start1,end1]), (uid1, name1, [start2,end2])]
         // recommendation views -> List.of(UA) [(uid2, name2, [start3,end3]), (uid3, name3, [start4,end4]), (uid3, name3, [start5,end5])]
         // now we need to find a list of ranked user ids with an overlap
         // availability times
 
-        // Potential future improvements if dataset grows large (10k+ candidates):
-        // Push filtering to DB (pre-filter by rating threshold)
-        // Add pagination
-        return recommendationEngine.recommend(
+        long scoringStart = recommendationMetrics.start();
+        if (withinBudget && candidates.size() >= approximateMinCandidates) {
+            BudgetedRanking ranking = recommendationEngine.recommendWithinBudget(
+                    requesterAvailabilities,
+                    requesterUserSkill,
+                    candidates,
+                    numberOfRecommendations,
+                    new ScoringBudget(approximateTimeLimit, approximateMaxEvaluations),
+                    stats);
+            recommendationMetrics.recordStage(Stage.SCORING, dayType, scoringStart);
+            recommendationMetrics.recordScoring(dayType, stats);
+            recommendationMetrics.recordBudgeted(dayType, ranking.exact());
+            return RecommendationResult.live(ranking.recommendations(), new RecommendationResult.Coverage(
+                    ranking.candidateCount(), ranking.evaluatedCount(), ranking.exact()));
+        }
+
+        List<Recommendation> recommendations = recommendationEngine.recommend(
                 requesterAvailabilities,
                 requesterUserSkill,
-                groupedCandidates,
-                numberOfRecommendations);
+                candidates,
+                numberOfRecommendations,
+                stats);
+        recommendationMetrics.recordStage(Stage.SCORING, dayType, scoringStart);
+        recommendationMetrics.recordScoring(dayType, stats);
+        return RecommendationResult.live(recommendations);
 
     }
-}
 
+    /**
+     * Lets PostgreSQL rank candidates by time overlap alone and loads only the best
+     * {@code shortlistFactor * N} of them for the engine to score. Approximate: a candidate with little overlap but
+     * strong other factors can be cut from the shortlist, so results may differ from IN_JVM.
+     */
+    private CandidateBatch loadRangeShortlist(
+            UUID requesterUserId,
+            UUID skillId,
+            DayType dayType,
+            int numberOfRecommendations
+    ) {
+        long candidatesStart = recommendationMetrics.start();
+        List<UUID> shortlist = userSkillRepository.findRangeShortlist(
+                skillId,
+                dayType.name(),
+                requesterUserId,
+                maxOverlapHours * SECONDS_PER_HOUR,
+                numberOfRecommendations * shortlistFactor);
+
+        if (shortlist.isEmpty()) {
+            recommendationMetrics.recordStage(Stage.LOAD_CANDIDATES, dayType, candidatesStart);
+            return CandidateBatch.EMPTY;
+        }
+
+        // One row per candidate, slots already aggregated
+        List<CandidateSlotsData> rows = userSkillRepository.getRecommendationCandidates(skillId, dayType.name(), shortlist);
+        recommendationMetrics.recordStage(Stage.LOAD_CANDIDATES, dayType, candidatesStart);
+
+        long groupingStart = recommendationMetrics.start();
+        CandidateBatch candidates = CandidateBatch.of(rows);
+        recommendationMetrics.recordStage(Stage.GROUPING, dayType, groupingStart);
+        return candidates;
+    }
+}
@@ -4,10 +4,12 @@ import com.connect.pairr.mapper.UserAvailabilityMapper;
 import com.connect.pairr.model.dto.AddUserAvailabilityRequest;
 import com.connect.pairr.model.entity.User;
 import com.connect.pairr.model.entity.UserAvailability;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
 import com.connect.pairr.exception.UserNotFoundException;
 import com.connect.pairr.repository.UserAvailabilityRepository;
 import com.connect.pairr.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ public class UserAvailabilityService {
 
     private final UserAvailabilityRepository userAvailabilityRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<UserAvailability> getUserAvailabilities(UUID userId) {
         return userAvailabilityRepository.findAllByUserId(userId);
@@ -33,6 +36,7 @@ public class UserAvailabilityService {
         // Delete all existing availabilities and replace with the new set
         userAvailabilityRepository.deleteAllByUserId(userId);
         userAvailabilityRepository.flush();
+        eventPublisher.publishEvent(new UserAvailabilityChangedEvent(userId));
 
         if (requests.isEmpty()) return List.of();
 
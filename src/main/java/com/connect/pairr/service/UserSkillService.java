@@ -5,12 +5,14 @@ import com.connect.pairr.model.dto.AddUserSkillRequest;
 import com.connect.pairr.model.entity.Skill;
 import com.connect.pairr.model.entity.User;
 import com.connect.pairr.model.entity.UserSkill;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
 import com.connect.pairr.exception.SkillNotFoundException;
 import com.connect.pairr.exception.UserNotFoundException;
 import com.connect.pairr.repository.SkillRepository;
 import com.connect.pairr.repository.UserRepository;
 import com.connect.pairr.repository.UserSkillRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class UserSkillService {
     private final UserRepository userRepository;
     private final UserSkillRepository userSkillRepository;
     private final SkillRepository skillRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<UserSkill> getUserSkills(UUID userId) {
         return userSkillRepository.findAllByUserId(userId);
@@ -35,9 +38,13 @@ public class UserSkillService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
+        // Skills being replaced still affect cached recommendations for them
+        Set<UUID> previousSkillIds = userSkillRepository.findSkillIdsByUserIds(List.of(userId));
+
         // Delete all existing skills and replace with the new set
         userSkillRepository.deleteAllByUserId(userId);
         userSkillRepository.flush();
+        eventPublisher.publishEvent(new UserSkillsChangedEvent(userId, previousSkillIds));
 
         if (requests.isEmpty()) return;
 
@@ -0,0 +1,64 @@
+package com.connect.pairr.config;
+
+import com.connect.pairr.auth.CustomOAuth2SuccessHandler;
+import com.connect.pairr.auth.CustomOAuth2UserService;
+import com.connect.pairr.auth.JwtService;
+import com.connect.pairr.controller.UserController;
+import com.connect.pairr.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Only the filter chains are under test; the actuator endpoints themselves are not loaded in this slice
+@WebMvcTest(controllers = UserController.class,
+        properties = {"GOOGLE_CLIENT_ID=test", "GOOGLE_CLIENT_SECRET=test"})
+@Import(SecurityConfig.class)
+class SecurityConfigTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private UserService userService;
+    @MockitoBean private JwtService jwtService;
+    @MockitoBean private CustomOAuth2UserService customOAuth2UserService;
+    @MockitoBean private CustomOAuth2SuccessHandler customOAuth2SuccessHandler;
+    @MockitoBean private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Test
+    void actuatorEndpoints_withoutToken_areUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/caches")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/caches")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void actuatorEndpoints_forNonAdmin_areForbidden() throws Exception {
+        mockMvc.perform(delete("/actuator/caches").with(user("user").roles("USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void actuatorEndpoints_forAdmin_passSecurity() throws Exception {
+        int status = mockMvc.perform(get("/actuator/metrics").with(user("admin").roles("ADMIN")))
+                .andReturn().getResponse().getStatus();
+
+        assertThat(status).isNotIn(401, 403);
+    }
+
+    @Test
+    void health_withoutToken_passesSecurity() throws Exception {
+        int status = mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus();
+
+        assertThat(status).isNotIn(401, 403);
+    }
+}
@@ -0,0 +1,36 @@
+package com.connect.pairr.core.chat;
+
+import com.connect.pairr.exception.InvalidMessageCursorException;
+import com.connect.pairr.model.entity.Message;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCursorTest {
+
+    @Test
+    void encodeDecode_roundTrips() {
+        MessageCursor cursor = new MessageCursor(Instant.parse("2026-03-01T12:30:45.123456Z"), UUID.randomUUID());
+
+        assertEquals(cursor, MessageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void before_takesMessagePosition() {
+        Message message = Message.builder()
+                .id(UUID.randomUUID()).content("Hi").createdAt(Instant.parse("2026-03-01T12:00:00Z")).build();
+
+        MessageCursor cursor = MessageCursor.before(message);
+
+        assertEquals(message.getCreatedAt(), cursor.createdAt());
+        assertEquals(message.getId(), cursor.id());
+    }
+
+    @Test
+    void decode_malformed_throws() {
+        assertThrows(InvalidMessageCursorException.class, () -> MessageCursor.decode("not-a-cursor"));
+    }
+}
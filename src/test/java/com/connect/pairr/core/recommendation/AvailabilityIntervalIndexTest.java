@@ -0,0 +1,130 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.AvailabilitySlotData;
+import com.connect.pairr.model.enums.DayType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIntervalIndexTest {
+
+    private AvailabilityIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIntervalIndex();
+    }
+
+    private static AvailabilitySlotData slot(UUID userId, DayType dayType, int startHour, int endHour) {
+        return new AvailabilitySlotData(userId, dayType, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0));
+    }
+
+    private static AvailabilitySlots requester(int startHour, int endHour) {
+        return AvailabilitySlots.of(List.of(new int[]{startHour, endHour}),
+                slot -> LocalTime.of(slot[0], 0), slot -> LocalTime.of(slot[1], 0));
+    }
+
+    @Test
+    void findOverlappingUsers_matchesOverlapsOnSameDayTypeOnly() {
+        UUID overlapping = UUID.randomUUID();
+        UUID touching = UUID.randomUUID();
+        UUID weekendOnly = UUID.randomUUID();
+        index.load(List.of(
+                slot(overlapping, DayType.WEEKDAY, 11, 14),
+                slot(touching, DayType.WEEKDAY, 12, 13),
+                slot(weekendOnly, DayType.WEEKEND, 9, 12)), index.nextVersion());
+
+        assertEquals(Set.of(overlapping), index.findOverlappingUsers(DayType.WEEKDAY, requester(9, 12)));
+    }
+
+    @Test
+    void findOverlappingUsers_midnightCrossingSlots_matchEveningAndMorning() {
+        UUID lateNight = UUID.randomUUID();
+        UUID earlyMorning = UUID.randomUUID();
+        UUID midday = UUID.randomUUID();
+        index.load(List.of(
+                slot(lateNight, DayType.WEEKDAY, 23, 3),
+                slot(earlyMorning, DayType.WEEKDAY, 1, 2),
+                slot(midday, DayType.WEEKDAY, 11, 14)), index.nextVersion());
+
+        assertEquals(Set.of(lateNight, earlyMorning), index.findOverlappingUsers(DayType.WEEKDAY, requester(22, 2)));
+        assertEquals(Set.of(lateNight), index.findOverlappingUsers(DayType.WEEKDAY, requester(2, 4)));
+
+        index.replaceUsers(List.of(lateNight), List.of(), index.nextVersion());
+        assertTrue(index.findOverlappingUsers(DayType.WEEKDAY, requester(2, 4)).isEmpty());
+    }
+
+    @Test
+    void replaceUsers_movesAndRemovesSlots() {
+        UUID moved = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        index.load(List.of(slot(moved, DayType.WEEKDAY, 18, 20), slot(removed, DayType.WEEKDAY, 9, 10)), index.nextVersion());
+
+        index.replaceUsers(List.of(moved, removed), List.of(slot(moved, DayType.WEEKDAY, 9, 11)), index.nextVersion());
+
+        assertEquals(Set.of(moved), index.findOverlappingUsers(DayType.WEEKDAY, requester(9, 12)));
+        assertTrue(index.findOverlappingUsers(DayType.WEEKDAY, requester(18, 20)).isEmpty());
+    }
+
+    @Test
+    void replaceUsers_olderVersion_isSkippedForUsersAlreadyReplaced() {
+        UUID userId = UUID.randomUUID();
+        index.load(List.of(slot(userId, DayType.WEEKDAY, 9, 10)), index.nextVersion());
+        long older = index.nextVersion();
+        long newer = index.nextVersion();
+
+        index.replaceUsers(List.of(userId), List.of(slot(userId, DayType.WEEKDAY, 18, 20)), newer);
+        index.replaceUsers(List.of(userId), List.of(slot(userId, DayType.WEEKDAY, 9, 11)), older);
+
+        assertEquals(Set.of(userId), index.findOverlappingUsers(DayType.WEEKDAY, requester(19, 21)));
+        assertTrue(index.findOverlappingUsers(DayType.WEEKDAY, requester(9, 11)).isEmpty());
+    }
+
+    @Test
+    void replaceUsers_beforeLoad_isDeferred() {
+        UUID userId = UUID.randomUUID();
+        index.replaceUsers(List.of(userId), List.of(slot(userId, DayType.WEEKDAY, 9, 10)), index.nextVersion());
+
+        assertFalse(index.isReady());
+        assertEquals(Set.of(userId), index.drainPendingUserIds());
+    }
+
+    @Test
+    void randomSlots_matchBruteForce() {
+        Random random = new Random(3);
+        List<AvailabilitySlotData> rows = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            UUID userId = new UUID(0, i / 3); // several slots per user
+            int start = random.nextInt(23);
+            int end = start + 1 + random.nextInt(23 - start);
+            rows.add(slot(userId, random.nextBoolean() ? DayType.WEEKDAY : DayType.WEEKEND, start, end));
+        }
+        rows.add(rows.get(0)); // the same slot listed twice
+        index.load(rows, index.nextVersion());
+
+        // Remove a third of the users to exercise deletion
+        Set<UUID> replaced = rows.stream().map(AvailabilitySlotData::userId).filter(id -> id.getLeastSignificantBits() % 3 == 0)
+                .collect(Collectors.toSet());
+        index.replaceUsers(replaced, List.of(), index.nextVersion());
+        List<AvailabilitySlotData> remaining = rows.stream().filter(row -> !replaced.contains(row.userId())).toList();
+
+        for (int q = 0; q < 200; q++) {
+            int start = random.nextInt(23);
+            int end = start + 1 + random.nextInt(23 - start);
+            DayType dayType = random.nextBoolean() ? DayType.WEEKDAY : DayType.WEEKEND;
+
+            Set<UUID> expected = remaining.stream()
+                    .filter(row -> row.dayType() == dayType
+                            && row.startTime().toSecondOfDay() < end * 3600
+                            && row.endTime().toSecondOfDay() > start * 3600)
+                    .map(AvailabilitySlotData::userId)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, index.findOverlappingUsers(dayType, requester(start, end)));
+        }
+    }
+}
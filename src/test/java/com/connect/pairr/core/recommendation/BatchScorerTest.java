@@ -0,0 +1,116 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchScorerTest {
+
+    private ScoreCalculator scoreCalculator;
+
+    @BeforeEach
+    void setUp() {
+        scoreCalculator = new ScoreCalculator(new TimeMatcher());
+        ReflectionTestUtils.setField(scoreCalculator, "maxOverlapHours", 4);
+    }
+
+    // --- Helper factories ---
+
+    private CandidateBatch randomBatch(Random random, int size) {
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            candidates.put(id, List.of(new UserSkillAvailabilityData(
+                    id, "Candidate", levels[random.nextInt(levels.length)],
+                    random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(501), 2),
+                    random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(501), 2),
+                    random.nextInt(5) == 0 ? null : (long) random.nextInt(40),
+                    LocalTime.of(9, 0), LocalTime.of(10, 0))));
+        }
+        return CandidateBatch.of(candidates);
+    }
+
+    // --- Implementation choice ---
+
+    @Test
+    void create_vectorScoringDisabled_returnsScalarScorer() {
+        assertInstanceOf(ScalarBatchScorer.class, BatchScorers.create(scoreCalculator, false));
+    }
+
+    // --- Equivalence with ScoreCalculator ---
+    // BatchScorers.create(.., true) is the Vector API scorer under -Pvector and the scalar one otherwise
+
+    @Test
+    void createdScorer_matchesScoreCalculatorExactly() {
+        Random random = new Random(17);
+        // Odd size and a restricted batch, so gathers over non-contiguous rows and the scalar tail both run
+        CandidateBatch full = randomBatch(random, 1_001);
+        List<UUID> kept = new ArrayList<>();
+        for (int k = 0; k < full.size(); k += 3) kept.add(full.userId(k));
+
+        for (CandidateBatch batch : List.of(full, full.restrictTo(kept))) {
+            for (double requesterSkillRating : new double[]{0.7, Double.NaN}) {
+                assertBlocksMatch(batch, random, ProficiencyLevel.INTERMEDIATE.getLevel(), requesterSkillRating, 0.84);
+            }
+        }
+    }
+
+    @Test
+    void finalScores_roundHalfHundredthsLikeMathRound() {
+        BatchScorer scorer = BatchScorers.create(scoreCalculator, true);
+        ScoreBlock block = new ScoreBlock();
+        // Raw sums sitting on or right next to a rounding boundary: 0.005 * 100 = 0.5, and the double
+        // just below 0.005, which x + 0.5 would round up to 1
+        double[] times = {0.005 / 0.45, Math.nextDown(0.005) / 0.45, Math.nextDown(0.5) / 45, 0.0, 1.0, 0.3};
+        for (int k = 0; k < ScoreBlock.SIZE; k++) {
+            block.timeScores[k] = times[k % times.length];
+        }
+
+        scorer.finalScores(block, ScoreBlock.SIZE);
+
+        for (int k = 0; k < ScoreBlock.SIZE; k++) {
+            assertEquals(scoreCalculator.computeFinalScore(block.timeScores[k], 0, 0, 0, 0), block.finalScores[k], "lane " + k);
+        }
+    }
+
+    private void assertBlocksMatch(CandidateBatch batch, Random random, int requesterLevel,
+                                   double requesterSkillRating, double requesterOverallRating) {
+        BatchScorer scorer = BatchScorers.create(scoreCalculator, true);
+        ScoreBlock block = new ScoreBlock();
+
+        for (int from = 0; from < batch.size(); from += ScoreBlock.SIZE) {
+            int count = Math.min(ScoreBlock.SIZE, batch.size() - from);
+            scorer.scoreFactors(requesterLevel, requesterSkillRating, requesterOverallRating, batch, from, count, block);
+            for (int k = 0; k < count; k++) {
+                block.timeScores[k] = random.nextInt(4) == 0 ? 0 : random.nextDouble();
+            }
+            scorer.upperBounds(block, count);
+            scorer.finalScores(block, count);
+
+            for (int k = 0; k < count; k++) {
+                int i = batch.rows[from + k];
+                double proficiency = scoreCalculator.proficiencyScore(requesterLevel, (int) batch.proficiencyLevels[i]);
+                double skillRating = scoreCalculator.ratingScore(requesterSkillRating, batch.skillRatings[i]);
+                double userRating = scoreCalculator.ratingScore(requesterOverallRating, batch.overallRatings[i]);
+                double sessions = scoreCalculator.sessionCountScore((long) batch.completedSessions[i]);
+
+                assertEquals(proficiency, block.proficiencyScores[k]);
+                assertEquals(skillRating, block.skillRatingScores[k]);
+                assertEquals(userRating, block.userRatingScores[k]);
+                assertEquals(sessions, block.sessionCountScores[k]);
+                assertEquals(scoreCalculator.maxFinalScore(proficiency, skillRating, userRating, sessions), block.upperBounds[k]);
+                assertEquals(scoreCalculator.computeFinalScore(block.timeScores[k], proficiency, skillRating, userRating, sessions),
+                        block.finalScores[k]);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateIndexTest {
+
+    private CandidateIndex candidateIndex;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final UUID skillId = UUID.randomUUID();
+    private final UUID otherSkillId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        candidateIndex = new CandidateIndex();
+    }
+
+    // --- Helper factories ---
+
+    // One aggregated row, slot bounds given as start, end, start, end, ...
+    private CandidateIndexData row(UUID userId, UUID skillId, DayType dayType, LocalTime... bounds) {
+        int[] starts = new int[bounds.length / 2];
+        int[] ends = new int[bounds.length / 2];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = bounds[2 * i].toSecondOfDay();
+            ends[i] = bounds[2 * i + 1].toSecondOfDay();
+        }
+        return new CandidateIndexData(
+                userId, "User", skillId, ProficiencyLevel.INTERMEDIATE,
+                BigDecimal.valueOf(4), BigDecimal.valueOf(4.5), 3L, dayType, starts, ends);
+    }
+
+    private long version() {
+        return candidateIndex.nextVersion();
+    }
+
+    // --- Load ---
+
+    @Test
+    void notReady_untilLoaded() {
+        assertFalse(candidateIndex.isReady());
+        candidateIndex.load(List.of(), version());
+        assertTrue(candidateIndex.isReady());
+    }
+
+    @Test
+    void load_keysCandidatesBySkillAndDayType() {
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY,
+                        LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(14, 0), LocalTime.of(16, 0)),
+                row(userId, skillId, DayType.WEEKEND, LocalTime.of(10, 0), LocalTime.of(12, 0)),
+                row(otherUserId, otherSkillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        Map<UUID, CandidateSlotsData> weekday = candidateIndex.getCandidates(skillId, DayType.WEEKDAY);
+
+        assertEquals(Set.of(userId), weekday.keySet());
+        assertEquals(2, weekday.get(userId).startSeconds().length);
+        assertEquals(1, candidateIndex.getCandidates(skillId, DayType.WEEKEND).get(userId).startSeconds().length);
+        assertEquals(Set.of(otherUserId), candidateIndex.getCandidates(otherSkillId, DayType.WEEKDAY).keySet());
+    }
+
+    @Test
+    void getCandidates_unknownKey_returnsEmpty() {
+        candidateIndex.load(List.of(), version());
+        assertTrue(candidateIndex.getCandidates(skillId, DayType.WEEKDAY).isEmpty());
+    }
+
+    // --- Incremental updates ---
+
+    @Test
+    void replaceUsers_replacesOnlyGivenUsers() {
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                row(otherUserId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        candidateIndex.replaceUsers(List.of(userId), List.of(
+                row(userId, otherSkillId, DayType.WEEKEND, LocalTime.of(18, 0), LocalTime.of(20, 0))), version());
+
+        assertEquals(Set.of(otherUserId), candidateIndex.getCandidates(skillId, DayType.WEEKDAY).keySet());
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(otherSkillId, DayType.WEEKEND).keySet());
+    }
+
+    @Test
+    void replaceUsers_withoutRows_removesUser() {
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        candidateIndex.replaceUsers(List.of(userId), List.of(), version());
+
+        assertTrue(candidateIndex.getCandidates(skillId, DayType.WEEKDAY).isEmpty());
+    }
+
+    @Test
+    void getCandidateBatch_isReusedUntilItsKeyChanges() {
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                row(otherUserId, otherSkillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        CandidateBatch batch = candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY);
+        CandidateBatch otherBatch = candidateIndex.getCandidateBatch(otherSkillId, DayType.WEEKDAY);
+        assertSame(batch, candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY));
+
+        candidateIndex.replaceUsers(List.of(otherUserId), List.of(
+                row(otherUserId, skillId, DayType.WEEKDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))), version());
+
+        CandidateBatch rebuilt = candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY);
+        assertNotSame(batch, rebuilt);
+        assertEquals(2, rebuilt.size());
+        assertTrue(candidateIndex.getCandidateBatch(otherSkillId, DayType.WEEKDAY).isEmpty());
+        assertNotSame(otherBatch, candidateIndex.getCandidateBatch(otherSkillId, DayType.WEEKDAY));
+    }
+
+    @Test
+    void replaceUsers_olderVersion_isSkippedForUsersAlreadyReplaced() {
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                row(otherUserId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+        long older = version();
+        long newer = version();
+
+        // The newer refresh applies first; the older one only still applies to users it has not seen
+        candidateIndex.replaceUsers(List.of(userId), List.of(
+                row(userId, skillId, DayType.WEEKEND, LocalTime.of(18, 0), LocalTime.of(20, 0))), newer);
+        candidateIndex.replaceUsers(List.of(userId, otherUserId), List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))), older);
+
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(skillId, DayType.WEEKEND).keySet());
+        assertTrue(candidateIndex.getCandidates(skillId, DayType.WEEKDAY).isEmpty());
+    }
+
+    @Test
+    void replaceUsers_readBeforeLoad_isSkipped() {
+        long stale = version();
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        candidateIndex.replaceUsers(List.of(userId), List.of(), stale);
+
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(skillId, DayType.WEEKDAY).keySet());
+    }
+
+    @Test
+    void reload_replacesEveryUserButKeepsNewerRefreshes() {
+        UUID thirdUserId = UUID.randomUUID();
+        candidateIndex.load(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                row(otherUserId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+        long reloadVersion = version();
+        // Refreshed with newer rows while the reload was reading
+        candidateIndex.replaceUsers(List.of(userId), List.of(
+                row(userId, skillId, DayType.WEEKEND, LocalTime.of(18, 0), LocalTime.of(20, 0))), version());
+
+        // The reload read the user's old rows, no longer finds the other user, and finds a new one
+        candidateIndex.reload(List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                row(thirdUserId, skillId, DayType.WEEKDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))), reloadVersion);
+
+        assertEquals(Set.of(thirdUserId), candidateIndex.getCandidates(skillId, DayType.WEEKDAY).keySet());
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(skillId, DayType.WEEKEND).keySet());
+
+        // A refresh read before the reload no longer applies to anyone the reload replaced
+        candidateIndex.replaceUsers(List.of(thirdUserId), List.of(), reloadVersion - 1);
+        assertEquals(Set.of(thirdUserId), candidateIndex.getCandidates(skillId, DayType.WEEKDAY).keySet());
+    }
+
+    @Test
+    void replaceUsers_beforeLoad_isDeferred() {
+        candidateIndex.replaceUsers(List.of(userId), List.of(
+                row(userId, skillId, DayType.WEEKDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))), version());
+
+        assertEquals(Set.of(userId), candidateIndex.drainPendingUserIds());
+        assertTrue(candidateIndex.drainPendingUserIds().isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.exception.InvalidRecommendationCursorException;
+import com.connect.pairr.model.dto.Recommendation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationCursorTest {
+
+    private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID THIRD = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+    // Sorted by score descending, then user ID
+    private final List<Recommendation> ranked = List.of(
+            Recommendation.builder().userId(THIRD).score(0.9).build(),
+            Recommendation.builder().userId(FIRST).score(0.7).build(),
+            Recommendation.builder().userId(SECOND).score(0.7).build());
+
+    @Test
+    void encodeDecode_roundTrips() {
+        RecommendationCursor cursor = new RecommendationCursor(0.73, SECOND);
+
+        assertEquals(cursor, RecommendationCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_malformed_throws() {
+        assertThrows(InvalidRecommendationCursorException.class, () -> RecommendationCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void startIndexIn_resumesRightAfterCursor() {
+        assertEquals(0, new RecommendationCursor(1.0, FIRST).startIndexIn(ranked));
+        assertEquals(2, RecommendationCursor.after(ranked.get(1)).startIndexIn(ranked));
+        assertEquals(3, RecommendationCursor.after(ranked.get(2)).startIndexIn(ranked));
+    }
+
+    @Test
+    void startIndexIn_cursorUserNoLongerRanked_resumesAtSamePosition() {
+        List<Recommendation> withoutFirst = List.of(ranked.get(0), ranked.get(2));
+
+        // FIRST at 0.7 would sit before SECOND at 0.7, so SECOND comes next
+        assertEquals(1, new RecommendationCursor(0.7, FIRST).startIndexIn(withoutFirst));
+        assertEquals(1, new RecommendationCursor(0.8, FIRST).startIndexIn(withoutFirst));
+    }
+}
@@ -0,0 +1,371 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.dto.CandidateSlotsData;
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
+import com.connect.pairr.model.dto.UserSkillAvailabilityData;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationEngineTest {
+
+    private ForkJoinPool pool;
+    private RecommendationEngine engine;
+    private RequesterSkillData requesterSkill;
+    private List<TimeSlotData> requesterSlots;
+
+    @BeforeEach
+    void setUp() {
+        ScoreCalculator scoreCalculator = new ScoreCalculator(new TimeMatcher());
+        ReflectionTestUtils.setField(scoreCalculator, "maxOverlapHours", 4);
+        pool = new ForkJoinPool(4);
+        engine = new RecommendationEngine(scoreCalculator, pool, BatchScorers.create(scoreCalculator, true));
+
+        requesterSkill = new RequesterSkillData(UUID.randomUUID(), UUID.randomUUID(),
+                ProficiencyLevel.INTERMEDIATE, BigDecimal.valueOf(4.0), BigDecimal.valueOf(4.0));
+        requesterSlots = List.of(new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(12, 0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    // --- Helper factories ---
+
+    private List<UserSkillAvailabilityData> candidate(UUID id, ProficiencyLevel proficiency, LocalTime start, LocalTime end) {
+        return List.of(new UserSkillAvailabilityData(
+                id, "Candidate", proficiency, BigDecimal.valueOf(4.0), BigDecimal.valueOf(4.0), 5L, start, end));
+    }
+
+    private Map<UUID, List<UserSkillAvailabilityData>> randomPopulation(int size) {
+        // Coarse grid so many candidates share a score and tie-breaking is exercised
+        Random random = new Random(7);
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        Map<UUID, List<UserSkillAvailabilityData>> population = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            int startHour = random.nextInt(20);
+            population.put(id, candidate(id, levels[random.nextInt(levels.length)],
+                    LocalTime.of(startHour, 0), LocalTime.of(startHour + 1 + random.nextInt(3), 0)));
+        }
+        return population;
+    }
+
+    // One candidate's slot rows in the aggregated shape the repository returns
+    private CandidateSlotsData aggregate(List<UserSkillAvailabilityData> slots) {
+        UserSkillAvailabilityData sample = slots.get(0);
+        return new CandidateSlotsData(
+                sample.userId(), sample.displayName(), sample.proficiency().name(),
+                sample.rating(), sample.overallRating(), sample.completedSessionsCount(),
+                slots.stream().mapToInt(slot -> slot.startTime().toSecondOfDay()).toArray(),
+                slots.stream().mapToInt(slot -> slot.endTime().toSecondOfDay()).toArray());
+    }
+
+    private List<Recommendation> recommend(Map<UUID, List<UserSkillAvailabilityData>> candidates, int n, int parallelThreshold) {
+        ReflectionTestUtils.setField(engine, "parallelThreshold", parallelThreshold);
+        return engine.recommend(requesterSlots, requesterSkill, candidates, n);
+    }
+
+    // --- Ranking ---
+
+    @Test
+    void recommend_sortsByScoreDescending() {
+        UUID best = UUID.randomUUID();
+        UUID worst = UUID.randomUUID();
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = Map.of(
+                best, candidate(best, ProficiencyLevel.INTERMEDIATE, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                worst, candidate(worst, ProficiencyLevel.BEGINNER, LocalTime.of(18, 0), LocalTime.of(20, 0)));
+
+        List<Recommendation> result = recommend(candidates, 10, Integer.MAX_VALUE);
+
+        assertEquals(List.of(best, worst), result.stream().map(Recommendation::userId).toList());
+    }
+
+    @Test
+    void recommend_equalScores_breaksTiesByUserId() {
+        UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID third = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = Map.of(
+                third, candidate(third, ProficiencyLevel.EXPERT, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                first, candidate(first, ProficiencyLevel.EXPERT, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                second, candidate(second, ProficiencyLevel.EXPERT, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+
+        List<Recommendation> result = recommend(candidates, 2, Integer.MAX_VALUE);
+
+        assertEquals(List.of(first, second), result.stream().map(Recommendation::userId).toList());
+    }
+
+    @Test
+    void recommend_skipsRequester() {
+        UUID requesterId = requesterSkill.userId();
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = Map.of(
+                requesterId, candidate(requesterId, ProficiencyLevel.INTERMEDIATE, LocalTime.of(9, 0), LocalTime.of(12, 0)));
+
+        assertTrue(recommend(candidates, 10, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void recommend_emptyCandidates_returnsEmpty() {
+        assertTrue(recommend(Map.of(), 10, Integer.MAX_VALUE).isEmpty());
+    }
+
+    // --- Candidate batches ---
+
+    @Test
+    void recommend_batch_matchesPerFactorScoring() {
+        Random random = new Random(13);
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        Map<UUID, List<UserSkillAvailabilityData>> population = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            BigDecimal rating = random.nextInt(4) == 0 ? null : BigDecimal.valueOf(random.nextInt(51), 1);
+            List<UserSkillAvailabilityData> slots = new ArrayList<>();
+            for (int j = 0, count = 1 + random.nextInt(3); j < count; j++) {
+                int start = random.nextInt(23 * 60);
+                slots.add(new UserSkillAvailabilityData(
+                        id, "Candidate", levels[random.nextInt(levels.length)], rating, rating,
+                        random.nextInt(3) == 0 ? null : (long) random.nextInt(30),
+                        LocalTime.ofSecondOfDay(start * 60L), LocalTime.ofSecondOfDay((start + 1 + random.nextInt(60)) * 60L)));
+            }
+            population.put(id, slots);
+        }
+
+        // Reference: the BigDecimal and TimeMatchResult based factor methods, one candidate at a time
+        ScoreCalculator scoreCalculator = (ScoreCalculator) ReflectionTestUtils.getField(engine, "scoreCalculator");
+        List<Recommendation> expected = population.entrySet().stream()
+                .map(entry -> {
+                    UserSkillAvailabilityData sample = entry.getValue().get(0);
+                    double score = scoreCalculator.computeFinalScore(
+                            scoreCalculator.computeTimeScore(requesterSlots, entry.getValue()),
+                            scoreCalculator.proficiencyScore(requesterSkill.proficiency(), sample.proficiency()),
+                            scoreCalculator.skillRatingScore(requesterSkill.rating(), sample.rating()),
+                            scoreCalculator.userRatingScore(requesterSkill.overallRating(), sample.overallRating()),
+                            scoreCalculator.sessionCountScore(sample.completedSessionsCount()));
+                    return new Recommendation(entry.getKey(), sample.displayName(), score);
+                })
+                .sorted(TopRecommendations.RANKING)
+                .limit(50)
+                .toList();
+
+        CandidateBatch batch = CandidateBatch.of(population);
+        assertEquals(expected, engine.recommend(requesterSlots, requesterSkill, batch, 50));
+        ReflectionTestUtils.setField(engine, "parallelThreshold", 0);
+        assertEquals(expected, engine.recommend(requesterSlots, requesterSkill, batch, 50));
+    }
+
+    @Test
+    void recommend_restrictedBatch_scoresOnlySelectedUsers() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = new HashMap<>();
+        candidates.put(first, candidate(first, ProficiencyLevel.INTERMEDIATE, LocalTime.of(9, 0), LocalTime.of(12, 0)));
+        candidates.put(second, candidate(second, ProficiencyLevel.INTERMEDIATE, LocalTime.of(9, 0), LocalTime.of(12, 0)));
+
+        CandidateBatch restricted = CandidateBatch.of(candidates).restrictTo(Set.of(second, UUID.randomUUID()));
+        List<Recommendation> result = engine.recommend(requesterSlots, requesterSkill, restricted, 5);
+
+        assertEquals(List.of(second), result.stream().map(Recommendation::userId).toList());
+    }
+
+    @Test
+    void recommend_stats_countCandidatesAndSlotsOnEveryPath() {
+        Map<UUID, List<UserSkillAvailabilityData>> population = randomPopulation(3_000);
+        UUID withTwoSlots = population.keySet().iterator().next();
+        List<UserSkillAvailabilityData> slots = population.get(withTwoSlots);
+        population.put(withTwoSlots, List.of(slots.get(0), slots.get(0)));
+
+        ScoringStats sequential = ScoringStats.collecting(true);
+        engine.recommend(requesterSlots, requesterSkill, CandidateBatch.of(population), 10, sequential);
+        ReflectionTestUtils.setField(engine, "parallelThreshold", 0);
+        ScoringStats parallel = ScoringStats.collecting(true);
+        engine.recommend(requesterSlots, requesterSkill, CandidateBatch.of(population), 10, parallel);
+        ScoringStats streamed = ScoringStats.collecting(false);
+        engine.recommend(requesterSlots, requesterSkill, population.values().stream().map(this::aggregate), 10, streamed);
+
+        for (ScoringStats stats : List.of(sequential, parallel, streamed)) {
+            assertEquals(3_000, stats.getCandidates());
+            assertEquals(3_001, stats.getSlots());
+        }
+        assertTrue(sequential.getTimeMatchingNanos() > 0);
+        assertTrue(parallel.getFactorsNanos() > 0);
+        assertEquals(0, streamed.getTimeMatchingNanos());
+    }
+
+    // --- Streaming path ---
+
+    @Test
+    void recommend_streamedAggregatedRows_matchesGroupedCandidates() {
+        Map<UUID, List<UserSkillAvailabilityData>> population = randomPopulation(2_000);
+        // Give some candidates a second slot so the slot arrays carry more than one entry
+        population.replaceAll((id, slots) -> id.getLeastSignificantBits() % 2 == 0 ? slots : List.of(
+                slots.get(0),
+                new UserSkillAvailabilityData(id, "Candidate", slots.get(0).proficiency(), slots.get(0).rating(),
+                        slots.get(0).overallRating(), 5L, LocalTime.of(20, 0), LocalTime.of(22, 0))));
+
+        Stream<CandidateSlotsData> rows = population.values().stream().map(this::aggregate);
+
+        List<Recommendation> streamed = engine.recommend(requesterSlots, requesterSkill, rows, 25);
+
+        assertEquals(recommend(population, 25, Integer.MAX_VALUE), streamed);
+    }
+
+    @Test
+    void recommend_aggregatedSlotRows_matchesGroupedCandidates() {
+        Map<UUID, List<UserSkillAvailabilityData>> population = randomPopulation(2_000);
+        // A second slot, crossing midnight for some, so the slot arrays carry more than one entry
+        population.replaceAll((id, slots) -> id.getLeastSignificantBits() % 2 == 0 ? slots : List.of(
+                slots.get(0),
+                new UserSkillAvailabilityData(id, "Candidate", slots.get(0).proficiency(), slots.get(0).rating(),
+                        slots.get(0).overallRating(), 5L, LocalTime.of(20, 0), LocalTime.of(id.hashCode() % 2 == 0 ? 22 : 1, 0))));
+
+        List<CandidateSlotsData> aggregated = population.values().stream().map(this::aggregate).toList();
+
+        CandidateBatch batch = CandidateBatch.of(aggregated);
+
+        assertEquals(2_000, batch.size());
+        assertEquals(CandidateBatch.of(population).slotCount(), batch.slotCount());
+        assertEquals(recommend(population, 25, Integer.MAX_VALUE),
+                engine.recommend(requesterSlots, requesterSkill, batch, 25));
+    }
+
+    // --- Pruning ---
+
+    @Test
+    void recommend_pruning_matchesUnprunedResult() {
+        Random random = new Random(11);
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        Map<UUID, List<UserSkillAvailabilityData>> population = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            int startHour = random.nextInt(20);
+            population.put(id, List.of(new UserSkillAvailabilityData(
+                    id, "Candidate", levels[random.nextInt(levels.length)],
+                    BigDecimal.valueOf(random.nextInt(11), 1).multiply(BigDecimal.valueOf(5)),
+                    BigDecimal.valueOf(random.nextInt(11), 1).multiply(BigDecimal.valueOf(5)),
+                    (long) random.nextInt(30),
+                    LocalTime.of(startHour, 0), LocalTime.of(startHour + 1 + random.nextInt(3), 0))));
+        }
+
+        for (int n : new int[]{1, 10, 100}) {
+            ReflectionTestUtils.setField(engine, "pruningEnabled", false);
+            List<Recommendation> unpruned = recommend(population, n, Integer.MAX_VALUE);
+            ReflectionTestUtils.setField(engine, "pruningEnabled", true);
+
+            assertEquals(unpruned, recommend(population, n, Integer.MAX_VALUE));
+            assertEquals(unpruned, recommend(population, n, 0));
+        }
+        assertTrue(engine.getPrunedCandidatesCount() > 0);
+    }
+
+    @Test
+    void recommend_candidateThatCannotEnterFullHeap_isPruned() {
+        UUID strong = UUID.randomUUID();
+        UUID weak = UUID.randomUUID();
+        Map<UUID, List<UserSkillAvailabilityData>> candidates = new LinkedHashMap<>();
+        candidates.put(strong, candidate(strong, ProficiencyLevel.INTERMEDIATE, LocalTime.of(9, 0), LocalTime.of(12, 0)));
+        candidates.put(weak, List.of(new UserSkillAvailabilityData(
+                weak, "Candidate", ProficiencyLevel.EXPERT, BigDecimal.ZERO, BigDecimal.ZERO, 0L,
+                LocalTime.of(9, 0), LocalTime.of(12, 0))));
+
+        List<Recommendation> result = recommend(candidates, 1, Integer.MAX_VALUE);
+
+        assertEquals(List.of(strong), result.stream().map(Recommendation::userId).toList());
+        assertEquals(1, engine.getPrunedCandidatesCount());
+    }
+
+    // --- Bounded-latency path ---
+
+    private Map<UUID, List<UserSkillAvailabilityData>> ratedPopulation(int size) {
+        Random random = new Random(13);
+        ProficiencyLevel[] levels = ProficiencyLevel.values();
+        Map<UUID, List<UserSkillAvailabilityData>> population = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            int startHour = random.nextInt(20);
+            BigDecimal rating = random.nextInt(5) == 0 ? null
+                    : BigDecimal.valueOf(random.nextInt(11), 1).multiply(BigDecimal.valueOf(5));
+            population.put(id, List.of(new UserSkillAvailabilityData(
+                    id, "Candidate", levels[random.nextInt(levels.length)], rating,
+                    BigDecimal.valueOf(random.nextInt(11), 1).multiply(BigDecimal.valueOf(5)),
+                    (long) random.nextInt(30),
+                    LocalTime.of(startHour, 0), LocalTime.of(startHour + 1 + random.nextInt(3), 0))));
+        }
+        return population;
+    }
+
+    @Test
+    void recommendWithinBudget_unlimitedBudget_matchesExactRanking() {
+        Map<UUID, List<UserSkillAvailabilityData>> population = ratedPopulation(5_000);
+        CandidateBatch batch = CandidateBatch.of(population);
+        ScoringBudget unlimited = new ScoringBudget(Duration.ofMinutes(1), Integer.MAX_VALUE);
+
+        for (int n : new int[]{1, 10, 100}) {
+            BudgetedRanking ranking = engine.recommendWithinBudget(
+                    requesterSlots, requesterSkill, batch, n, unlimited, ScoringStats.NONE);
+
+            assertEquals(recommend(population, n, Integer.MAX_VALUE), ranking.recommendations());
+            assertTrue(ranking.exact());
+            assertEquals(5_000, ranking.candidateCount());
+            // Buckets whose best possible score cannot enter the top N are never scored
+            assertTrue(ranking.evaluatedCount() < ranking.candidateCount());
+        }
+    }
+
+    @Test
+    void recommendWithinBudget_exhaustedBudget_reportsPartialCoverage() {
+        CandidateBatch batch = CandidateBatch.of(ratedPopulation(5_000));
+        ScoringBudget budget = new ScoringBudget(Duration.ofMinutes(1), 300);
+
+        BudgetedRanking ranking = engine.recommendWithinBudget(
+                requesterSlots, requesterSkill, batch, 100, budget, ScoringStats.NONE);
+
+        assertFalse(ranking.exact());
+        assertEquals(100, ranking.recommendations().size());
+        // The budget is checked per block of candidates, so it can be overrun by less than a block
+        assertTrue(ranking.evaluatedCount() >= 300);
+        assertTrue(ranking.evaluatedCount() < 300 + ScoreBlock.SIZE);
+    }
+
+    @Test
+    void recommendWithinBudget_expiredDeadline_scoresNothing() {
+        CandidateBatch batch = CandidateBatch.of(ratedPopulation(1_000));
+        ScoringBudget budget = new ScoringBudget(Duration.ZERO, Integer.MAX_VALUE);
+
+        BudgetedRanking ranking = engine.recommendWithinBudget(
+                requesterSlots, requesterSkill, batch, 10, budget, ScoringStats.NONE);
+
+        assertFalse(ranking.exact());
+        assertEquals(0, ranking.evaluatedCount());
+        assertEquals(List.of(), ranking.recommendations());
+    }
+
+    // --- Parallel path ---
+
+    @Test
+    void recommend_parallel_matchesSequential() {
+        Map<UUID, List<UserSkillAvailabilityData>> population = randomPopulation(20_000);
+
+        for (int n : new int[]{1, 10, 100}) {
+            List<Recommendation> sequential = recommend(population, n, Integer.MAX_VALUE);
+            List<Recommendation> parallel = recommend(population, n, 0);
+
+            assertEquals(n, sequential.size());
+            assertEquals(sequential, parallel);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.connect.pairr.core.recommendation;
+
+import com.connect.pairr.model.enums.DayType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void constructor_registersEveryStageForEveryDayType() {
+        new RecommendationMetrics(registry, true);
+
+        assertEquals(RecommendationMetrics.Stage.values().length * DayType.values().length,
+                registry.get("pairr.recommendation.stage").timers().size());
+        assertNotNull(registry.get("pairr.recommendation.stage")
+                .tags("stage", "time-matching", "dayType", "WEEKEND").timer());
+    }
+
+    @Test
+    void recordScoring_recordsCardinalityAndInnerStagesForItsDayType() {
+        RecommendationMetrics metrics = new RecommendationMetrics(registry, true);
+        ScoringStats stats = metrics.newScoringStats();
+        stats.addCandidates(4, 10);
+        stats.addTimeMatching(2_000);
+        stats.addRanking(1_000);
+
+        metrics.recordScoring(DayType.WEEKDAY, stats);
+
+        assertEquals(4, registry.get("pairr.recommendation.candidates").tag("dayType", "WEEKDAY").summary().totalAmount());
+        assertEquals(10, registry.get("pairr.recommendation.candidate.rows").tag("dayType", "WEEKDAY").summary().totalAmount());
+        assertEquals(2.5, registry.get("pairr.recommendation.slots.per.candidate").tag("dayType", "WEEKDAY").summary().totalAmount());
+        assertEquals(2_000, registry.get("pairr.recommendation.stage")
+                .tags("stage", "time-matching", "dayType", "WEEKDAY").timer().totalTime(TimeUnit.NANOSECONDS));
+        // Stages the call did not go through are not recorded as zero
+        assertEquals(0, registry.get("pairr.recommendation.stage")
+                .tags("stage", "factors", "dayType", "WEEKDAY").timer().count());
+        assertEquals(0, registry.get("pairr.recommendation.candidates").tag("dayType", "WEEKEND").summary().count());
+    }
+
+    @Test
+    void recordScoring_stageTimingDisabled_recordsCountsOnly() {
+        RecommendationMetrics metrics = new RecommendationMetrics(registry, false);
+        ScoringStats stats = metrics.newScoringStats();
+        stats.addCandidates(1, 1);
+        stats.addTimeMatching(2_000);
+
+        metrics.recordScoring(DayType.WEEKDAY, stats);
+
+        assertFalse(stats.isTimed());
+        assertEquals(1, registry.get("pairr.recommendation.candidates").tag("dayType", "WEEKDAY").summary().count());
+        assertEquals(0, registry.get("pairr.recommendation.stage")
+                .tags("stage", "time-matching", "dayType", "WEEKDAY").timer().count());
+    }
+}
@@ -1,7 +1,7 @@
 package com.connect.pairr.core.recommendation;
 
 import com.connect.pairr.model.dto.TimeMatchResult;
-import com.connect.pairr.model.entity.UserAvailability;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.enums.ProficiencyLevel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -101,6 +102,29 @@ class ScoreCalculatorTest {
         assertEquals(0, scoreCalculator.userRatingScore(BigDecimal.valueOf(3), null));
     }
 
+    // --- ratingScore (pre-normalised) ---
+
+    @Test
+    void ratingScore_matchesBigDecimalScore() {
+        for (int requester = 0; requester <= 50; requester++) {
+            for (int candidate = 0; candidate <= 50; candidate++) {
+                BigDecimal requesterRating = BigDecimal.valueOf(requester, 1);
+                BigDecimal candidateRating = BigDecimal.valueOf(candidate, 1);
+                assertEquals(
+                        scoreCalculator.skillRatingScore(requesterRating, candidateRating),
+                        scoreCalculator.ratingScore(
+                                ScoreCalculator.normalizedRating(requesterRating),
+                                ScoreCalculator.normalizedRating(candidateRating)));
+            }
+        }
+    }
+
+    @Test
+    void ratingScore_unrated_returns0() {
+        assertEquals(0.0, scoreCalculator.ratingScore(Double.NaN, 0.8));
+        assertEquals(0.0, scoreCalculator.ratingScore(0.8, ScoreCalculator.normalizedRating(null)));
+    }
+
     // --- computeTimeScore ---
 
     @Test
@@ -110,7 +134,7 @@ class ScoreCalculatorTest {
                 .thenReturn(new TimeMatchResult(2 * 3600, Long.MAX_VALUE));
 
         double score = scoreCalculator.computeTimeScore(
-                List.of(new UserAvailability()), List.of());
+                List.of(new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(12, 0))), List.of());
         assertEquals(0.5, score, 0.001);
     }
 
@@ -121,7 +145,7 @@ class ScoreCalculatorTest {
                 .thenReturn(new TimeMatchResult(6 * 3600, Long.MAX_VALUE));
 
         double score = scoreCalculator.computeTimeScore(
-                List.of(new UserAvailability()), List.of());
+                List.of(new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(12, 0))), List.of());
         assertEquals(1.0, score, 0.001);
     }
 
@@ -132,7 +156,7 @@ class ScoreCalculatorTest {
                 .thenReturn(new TimeMatchResult(0, 3600));
 
         double score = scoreCalculator.computeTimeScore(
-                List.of(new UserAvailability()), List.of());
+                List.of(new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(12, 0))), List.of());
         assertTrue(score > 0 && score < 0.01);
     }
 
@@ -142,7 +166,7 @@ class ScoreCalculatorTest {
                 .thenReturn(new TimeMatchResult(0, Long.MAX_VALUE));
 
         double score = scoreCalculator.computeTimeScore(
-                List.of(new UserAvailability()), List.of());
+                List.of(new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(12, 0))), List.of());
         assertEquals(0.0, score);
     }
 
@@ -1,29 +1,43 @@
 package com.connect.pairr.core.recommendation;
 
 import com.connect.pairr.model.dto.TimeMatchResult;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.dto.UserSkillAvailabilityData;
-import com.connect.pairr.model.entity.UserAvailability;
 import com.connect.pairr.model.enums.ProficiencyLevel;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.math.BigDecimal;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class TimeMatcherTest {
 
-    private final TimeMatcher timeMatcher = new TimeMatcher();
+    // Every scenario runs against both the production sweeps and the original LocalTime sweep;
+    // they must agree exactly
+    private enum Path {
+        INT_ARRAYS, SORTED_SWEEP;
+
+        TimeMatchResult findBestMatch(List<TimeSlotData> requesterSlots, List<UserSkillAvailabilityData> candidateSlots) {
+            TimeMatcher timeMatcher = new TimeMatcher();
+            if (this == INT_ARRAYS) return timeMatcher.findBestMatch(requesterSlots, candidateSlots);
+            if (requesterSlots == null || requesterSlots.isEmpty() || candidateSlots == null || candidateSlots.isEmpty()) {
+                return timeMatcher.findBestMatch(requesterSlots, candidateSlots);
+            }
+            return timeMatcher.findBestMatchSortedSweep(requesterSlots, candidateSlots);
+        }
+    }
 
     // --- Helper factories ---
 
-    private UserAvailability slot(LocalTime start, LocalTime end) {
-        UserAvailability ua = new UserAvailability();
-        ua.setStartTime(start);
-        ua.setEndTime(end);
-        return ua;
+    private TimeSlotData slot(LocalTime start, LocalTime end) {
+        return new TimeSlotData(start, end);
     }
 
     private UserSkillAvailabilityData candidateSlot(LocalTime start, LocalTime end) {
@@ -33,9 +47,10 @@ class TimeMatcherTest {
 
     // --- Full overlap ---
 
-    @Test
-    void identicalWindows_returnsFullOverlap() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void identicalWindows_returnsFullOverlap(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 List.of(slot(LocalTime.of(9, 0), LocalTime.of(12, 0))),
                 List.of(candidateSlot(LocalTime.of(9, 0), LocalTime.of(12, 0))));
 
@@ -45,9 +60,10 @@ class TimeMatcherTest {
 
     // --- Partial overlap ---
 
-    @Test
-    void partialOverlap_returnsCorrectSeconds() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void partialOverlap_returnsCorrectSeconds(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 List.of(slot(LocalTime.of(9, 0), LocalTime.of(12, 0))),
                 List.of(candidateSlot(LocalTime.of(11, 0), LocalTime.of(14, 0))));
 
@@ -56,9 +72,10 @@ class TimeMatcherTest {
 
     // --- No overlap, close windows ---
 
-    @Test
-    void noOverlap_returnsDistance() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void noOverlap_returnsDistance(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 List.of(slot(LocalTime.of(9, 0), LocalTime.of(10, 0))),
                 List.of(candidateSlot(LocalTime.of(11, 0), LocalTime.of(12, 0))));
 
@@ -68,9 +85,10 @@ class TimeMatcherTest {
 
     // --- Multiple slots, picks best overlap ---
 
-    @Test
-    void multipleSlots_picksBestOverlap() {
-        List<UserAvailability> requester = List.of(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void multipleSlots_picksBestOverlap(Path path) {
+        List<TimeSlotData> requester = List.of(
                 slot(LocalTime.of(9, 0), LocalTime.of(10, 0)),
                 slot(LocalTime.of(14, 0), LocalTime.of(18, 0)));
 
@@ -78,16 +96,17 @@ class TimeMatcherTest {
                 candidateSlot(LocalTime.of(9, 30), LocalTime.of(10, 0)),   // 30 min overlap
                 candidateSlot(LocalTime.of(15, 0), LocalTime.of(17, 0))); // 2 hour overlap
 
-        TimeMatchResult result = timeMatcher.findBestMatch(requester, candidate);
+        TimeMatchResult result = path.findBestMatch(requester, candidate);
 
         assertEquals(2 * 3600, result.bestOverlap()); // picks the 2-hour overlap
     }
 
     // --- Null/empty inputs ---
 
-    @Test
-    void nullRequesterSlots_returnsDefaults() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void nullRequesterSlots_returnsDefaults(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 null,
                 List.of(candidateSlot(LocalTime.of(9, 0), LocalTime.of(10, 0))));
 
@@ -95,9 +114,10 @@ class TimeMatcherTest {
         assertEquals(Long.MAX_VALUE, result.bestDistance());
     }
 
-    @Test
-    void emptyCandidateSlots_returnsDefaults() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void emptyCandidateSlots_returnsDefaults(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 List.of(slot(LocalTime.of(9, 0), LocalTime.of(10, 0))),
                 Collections.emptyList());
 
@@ -105,9 +125,10 @@ class TimeMatcherTest {
         assertEquals(Long.MAX_VALUE, result.bestDistance());
     }
 
-    @Test
-    void bothNull_returnsDefaults() {
-        TimeMatchResult result = timeMatcher.findBestMatch(null, null);
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void bothNull_returnsDefaults(Path path) {
+        TimeMatchResult result = path.findBestMatch(null, null);
 
         assertEquals(0, result.bestOverlap());
         assertEquals(Long.MAX_VALUE, result.bestDistance());
@@ -115,10 +136,11 @@ class TimeMatcherTest {
 
     // --- Unsorted input still works ---
 
-    @Test
-    void unsortedInput_stillFindsOverlap() {
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void unsortedInput_stillFindsOverlap(Path path) {
         // Deliberately out of order
-        List<UserAvailability> requester = List.of(
+        List<TimeSlotData> requester = List.of(
                 slot(LocalTime.of(14, 0), LocalTime.of(16, 0)),
                 slot(LocalTime.of(9, 0), LocalTime.of(11, 0)));
 
@@ -126,20 +148,168 @@ class TimeMatcherTest {
                 candidateSlot(LocalTime.of(15, 0), LocalTime.of(18, 0)),
                 candidateSlot(LocalTime.of(8, 0), LocalTime.of(10, 0)));
 
-        TimeMatchResult result = timeMatcher.findBestMatch(requester, candidate);
+        TimeMatchResult result = path.findBestMatch(requester, candidate);
 
         assertTrue(result.bestOverlap() > 0);
     }
 
     // --- Candidate before requester (reversed gap) ---
 
-    @Test
-    void candidateBeforeRequester_returnsDistance() {
-        TimeMatchResult result = timeMatcher.findBestMatch(
+    @ParameterizedTest
+    @EnumSource(Path.class)
+    void candidateBeforeRequester_returnsDistance(Path path) {
+        TimeMatchResult result = path.findBestMatch(
                 List.of(slot(LocalTime.of(14, 0), LocalTime.of(16, 0))),
                 List.of(candidateSlot(LocalTime.of(10, 0), LocalTime.of(12, 0))));
 
         assertEquals(0, result.bestOverlap());
         assertEquals(2 * 3600, result.bestDistance()); // 12:00 to 14:00 = 2 hours
     }
+
+    // --- Slots crossing midnight (production sweeps only) ---
+
+    @Test
+    void midnightCrossingSlots_overlapAcrossMidnight() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        TimeMatchResult result = timeMatcher.findBestMatch(
+                List.of(slot(LocalTime.of(22, 0), LocalTime.of(2, 0))),
+                List.of(candidateSlot(LocalTime.of(23, 0), LocalTime.of(1, 30))));
+
+        assertEquals(2 * 3600 + 1800, result.bestOverlap()); // 23:00-01:30, one continuous stretch
+    }
+
+    @Test
+    void midnightCrossingSlot_overlapsMorningSlot() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        TimeMatchResult result = timeMatcher.findBestMatch(
+                List.of(slot(LocalTime.of(22, 0), LocalTime.of(2, 0))),
+                List.of(candidateSlot(LocalTime.of(1, 0), LocalTime.of(3, 0))));
+
+        assertEquals(3600, result.bestOverlap()); // 01:00-02:00
+    }
+
+    @Test
+    void midnightCrossingSlot_gapsToMorningAndEveningSlots() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        List<TimeSlotData> requester = List.of(slot(LocalTime.of(22, 0), LocalTime.of(2, 0)));
+
+        TimeMatchResult morning = timeMatcher.findBestMatch(requester,
+                List.of(candidateSlot(LocalTime.of(3, 30), LocalTime.of(5, 0))));
+        TimeMatchResult evening = timeMatcher.findBestMatch(requester,
+                List.of(candidateSlot(LocalTime.of(19, 0), LocalTime.of(21, 0))));
+
+        assertEquals(0, morning.bestOverlap());
+        assertEquals(5400, morning.bestDistance()); // 02:00 to 03:30
+        assertEquals(3600, evening.bestDistance()); // 21:00 to 22:00
+    }
+
+    @Test
+    void slotEndingAtMidnight_hasNoMorningPart() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        TimeMatchResult result = timeMatcher.findBestMatch(
+                List.of(slot(LocalTime.of(22, 0), LocalTime.MIDNIGHT)),
+                List.of(candidateSlot(LocalTime.of(23, 0), LocalTime.of(23, 30)),
+                        candidateSlot(LocalTime.of(0, 0), LocalTime.of(1, 0))));
+
+        assertEquals(1800, result.bestOverlap());
+        assertEquals(21 * 3600, result.bestDistance()); // 01:00 to 22:00; the slot does not reach past midnight
+    }
+
+    // --- Linear sweeps agree with a brute-force reference ---
+
+    @Test
+    void randomSlots_includingMidnightCrossing_matchBruteForce() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        Random random = new Random(16);
+
+        for (int run = 0; run < 5_000; run++) {
+            // Up to 12 slots per side, so dense and nested slots are common
+            List<TimeSlotData> requester = new ArrayList<>();
+            List<UserSkillAvailabilityData> candidate = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(12); i < n; i++) {
+                LocalTime[] range = randomAnyRange(random);
+                requester.add(slot(range[0], range[1]));
+            }
+            for (int i = 0, n = 1 + random.nextInt(12); i < n; i++) {
+                LocalTime[] range = randomAnyRange(random);
+                candidate.add(candidateSlot(range[0], range[1]));
+            }
+
+            TimeMatchResult expected = bruteForce(
+                    requester.stream().map(slot -> new LocalTime[]{slot.startTime(), slot.endTime()}).toList(),
+                    candidate.stream().map(c -> new LocalTime[]{c.startTime(), c.endTime()}).toList());
+            assertEquals(expected, timeMatcher.findBestMatch(requester, candidate), "run " + run);
+        }
+    }
+
+    // Every pair of slots, each as [start, end) with a midnight-crossing slot running to end + 24h.
+    // Such a slot is also compared one day back (its morning part) against the other side's slots
+    private static TimeMatchResult bruteForce(List<LocalTime[]> requester, List<LocalTime[]> candidate) {
+        long bestOverlap = 0;
+        long bestDistance = Long.MAX_VALUE;
+        for (LocalTime[] r : requester) {
+            for (LocalTime[] c : candidate) {
+                int rStart = r[0].toSecondOfDay();
+                int rEnd = r[1].toSecondOfDay() + (r[1].isBefore(r[0]) ? 86400 : 0);
+                int cStart = c[0].toSecondOfDay();
+                int cEnd = c[1].toSecondOfDay() + (c[1].isBefore(c[0]) ? 86400 : 0);
+
+                List<Integer> shifts = new ArrayList<>(List.of(0));
+                if (c[1].isBefore(c[0]) && c[1].toSecondOfDay() > 0) shifts.add(-86400);
+                if (r[1].isBefore(r[0]) && r[1].toSecondOfDay() > 0) shifts.add(86400);
+                for (int shift : shifts) {
+                    long overlap = Math.min(rEnd, cEnd + shift) - Math.max(rStart, cStart + shift);
+                    if (overlap > bestOverlap) bestOverlap = overlap;
+                    long distance = rEnd < cStart + shift ? cStart + shift - rEnd
+                            : cEnd + shift < rStart ? rStart - cEnd - shift
+                            : 0;
+                    if (distance != 0 && distance < bestDistance) bestDistance = distance;
+                }
+            }
+        }
+        return TimeMatchResult.builder().bestOverlap(bestOverlap).bestDistance(bestDistance).build();
+    }
+
+    private LocalTime[] randomAnyRange(Random random) {
+        // Quarter-hour grid; a third of the slots cross midnight, some end exactly at it
+        int start = random.nextInt(96);
+        int end = random.nextInt(3) == 0 ? random.nextInt(start + 1) : start + random.nextInt(97 - start);
+        if (end == start) end = (start + 1) % 96;
+        return new LocalTime[]{
+                LocalTime.ofSecondOfDay(start * 900L),
+                end == 96 ? LocalTime.MAX.withNano(0) : LocalTime.ofSecondOfDay(end * 900L)};
+    }
+
+    // --- Both sweeps agree on random inputs ---
+
+    @Test
+    void randomSlots_sweepsAgree() {
+        TimeMatcher timeMatcher = new TimeMatcher();
+        Random random = new Random(42);
+
+        for (int run = 0; run < 1_000; run++) {
+            List<TimeSlotData> requester = new ArrayList<>();
+            List<UserSkillAvailabilityData> candidate = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(6); i < n; i++) {
+                LocalTime[] range = randomRange(random);
+                requester.add(slot(range[0], range[1]));
+            }
+            for (int i = 0, n = 1 + random.nextInt(6); i < n; i++) {
+                LocalTime[] range = randomRange(random);
+                candidate.add(candidateSlot(range[0], range[1]));
+            }
+
+            assertEquals(timeMatcher.findBestMatchSortedSweep(requester, candidate),
+                    timeMatcher.findBestMatch(requester, candidate));
+        }
+    }
+
+    private LocalTime[] randomRange(Random random) {
+        // Quarter-hour grid makes touching and identical slots likely
+        int start = random.nextInt(95);
+        int end = start + 1 + random.nextInt(96 - start);
+        return new LocalTime[]{
+                LocalTime.ofSecondOfDay(start * 900L),
+                end == 96 ? LocalTime.MAX.withNano(0) : LocalTime.ofSecondOfDay(end * 900L)};
+    }
 }
@@ -0,0 +1,107 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.core.recommendation.CandidateIndex;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import com.connect.pairr.model.event.UserAvailabilityChangedEvent;
+import com.connect.pairr.repository.UserSkillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CandidateIndexServiceTest {
+
+    @Mock private UserSkillRepository userSkillRepository;
+
+    private CandidateIndex candidateIndex;
+    private CandidateIndexService candidateIndexService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID skillId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        candidateIndex = new CandidateIndex();
+        candidateIndexService = new CandidateIndexService(candidateIndex, userSkillRepository);
+        ReflectionTestUtils.setField(candidateIndexService, "enabled", true);
+    }
+
+    private CandidateIndexData row(DayType dayType) {
+        return new CandidateIndexData(
+                userId, "User", skillId, ProficiencyLevel.INTERMEDIATE,
+                BigDecimal.valueOf(4), BigDecimal.valueOf(4.5), 3L, dayType,
+                new int[]{LocalTime.of(9, 0).toSecondOfDay()}, new int[]{LocalTime.of(10, 0).toSecondOfDay()});
+    }
+
+    @Test
+    void reloadIndex_picksUpChangesFromOtherInstancesAndAdvancesCurrentAsOf() {
+        Instant loaded = Instant.parse("2026-01-01T12:00:00Z");
+        Instant reloaded = loaded.plusSeconds(300);
+        when(userSkillRepository.currentTransactionStartMillis()).thenReturn(loaded.toEpochMilli(), reloaded.toEpochMilli());
+        // Committed through another instance between the load and the reload; no event reached this one
+        when(userSkillRepository.getCandidateIndexData()).thenReturn(List.of(), List.of(row(DayType.WEEKDAY)));
+
+        assertEquals(Optional.of(Instant.EPOCH), candidateIndexService.currentAsOf());
+        candidateIndexService.loadIndex();
+        assertEquals(Optional.of(loaded), candidateIndexService.currentAsOf());
+
+        candidateIndexService.reloadIndex();
+
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(skillId, DayType.WEEKDAY).keySet());
+        assertEquals(Optional.of(reloaded), candidateIndexService.currentAsOf());
+    }
+
+    @Test
+    void currentAsOf_indexDisabled_isEmpty() {
+        ReflectionTestUtils.setField(candidateIndexService, "enabled", false);
+
+        assertEquals(Optional.empty(), candidateIndexService.currentAsOf());
+    }
+
+    @Test
+    void refreshes_appliedOutOfOrder_keepTheNewerRows() throws Exception {
+        when(userSkillRepository.getCandidateIndexData()).thenReturn(List.of());
+        candidateIndexService.loadIndex();
+
+        // The first refresh reads the user's old rows and stalls; a second refresh after a later commit reads the new ones
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        when(userSkillRepository.getCandidateIndexData(anyCollection()))
+                .thenAnswer(invocation -> {
+                    firstReading.countDown();
+                    assertTrue(releaseFirst.await(5, TimeUnit.SECONDS));
+                    return List.of(row(DayType.WEEKDAY));
+                })
+                .thenReturn(List.of(row(DayType.WEEKEND)));
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(
+                () -> candidateIndexService.onUserAvailabilityChanged(new UserAvailabilityChangedEvent(userId)));
+        assertTrue(firstReading.await(5, TimeUnit.SECONDS));
+        candidateIndexService.onUserAvailabilityChanged(new UserAvailabilityChangedEvent(userId));
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(Set.of(userId), candidateIndex.getCandidates(skillId, DayType.WEEKEND).keySet());
+        assertTrue(candidateIndex.getCandidates(skillId, DayType.WEEKDAY).isEmpty());
+    }
+}
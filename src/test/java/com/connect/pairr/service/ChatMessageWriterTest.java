@@ -0,0 +1,276 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.config.CacheConfig;
+import com.connect.pairr.exception.SelfMessageException;
+import com.connect.pairr.model.dto.ChatRoute;
+import com.connect.pairr.model.dto.MessageResponse;
+import com.connect.pairr.model.dto.PendingMessage;
+import com.connect.pairr.model.dto.SendMessageRequest;
+import com.connect.pairr.repository.MessageBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageWriterTest {
+
+    @Mock private ChatService chatService;
+    @Mock private MessageBatchRepository messageBatchRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final UUID senderId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private final UUID recipientId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private final UUID conversationId = UUID.randomUUID();
+
+    private SimpleMeterRegistry registry;
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) writer.stop();
+    }
+
+    private ChatMessageWriter writer(boolean enabled, int batchSize, Duration flushInterval) {
+        return writer(enabled, batchSize, flushInterval, Duration.ofSeconds(5));
+    }
+
+    private ChatMessageWriter writer(boolean enabled, int batchSize, Duration flushInterval, Duration shutdownTimeout) {
+        return new ChatMessageWriter(chatService, messageBatchRepository, transactionManager,
+                new ConcurrentMapCacheManager(CacheConfig.CHAT_ROUTES_CACHE), registry,
+                enabled, 100, batchSize, flushInterval, 2, Duration.ofMillis(1), shutdownTimeout);
+    }
+
+    private void stubRoute() {
+        when(chatService.resolveRoute(senderId, recipientId))
+                .thenReturn(new ChatRoute(conversationId, senderId, recipientId, "Sender"));
+    }
+
+    private MessageResponse send(String content) {
+        return writer.send(senderId, new SendMessageRequest(recipientId, content));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<PendingMessage>> capturedWrites(int times) {
+        ArgumentCaptor<List<PendingMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageBatchRepository, timeout(5_000).times(times)).insertAll(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void send_deliversAtOnceAndWritesOneOrderedBatch() {
+        stubRoute();
+        writer = writer(true, 3, Duration.ofSeconds(1));
+        writer.start();
+
+        List<MessageResponse> responses = List.of(send("one"), send("two"), send("three"));
+
+        List<PendingMessage> batch = capturedWrites(1).get(0);
+        assertEquals(List.of("one", "two", "three"), batch.stream().map(PendingMessage::content).toList());
+        for (int i = 0; i < 3; i++) {
+            MessageResponse response = responses.get(i);
+            assertEquals(batch.get(i).id(), response.id());
+            assertEquals(batch.get(i).createdAt(), response.createdAt());
+            assertEquals(conversationId, response.conversationId());
+            assertEquals("Sender", response.senderDisplayName());
+            assertFalse(response.read());
+        }
+        assertTrue(batch.get(0).createdAt().isBefore(batch.get(1).createdAt()));
+        assertTrue(batch.get(1).createdAt().isBefore(batch.get(2).createdAt()));
+
+        // The route is resolved once and then served from the cache
+        verify(chatService, times(1)).resolveRoute(senderId, recipientId);
+        assertEquals(3.0, registry.get("pairr.chat.write-behind.batch.size").summary().totalAmount());
+        assertEquals(1, registry.get("pairr.chat.write-behind.flush.latency").timer().count());
+    }
+
+    @Test
+    void stop_writesEveryAcceptedMessageBeforeReturning() {
+        stubRoute();
+        writer = writer(true, 500, Duration.ofMillis(100));
+        writer.start();
+
+        for (int i = 0; i < 5; i++) send("message " + i);
+        writer.stop();
+
+        List<PendingMessage> written = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageBatchRepository, atLeastOnce()).insertAll(captor.capture());
+        captor.getAllValues().forEach(written::addAll);
+        assertEquals(5, written.size());
+        assertFalse(writer.isRunning());
+    }
+
+    @Test
+    void send_whenNotRunning_writesDirectlyBeforeDelivering() {
+        stubRoute();
+        writer = writer(true, 500, Duration.ofMillis(100));
+
+        MessageResponse response = send("hello");
+
+        List<PendingMessage> write = capturedWrites(1).get(0);
+        assertEquals(1, write.size());
+        assertEquals(response.id(), write.get(0).id());
+        assertEquals(1.0, registry.get("pairr.chat.write-behind.direct").counter().count());
+    }
+
+    @Test
+    void send_whenDisabled_writesThroughChatService() {
+        writer = writer(false, 500, Duration.ofMillis(100));
+        writer.start();
+        SendMessageRequest request = new SendMessageRequest(recipientId, "hello");
+        MessageResponse expected = MessageResponse.builder().id(UUID.randomUUID()).build();
+        when(chatService.sendMessage(senderId, request)).thenReturn(expected);
+
+        assertSame(expected, writer.send(senderId, request));
+        assertFalse(writer.isRunning());
+        verifyNoInteractions(messageBatchRepository);
+    }
+
+    @Test
+    void getPhase_stopsAfterTheWebServer() {
+        writer = writer(true, 500, Duration.ofMillis(100));
+
+        // Boot's web server lifecycle stops at DEFAULT_PHASE - 2048, its graceful shutdown at - 1024
+        assertTrue(writer.getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    @Test
+    void send_toSelf_throws() {
+        writer = writer(true, 500, Duration.ofMillis(100));
+
+        assertThrows(SelfMessageException.class,
+                () -> writer.send(senderId, new SendMessageRequest(senderId, "hello")));
+        verifyNoInteractions(chatService, messageBatchRepository);
+    }
+
+    @Test
+    void flush_transactionNotStarted_retriesAndKeepsWriting() {
+        stubRoute();
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("no connection"))
+                .thenReturn(null);
+        writer = writer(true, 2, Duration.ofSeconds(1));
+        writer.start();
+
+        send("one");
+        send("two");
+        List<PendingMessage> batch = capturedWrites(1).get(0);
+        assertEquals(List.of("one", "two"), batch.stream().map(PendingMessage::content).toList());
+
+        // The writer thread survived the failure and still takes new messages
+        send("three");
+        send("four");
+        capturedWrites(2);
+        assertEquals(4.0, registry.get("pairr.chat.write-behind.written").counter().count());
+    }
+
+    @Test
+    void flush_failingBatch_writesOtherMessagesOneByOneAndKeepsTheRejectedOne() {
+        stubRoute();
+        doAnswer(invocation -> {
+            List<PendingMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(m -> m.content().equals("poison"))) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            return null;
+        }).when(messageBatchRepository).insertAll(anyList());
+        writer = writer(true, 3, Duration.ofSeconds(1));
+        writer.start();
+
+        send("one");
+        send("poison");
+        send("three");
+
+        // Two attempts of the batch, then each message on its own
+        List<List<PendingMessage>> writes = capturedWrites(5);
+        assertEquals(3, writes.get(0).size());
+        assertEquals(3, writes.get(1).size());
+        assertEquals(List.of("one", "poison", "three"),
+                writes.subList(2, 5).stream().map(w -> w.get(0).content()).toList());
+        verify(messageBatchRepository, timeout(5_000)).insertDeadLetter(
+                argThat(message -> message.content().equals("poison")), contains("rejected"));
+        assertEquals(1.0, registry.get("pairr.chat.write-behind.dead-lettered").counter().count());
+        assertEquals(2.0, registry.get("pairr.chat.write-behind.written").counter().count());
+    }
+
+    @Test
+    void flush_databaseUnavailable_requeuesAndWritesLater() {
+        stubRoute();
+        // Both attempts of the batch and the single write fail, and so does the dead letter
+        doThrow(new CannotCreateTransactionException("no connection"))
+                .doThrow(new CannotCreateTransactionException("no connection"))
+                .doThrow(new CannotCreateTransactionException("no connection"))
+                .doNothing()
+                .when(messageBatchRepository).insertAll(anyList());
+        doThrow(new CannotCreateTransactionException("no connection"))
+                .when(messageBatchRepository).insertDeadLetter(any(), anyString());
+        writer = writer(true, 1, Duration.ofSeconds(1));
+        writer.start();
+
+        MessageResponse response = send("hello");
+
+        List<List<PendingMessage>> writes = capturedWrites(4);
+        assertEquals(response.id(), writes.get(3).get(0).id());
+        assertEquals(1.0, registry.get("pairr.chat.write-behind.requeued").counter().count());
+        assertEquals(1.0, registry.get("pairr.chat.write-behind.written").counter().count());
+        assertEquals(0.0, registry.get("pairr.chat.write-behind.dead-lettered").counter().count());
+    }
+
+    @Test
+    void stop_writerStuckPastTimeout_writesTheRestOnTheCallingThread() throws Exception {
+        stubRoute();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        }).doNothing().when(messageBatchRepository).insertAll(anyList());
+        writer = writer(true, 1, Duration.ofSeconds(1), Duration.ofMillis(100));
+        writer.start();
+
+        send("stuck");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        send("queued");
+        try {
+            writer.stop();
+
+            List<List<PendingMessage>> writes = capturedWrites(2);
+            assertEquals(List.of("queued"), writes.get(1).stream().map(PendingMessage::content).toList());
+            assertFalse(writer.isRunning());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.connect.pairr.service;
 
+import com.connect.pairr.core.chat.MessageCursor;
 import com.connect.pairr.exception.ConversationNotFoundException;
+import com.connect.pairr.exception.InvalidMessageCursorException;
 import com.connect.pairr.exception.SelfMessageException;
 import com.connect.pairr.exception.UserNotFoundException;
+import com.connect.pairr.model.dto.ChatRoute;
 import com.connect.pairr.model.dto.ConversationResponse;
+import com.connect.pairr.model.dto.ConversationSummaryData;
+import com.connect.pairr.model.dto.MessageHistoryPage;
 import com.connect.pairr.model.dto.MessageResponse;
 import com.connect.pairr.model.dto.SendMessageRequest;
 import com.connect.pairr.model.entity.Conversation;
@@ -29,6 +34,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -101,14 +108,51 @@ class ChatServiceTest {
             m.setCreatedAt(Instant.now());
             return m;
         });
-        when(conversationRepository.save(any(Conversation.class))).thenReturn(existing);
 
-        chatService.sendMessage(senderId, new SendMessageRequest(recipientId, "Hi again"));
+        MessageResponse response = chatService.sendMessage(senderId, new SendMessageRequest(recipientId, "Hi again"));
 
-        // conversationRepository.save called only for lastMessageAt update, not for creation
-        ArgumentCaptor<Conversation> captor = ArgumentCaptor.forClass(Conversation.class);
-        verify(conversationRepository).save(captor.capture());
-        assertEquals(existing.getId(), captor.getValue().getId());
+        // No new conversation; the existing one only gets its inbox columns updated
+        verify(conversationRepository, never()).save(any(Conversation.class));
+        verify(conversationRepository).recordMessage(existing.getId(), senderId, "Hi again", response.createdAt());
+    }
+
+    @Test
+    void sendMessage_longContent_recordsCutPreview() {
+        Conversation existing = Conversation.builder()
+                .id(UUID.randomUUID()).participant1(sender).participant2(recipient)
+                .createdAt(Instant.now()).build();
+
+        when(userRepository.findById(senderId)).thenReturn(Optional.of(sender));
+        when(userRepository.findById(recipientId)).thenReturn(Optional.of(recipient));
+        when(conversationRepository.findByParticipant1IdAndParticipant2Id(senderId, recipientId))
+                .thenReturn(Optional.of(existing));
+        when(messageRepository.save(any(Message.class))).thenAnswer(inv -> {
+            Message m = inv.getArgument(0);
+            m.setId(UUID.randomUUID());
+            m.setCreatedAt(Instant.now());
+            return m;
+        });
+
+        chatService.sendMessage(senderId, new SendMessageRequest(recipientId, "x".repeat(150)));
+
+        verify(conversationRepository).recordMessage(eq(existing.getId()), eq(senderId), eq("x".repeat(100) + "..."), any(Instant.class));
+    }
+
+    @Test
+    void resolveRoute_returnsConversationAndSenderName_withoutWritingMessages() {
+        Conversation existing = Conversation.builder()
+                .id(UUID.randomUUID()).participant1(sender).participant2(recipient)
+                .createdAt(Instant.now()).build();
+
+        when(userRepository.findById(senderId)).thenReturn(Optional.of(sender));
+        when(userRepository.findById(recipientId)).thenReturn(Optional.of(recipient));
+        when(conversationRepository.findByParticipant1IdAndParticipant2Id(senderId, recipientId))
+                .thenReturn(Optional.of(existing));
+
+        ChatRoute route = chatService.resolveRoute(senderId, recipientId);
+
+        assertEquals(new ChatRoute(existing.getId(), senderId, recipientId, "Sender"), route);
+        verifyNoInteractions(messageRepository);
     }
 
     @Test
@@ -174,20 +218,9 @@ class ChatServiceTest {
 
     @Test
     void getConversations_returnsConversationsWithPreviewAndUnreadCount() {
-        Conversation conv = Conversation.builder()
-                .id(UUID.randomUUID()).participant1(sender).participant2(recipient)
-                .lastMessageAt(Instant.now()).createdAt(Instant.now()).build();
-
-        Message lastMsg = Message.builder()
-                .id(UUID.randomUUID()).conversation(conv).sender(recipient)
-                .content("Last message").createdAt(Instant.now()).build();
-
-        when(conversationRepository.findAllByParticipant(eq(senderId), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(conv)));
-        when(messageRepository.findFirstByConversationIdOrderByCreatedAtDesc(conv.getId()))
-                .thenReturn(Optional.of(lastMsg));
-        when(messageRepository.countByConversationIdAndSenderIdNotAndIsReadFalse(conv.getId(), senderId))
-                .thenReturn(5L);
+        ConversationSummaryData row = new ConversationSummaryData(UUID.randomUUID(), recipientId, "Recipient",
+                "Last message", Instant.now(), 5L, 1L);
+        when(conversationRepository.findInboxPage(senderId, 10, 0L)).thenReturn(List.of(row));
 
         Page<ConversationResponse> result = chatService.getConversations(senderId, PageRequest.of(0, 10));
         assertEquals(1, result.getContent().size());
@@ -196,16 +229,47 @@ class ChatServiceTest {
         assertEquals(5L, result.getContent().get(0).unreadCount());
     }
 
+    @Test
+    void getConversations_fullPage_isOneQuery() {
+        List<ConversationSummaryData> rows = List.of(
+                new ConversationSummaryData(UUID.randomUUID(), recipientId, "Recipient", "a", Instant.now(), 0L, 7L),
+                new ConversationSummaryData(UUID.randomUUID(), UUID.randomUUID(), "Other", null, Instant.now(), 2L, 7L));
+        when(conversationRepository.findInboxPage(senderId, 2, 2L)).thenReturn(rows);
+
+        Page<ConversationResponse> result = chatService.getConversations(senderId, PageRequest.of(1, 2));
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(7, result.getTotalElements());
+        assertNull(result.getContent().get(1).lastMessage());
+        // One statement for the whole page: no count query and nothing read from messages
+        verify(conversationRepository, times(1)).findInboxPage(any(), anyInt(), anyLong());
+        verifyNoMoreInteractions(conversationRepository);
+        verifyNoInteractions(messageRepository, userRepository);
+    }
+
+    @Test
+    void getConversations_pastLastPage_countsSeparately() {
+        when(conversationRepository.findInboxPage(senderId, 10, 30L)).thenReturn(List.of());
+        when(conversationRepository.countByParticipant(senderId)).thenReturn(12L);
+
+        Page<ConversationResponse> result = chatService.getConversations(senderId, PageRequest.of(3, 10));
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(12, result.getTotalElements());
+        verifyNoInteractions(messageRepository);
+    }
+
     @Test
     void getMessages_userIsParticipant_marksAsReadAndReturnsMessages() {
         UUID convId = UUID.randomUUID();
+        Instant sentAt = Instant.now();
         Conversation conv = Conversation.builder()
                 .id(convId).participant1(sender).participant2(recipient)
-                .createdAt(Instant.now()).build();
+                .lastMessageAt(sentAt).createdAt(sentAt).build();
 
         Message msg = Message.builder()
                 .id(UUID.randomUUID()).conversation(conv).sender(recipient)
-                .content("Hello").createdAt(Instant.now()).build();
+                .content("Hello").createdAt(sentAt).build();
 
         when(conversationRepository.findById(convId)).thenReturn(Optional.of(conv));
         when(messageRepository.findAllByConversationId(eq(convId), any(Pageable.class)))
@@ -213,16 +277,104 @@ class ChatServiceTest {
 
         Page<MessageResponse> result = chatService.getMessages(senderId, convId, PageRequest.of(0, 50));
         
-        verify(messageRepository).markAllAsRead(convId, senderId);
+        verify(conversationRepository).markRead(convId, senderId);
         assertEquals(1, result.getContent().size());
         assertEquals("Hello", result.getContent().get(0).content());
+        assertTrue(result.getContent().get(0).read());
+    }
+
+    @Test
+    void getMessages_ownMessages_readUpToOtherParticipantsWatermark() {
+        UUID convId = UUID.randomUUID();
+        Instant readUpTo = Instant.parse("2026-01-01T10:00:00Z");
+        Conversation conv = Conversation.builder()
+                .id(convId).participant1(sender).participant2(recipient)
+                .lastMessageAt(readUpTo.plusSeconds(60)).lastReadAtParticipant2(readUpTo)
+                .createdAt(readUpTo.minusSeconds(3600)).build();
+
+        Message seen = Message.builder()
+                .id(UUID.randomUUID()).conversation(conv).sender(sender)
+                .content("Seen").createdAt(readUpTo).build();
+        Message unseen = Message.builder()
+                .id(UUID.randomUUID()).conversation(conv).sender(sender)
+                .content("Unseen").createdAt(readUpTo.plusSeconds(60)).build();
+
+        when(conversationRepository.findById(convId)).thenReturn(Optional.of(conv));
+        when(messageRepository.findAllByConversationId(eq(convId), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(unseen, seen)));
+
+        List<MessageResponse> result = chatService.getMessages(senderId, convId, PageRequest.of(0, 50)).getContent();
+
+        assertEquals("Seen", result.get(0).content());
+        assertTrue(result.get(0).read());
+        assertFalse(result.get(1).read());
+    }
+
+    @Test
+    void getMessageHistory_firstPage_marksReadAndReturnsNextCursor() {
+        UUID convId = UUID.randomUUID();
+        Instant start = Instant.parse("2026-01-01T10:00:00Z");
+        Conversation conv = Conversation.builder()
+                .id(convId).participant1(sender).participant2(recipient)
+                .lastMessageAt(start.plusSeconds(2)).createdAt(start).build();
+        List<Message> newestFirst = List.of(
+                message(conv, "Third", start.plusSeconds(2)),
+                message(conv, "Second", start.plusSeconds(1)),
+                message(conv, "First", start));
+
+        when(conversationRepository.findById(convId)).thenReturn(Optional.of(conv));
+        when(messageRepository.findLatest(convId, Limit.of(3))).thenReturn(newestFirst);
+
+        MessageHistoryPage page = chatService.getMessageHistory(senderId, convId, null, 2);
+
+        verify(conversationRepository).markRead(convId, senderId);
+        assertEquals(List.of("Second", "Third"), page.messages().stream().map(MessageResponse::content).toList());
+        assertEquals(MessageCursor.before(newestFirst.get(1)).encode(), page.nextCursor());
     }
 
     @Test
-    void markMessagesAsRead_callsRepository() {
+    void getMessageHistory_olderPage_seeksFromCursorWithoutCounting() {
+        UUID convId = UUID.randomUUID();
+        Instant start = Instant.parse("2026-01-01T10:00:00Z");
+        Conversation conv = Conversation.builder()
+                .id(convId).participant1(sender).participant2(recipient)
+                .lastMessageAt(start.plusSeconds(2)).createdAt(start).build();
+        MessageCursor cursor = new MessageCursor(start.plusSeconds(1), UUID.randomUUID());
+
+        when(conversationRepository.findById(convId)).thenReturn(Optional.of(conv));
+        when(messageRepository.findBefore(convId, cursor.createdAt(), cursor.id(), Limit.of(3)))
+                .thenReturn(List.of(message(conv, "First", start)));
+
+        MessageHistoryPage page = chatService.getMessageHistory(senderId, convId, cursor.encode(), 2);
+
+        assertEquals(1, page.messages().size());
+        assertNull(page.nextCursor());
+        // Scrolling back neither re-marks the conversation read nor counts its messages
+        verify(conversationRepository, never()).markRead(any(), any());
+        verify(messageRepository, never()).findAllByConversationId(any(), any());
+        verify(messageRepository, never()).count();
+    }
+
+    @Test
+    void getMessageHistory_malformedCursor_throwsBeforeLoading() {
+        assertThrows(InvalidMessageCursorException.class,
+                () -> chatService.getMessageHistory(senderId, UUID.randomUUID(), "not-a-cursor", 50));
+        verifyNoInteractions(conversationRepository, messageRepository);
+    }
+
+    private Message message(Conversation conversation, String content, Instant createdAt) {
+        return Message.builder()
+                .id(UUID.randomUUID()).conversation(conversation).sender(recipient)
+                .content(content).createdAt(createdAt).build();
+    }
+
+    @Test
+    void markMessagesAsRead_updatesOnlyTheConversationRow() {
         UUID convId = UUID.randomUUID();
         chatService.markMessagesAsRead(senderId, convId);
-        verify(messageRepository).markAllAsRead(convId, senderId);
+
+        verify(conversationRepository).markRead(convId, senderId);
+        verifyNoInteractions(messageRepository);
     }
 
     @Test
@@ -0,0 +1,211 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.core.recommendation.ScoreCalculator;
+import com.connect.pairr.core.recommendation.TimeMatcher;
+import com.connect.pairr.exception.RequesterSkillMissingException;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationTarget;
+import com.connect.pairr.model.entity.PrecomputedRecommendation;
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.enums.ProficiencyLevel;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
+import com.connect.pairr.repository.PrecomputedRecommendationRepository;
+import com.connect.pairr.repository.UserSkillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrecomputedRecommendationServiceTest {
+
+    @Mock private PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    @Mock private UserSkillRepository userSkillRepository;
+    @Mock private RecommendationService recommendationService;
+    @Spy private ScoreCalculator scoreCalculator = new ScoreCalculator(new TimeMatcher());
+    @Mock private CandidateIndexService candidateIndexService;
+
+    @InjectMocks
+    private PrecomputedRecommendationService precomputedRecommendationService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID skillId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(precomputedRecommendationService, "enabled", true);
+        ReflectionTestUtils.setField(precomputedRecommendationService, "topK", 50);
+        ReflectionTestUtils.setField(precomputedRecommendationService, "refreshBatchSize", 500);
+    }
+
+    private PrecomputedRecommendation dirtyRow() {
+        return PrecomputedRecommendation.builder()
+                .id(UUID.randomUUID()).userId(userId).skillId(skillId).dayType(DayType.WEEKDAY)
+                .topK(50).recommendations(List.of()).computedAt(Instant.EPOCH).dirty(true).build();
+    }
+
+    @Test
+    void refreshDirty_reRanksAndSavesClean() {
+        PrecomputedRecommendation row = dirtyRow();
+        List<Recommendation> ranked = List.of(Recommendation.builder().userId(UUID.randomUUID()).score(0.7).build());
+        when(precomputedRecommendationRepository.findByDirtyTrue(any())).thenReturn(List.of(row));
+        when(recommendationService.computeLiveRecommendations(userId, skillId, DayType.WEEKDAY, 50)).thenReturn(ranked);
+
+        precomputedRecommendationService.refreshDirty();
+
+        ArgumentCaptor<PrecomputedRecommendation> saved = ArgumentCaptor.forClass(PrecomputedRecommendation.class);
+        verify(precomputedRecommendationRepository).save(saved.capture());
+        assertFalse(saved.getValue().isDirty());
+        assertEquals(ranked, saved.getValue().getRecommendations());
+        assertTrue(saved.getValue().getComputedAt().isAfter(Instant.EPOCH));
+    }
+
+    @Test
+    void refreshDirty_markedDirtyAgainWhileRanking_skipsSave() {
+        when(precomputedRecommendationRepository.findByDirtyTrue(any())).thenReturn(List.of(dirtyRow()));
+        when(recommendationService.computeLiveRecommendations(userId, skillId, DayType.WEEKDAY, 50)).thenReturn(List.of());
+        when(precomputedRecommendationRepository.save(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertDoesNotThrow(() -> precomputedRecommendationService.refreshDirty());
+    }
+
+    @Test
+    void refreshDirty_skillRemoved_deletesRow() {
+        PrecomputedRecommendation row = dirtyRow();
+        when(precomputedRecommendationRepository.findByDirtyTrue(any())).thenReturn(List.of(row));
+        when(recommendationService.computeLiveRecommendations(userId, skillId, DayType.WEEKDAY, 50))
+                .thenThrow(new RequesterSkillMissingException(skillId));
+
+        precomputedRecommendationService.refreshDirty();
+
+        verify(precomputedRecommendationRepository).delete(row);
+        verify(precomputedRecommendationRepository, never()).save(any());
+    }
+
+    @Test
+    void refreshDirty_fullRanking_storesItsCutoff() {
+        ReflectionTestUtils.setField(precomputedRecommendationService, "topK", 2);
+        PrecomputedRecommendation row = dirtyRow();
+        List<Recommendation> ranked = List.of(
+                Recommendation.builder().userId(UUID.randomUUID()).score(0.9).build(),
+                Recommendation.builder().userId(UUID.randomUUID()).score(0.6).build());
+        when(precomputedRecommendationRepository.findByDirtyTrue(any())).thenReturn(List.of(row));
+        when(recommendationService.computeLiveRecommendations(userId, skillId, DayType.WEEKDAY, 2)).thenReturn(ranked);
+
+        precomputedRecommendationService.refreshDirty();
+
+        assertEquals(0.6, row.getCutoffScore());
+    }
+
+    @Test
+    void refreshDirty_indexLoaded_onlyReRanksRowsMarkedBeforeTheLoad() {
+        Instant indexAsOf = Instant.parse("2026-01-01T12:00:00Z");
+        PrecomputedRecommendation row = dirtyRow();
+        when(candidateIndexService.currentAsOf()).thenReturn(Optional.of(indexAsOf));
+        when(precomputedRecommendationRepository.findDirtyMarkedBefore(eq(indexAsOf), any())).thenReturn(List.of(row));
+        when(recommendationService.computeLiveRecommendations(userId, skillId, DayType.WEEKDAY, 50)).thenReturn(List.of());
+
+        precomputedRecommendationService.refreshDirty();
+
+        verify(precomputedRecommendationRepository).save(row);
+        verify(precomputedRecommendationRepository, never()).findByDirtyTrue(any());
+    }
+
+    @Test
+    void rebuildAll_rowMarkedAfterTheIndexLoad_isLeftDirty() {
+        Instant indexAsOf = Instant.parse("2026-01-01T12:00:00Z");
+        PrecomputedRecommendation markedLater = dirtyRow();
+        markedLater.setDirtiedAt(indexAsOf.plusSeconds(1)); // e.g. by another instance, not yet reloaded here
+        when(candidateIndexService.currentAsOf()).thenReturn(Optional.of(indexAsOf));
+        when(userSkillRepository.findUserIdsWithSkillsAfter(any(), any())).thenReturn(List.of(userId));
+        when(precomputedRecommendationRepository.findByUserIdIn(List.of(userId))).thenReturn(List.of(markedLater));
+        when(userSkillRepository.findRecommendationTargets(List.of(userId)))
+                .thenReturn(List.of(new RecommendationTarget(userId, skillId, DayType.WEEKDAY)));
+
+        precomputedRecommendationService.rebuildAll();
+
+        assertTrue(markedLater.isDirty());
+        verifyNoInteractions(recommendationService);
+        verify(precomputedRecommendationRepository, never()).save(any());
+    }
+
+    @Test
+    void rebuildAll_walksUsersInChunksAndRemovesObsoleteRows() {
+        ReflectionTestUtils.setField(precomputedRecommendationService, "rebuildChunkSize", 1);
+        UUID otherUserId = UUID.randomUUID();
+        UUID otherSkillId = UUID.randomUUID();
+        PrecomputedRecommendation existing = dirtyRow();
+        when(userSkillRepository.findUserIdsWithSkillsAfter(new UUID(0, 0), Limit.of(1))).thenReturn(List.of(userId));
+        when(userSkillRepository.findUserIdsWithSkillsAfter(userId, Limit.of(1))).thenReturn(List.of(otherUserId));
+        when(userSkillRepository.findUserIdsWithSkillsAfter(otherUserId, Limit.of(1))).thenReturn(List.of());
+        when(precomputedRecommendationRepository.findByUserIdIn(List.of(userId))).thenReturn(List.of(existing));
+        when(userSkillRepository.findRecommendationTargets(List.of(userId)))
+                .thenReturn(List.of(new RecommendationTarget(userId, skillId, DayType.WEEKDAY)));
+        when(userSkillRepository.findRecommendationTargets(List.of(otherUserId)))
+                .thenReturn(List.of(new RecommendationTarget(otherUserId, otherSkillId, DayType.WEEKEND)));
+        when(recommendationService.computeLiveRecommendations(any(), any(), any(), eq(50))).thenReturn(List.of());
+
+        precomputedRecommendationService.rebuildAll();
+
+        ArgumentCaptor<PrecomputedRecommendation> saved = ArgumentCaptor.forClass(PrecomputedRecommendation.class);
+        verify(precomputedRecommendationRepository, times(2)).save(saved.capture());
+        assertSame(existing, saved.getAllValues().get(0));
+        assertEquals(otherSkillId, saved.getAllValues().get(1).getSkillId());
+        assertEquals(DayType.WEEKEND, saved.getAllValues().get(1).getDayType());
+        verify(precomputedRecommendationRepository).deleteObsolete();
+        verify(precomputedRecommendationRepository, never()).findAll();
+    }
+
+    @Test
+    void onRatingSubmitted_marksRankingsTheRatedUserIsInOrCouldEnter() {
+        UUID ratedUserId = UUID.randomUUID();
+        when(userSkillRepository.getCandidateIndexData(List.of(ratedUserId))).thenReturn(List.of(
+                candidateRow(ratedUserId, DayType.WEEKDAY), candidateRow(ratedUserId, DayType.WEEKEND)));
+
+        precomputedRecommendationService.onRatingSubmitted(new RatingSubmittedEvent(userId, ratedUserId, skillId));
+
+        verify(precomputedRecommendationRepository).markDirtyWhereRequesterOrRanked(ratedUserId);
+        // Rated, with 10 of 20 sessions: best possible 0.45 + 0.20 + 0.15 + 0.10 + 0.05
+        verify(precomputedRecommendationRepository).markDirtyWhereCandidate(
+                skillId, Set.of("WEEKDAY", "WEEKEND"), 0.95);
+    }
+
+    @Test
+    void onUserSkillsChanged_userWithoutSkillsLeft_onlyMarksTheirOwnAndRankedRows() {
+        when(userSkillRepository.getCandidateIndexData(List.of(userId))).thenReturn(List.of());
+
+        precomputedRecommendationService.onUserSkillsChanged(new UserSkillsChangedEvent(userId, Set.of(skillId)));
+
+        verify(precomputedRecommendationRepository).markDirtyWhereRequesterOrRanked(userId);
+        verify(precomputedRecommendationRepository, never()).markDirtyWhereCandidate(any(), any(), anyDouble());
+    }
+
+    private CandidateIndexData candidateRow(UUID candidateId, DayType dayType) {
+        return new CandidateIndexData(candidateId, "Candidate", skillId, ProficiencyLevel.INTERMEDIATE,
+                BigDecimal.valueOf(4), BigDecimal.valueOf(4.5), 10L, dayType,
+                new int[]{LocalTime.of(9, 0).toSecondOfDay()}, new int[]{LocalTime.of(10, 0).toSecondOfDay()});
+    }
+}
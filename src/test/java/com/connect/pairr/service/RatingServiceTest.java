@@ -6,6 +6,7 @@ import com.connect.pairr.model.dto.RatingResponse;
 import com.connect.pairr.model.entity.*;
 import com.connect.pairr.model.enums.ProficiencyLevel;
 import com.connect.pairr.model.enums.Role;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
 import com.connect.pairr.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -32,6 +34,7 @@ class RatingServiceTest {
     @Mock private SkillRepository skillRepository;
     @Mock private UserSkillRepository userSkillRepository;
     @Mock private PairingSessionRepository pairingSessionRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private RatingService ratingService;
@@ -91,6 +94,7 @@ class RatingServiceTest {
         assertEquals(4, response.rating());
         verify(userSkillRepository).save(toUserSkill);
         verify(userRepository).save(toUser);
+        verify(eventPublisher).publishEvent(new RatingSubmittedEvent(fromUserId, toUserId, skillId));
     }
 
     @Test
@@ -0,0 +1,104 @@
+package com.connect.pairr.service;
+
+import com.connect.pairr.config.CacheConfig;
+import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationResult;
+import com.connect.pairr.model.enums.DayType;
+import com.connect.pairr.model.event.RatingSubmittedEvent;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
+import com.connect.pairr.repository.UserSkillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationCacheServiceTest {
+
+    @Mock private UserSkillRepository userSkillRepository;
+
+    private RecommendationCacheService recommendationCache;
+
+    private final UUID requesterId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final UUID skillId = UUID.randomUUID();
+    private final UUID otherSkillId = UUID.randomUUID();
+    private final RecommendationResult result = RecommendationResult.live(List.of(Recommendation.builder()
+            .userId(UUID.randomUUID()).displayName("Candidate").score(0.7).build()));
+
+    @BeforeEach
+    void setUp() {
+        recommendationCache = new RecommendationCacheService(
+                new CaffeineCacheManager(CacheConfig.RECOMMENDATIONS_CACHE, CacheConfig.RECOMMENDATION_SNAPSHOTS_CACHE), userSkillRepository);
+    }
+
+    private RecommendationCacheService.Key key(UUID requester, UUID skill) {
+        return new RecommendationCacheService.Key(requester, skill, DayType.WEEKDAY, 10);
+    }
+
+    @Test
+    void put_thenGet_returnsCachedResult() {
+        recommendationCache.put(key(requesterId, skillId), result, recommendationCache.generation());
+
+        assertEquals(Optional.of(result), recommendationCache.get(key(requesterId, skillId)));
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, otherSkillId)));
+    }
+
+    @Test
+    void invalidate_removesEntriesOfRequesterAndSkill() {
+        long generation = recommendationCache.generation();
+        recommendationCache.put(key(requesterId, otherSkillId), result, generation);
+        recommendationCache.put(key(otherUserId, skillId), result, generation);
+        recommendationCache.put(key(otherUserId, otherSkillId), result, generation);
+
+        recommendationCache.invalidate(List.of(requesterId), List.of(skillId));
+
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, otherSkillId)));
+        assertEquals(Optional.empty(), recommendationCache.get(key(otherUserId, skillId)));
+        assertEquals(Optional.of(result), recommendationCache.get(key(otherUserId, otherSkillId)));
+    }
+
+    @Test
+    void put_afterInvalidationDuringComputation_isDropped() {
+        long generation = recommendationCache.generation();
+        recommendationCache.invalidate(List.of(otherUserId), List.of());
+
+        recommendationCache.put(key(requesterId, skillId), result, generation);
+
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, skillId)));
+    }
+
+    @Test
+    void onUserSkillsChanged_invalidatesPreviousAndCurrentSkills() {
+        recommendationCache.put(key(requesterId, skillId), result, recommendationCache.generation());
+        recommendationCache.put(key(requesterId, otherSkillId), result, recommendationCache.generation());
+        when(userSkillRepository.findSkillIdsByUserIds(List.of(otherUserId))).thenReturn(Set.of(otherSkillId));
+
+        recommendationCache.onUserSkillsChanged(new UserSkillsChangedEvent(otherUserId, Set.of(skillId)));
+
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, skillId)));
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, otherSkillId)));
+    }
+
+    @Test
+    void onRatingSubmitted_invalidatesRatedUsersSkills() {
+        recommendationCache.put(key(requesterId, skillId), result, recommendationCache.generation());
+        recommendationCache.put(key(requesterId, otherSkillId), result, recommendationCache.generation());
+        when(userSkillRepository.findSkillIdsByUserIds(List.of(otherUserId))).thenReturn(Set.of(skillId));
+
+        recommendationCache.onRatingSubmitted(new RatingSubmittedEvent(requesterId, otherUserId, skillId));
+
+        assertEquals(Optional.empty(), recommendationCache.get(key(requesterId, skillId)));
+        assertEquals(Optional.of(result), recommendationCache.get(key(requesterId, otherSkillId)));
+    }
+}
@@ -1,31 +1,66 @@
 package com.connect.pairr.service;
 
+import com.connect.pairr.core.recommendation.AvailabilityIntervalIndex;
+import com.connect.pairr.core.recommendation.BatchScorers;
+import com.connect.pairr.core.recommendation.BudgetedRanking;
+import com.connect.pairr.core.recommendation.CandidateBatch;
+import com.connect.pairr.core.recommendation.CandidateIndex;
 import com.connect.pairr.core.recommendation.RecommendationEngine;
+import com.connect.pairr.core.recommendation.RecommendationMetrics;
+import com.connect.pairr.core.recommendation.ScoreCalculator;
+import com.connect.pairr.core.recommendation.ScoringBudget;
+import com.connect.pairr.core.recommendation.ScoringStats;
+import com.connect.pairr.core.recommendation.TimeMatcher;
 import com.connect.pairr.exception.RequesterAvailabilityMissingException;
 import com.connect.pairr.exception.RequesterSkillMissingException;
+import com.connect.pairr.model.dto.AvailabilitySlotData;
+import com.connect.pairr.model.dto.BatchRecommendationResult;
+import com.connect.pairr.model.dto.CandidateIndexData;
+import com.connect.pairr.model.dto.CandidateSlotsData;
 import com.connect.pairr.model.dto.Recommendation;
+import com.connect.pairr.model.dto.RecommendationPage;
+import com.connect.pairr.model.dto.RecommendationQuery;
+import com.connect.pairr.model.dto.RecommendationResult;
+import com.connect.pairr.model.dto.RequesterProfileData;
+import com.connect.pairr.model.dto.RequesterSkillData;
+import com.connect.pairr.model.dto.TimeSlotData;
 import com.connect.pairr.model.dto.UserSkillAvailabilityData;
 import com.connect.pairr.model.entity.*;
 import com.connect.pairr.model.enums.DayType;
 import com.connect.pairr.model.enums.ProficiencyLevel;
-import com.connect.pairr.model.enums.Role;
+import com.connect.pairr.repository.PrecomputedRecommendationRepository;
 import com.connect.pairr.repository.UserAvailabilityRepository;
 import com.connect.pairr.repository.UserSkillRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RecommendationServiceTest {
@@ -33,65 +68,559 @@ class RecommendationServiceTest {
     @Mock private UserSkillRepository userSkillRepository;
     @Mock private UserAvailabilityRepository userAvailabilityRepository;
     @Mock private RecommendationEngine recommendationEngine;
+    @Mock private CandidateIndex candidateIndex;
+    @Mock private AvailabilityIntervalIndex availabilityIntervalIndex;
+    @Mock private RecommendationCacheService recommendationCache;
+    @Mock private PrecomputedRecommendationRepository precomputedRecommendationRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy private RecommendationMetrics recommendationMetrics = new RecommendationMetrics(meterRegistry, true);
 
     @InjectMocks
     private RecommendationService recommendationService;
 
     private UUID userId;
     private UUID skillId;
-    private UserAvailability availability;
-    private UserSkill userSkill;
+    private TimeSlotData availability;
+    private RequesterSkillData userSkill;
+    private RequesterProfileData requesterProfile;
 
     @BeforeEach
     void setUp() {
         userId = UUID.randomUUID();
         skillId = UUID.randomUUID();
 
-        User user = User.builder().id(userId).email("u@test.com")
-                .displayName("U").password("p").role(Role.USER).createdAt(Instant.now()).build();
-        Category category = Category.builder().id(UUID.randomUUID()).name("Tech").build();
-        Skill skill = Skill.builder().id(skillId).name("Java").category(category).build();
-
-        availability = new UserAvailability();
-        availability.setId(UUID.randomUUID());
-        availability.setUser(user);
-        availability.setDayType(DayType.WEEKDAY);
-        availability.setStartTime(LocalTime.of(9, 0));
-        availability.setEndTime(LocalTime.of(17, 0));
-
-        userSkill = new UserSkill(UUID.randomUUID(), user, skill, ProficiencyLevel.INTERMEDIATE, BigDecimal.valueOf(4));
+        availability = new TimeSlotData(LocalTime.of(9, 0), LocalTime.of(17, 0));
+        userSkill = new RequesterSkillData(userId, skillId, ProficiencyLevel.INTERMEDIATE, BigDecimal.valueOf(4), null);
+        requesterProfile = new RequesterProfileData(userId, skillId, ProficiencyLevel.INTERMEDIATE, BigDecimal.valueOf(4), null,
+                availability.startTime(), availability.endTime());
     }
 
     @Test
     void getRecommendations_happyPath() {
-        when(userAvailabilityRepository.findByUserIdAndDayType(userId, DayType.WEEKDAY))
-                .thenReturn(List.of(availability));
-        when(userSkillRepository.findByUserIdAndSkillId(userId, skillId))
-                .thenReturn(Optional.of(userSkill));
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
 
         UUID candidateId = UUID.randomUUID();
-        UserSkillAvailabilityData candidateData = new UserSkillAvailabilityData(
+        CandidateSlotsData candidateData = new CandidateSlotsData(
                 candidateId, "Candidate", ProficiencyLevel.EXPERT,
                 BigDecimal.valueOf(4.5), BigDecimal.valueOf(4.2), 0L,
-                LocalTime.of(10, 0), LocalTime.of(15, 0));
-        when(userSkillRepository.getRecommendationCandidates(skillId, DayType.WEEKDAY, userId))
-                .thenReturn(List.of(candidateData));
+                new int[]{LocalTime.of(10, 0).toSecondOfDay()}, new int[]{LocalTime.of(15, 0).toSecondOfDay()});
+        when(userSkillRepository.streamRecommendationCandidates(skillId, "WEEKDAY", userId))
+                .thenReturn(Stream.of(candidateData));
 
         Recommendation rec = Recommendation.builder()
                 .userId(candidateId).displayName("Candidate").score(0.85).build();
-        when(recommendationEngine.recommend(anyList(), eq(userSkill), anyMap(), eq(5)))
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), ArgumentMatchers.<Stream<CandidateSlotsData>>any(), eq(5), any(ScoringStats.class)))
+                .thenReturn(List.of(rec));
+
+        RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        assertEquals(RecommendationResult.Source.LIVE, result.source());
+        assertEquals(1, result.recommendations().size());
+        assertEquals(0.85, result.recommendations().get(0).score());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void getRecommendations_indexReady_servesCandidatesFromIndex() {
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+
+        UUID candidateId = UUID.randomUUID();
+        CandidateBatch indexed = CandidateBatch.of(Map.of(candidateId, List.of(new UserSkillAvailabilityData(
+                candidateId, "Candidate", ProficiencyLevel.EXPERT,
+                BigDecimal.valueOf(4.5), BigDecimal.valueOf(4.2), 0L,
+                LocalTime.of(10, 0), LocalTime.of(15, 0)))));
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(indexed);
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), eq(indexed), eq(5), any(ScoringStats.class)))
+                .thenReturn(List.of());
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        verify(userSkillRepository, never()).streamRecommendationCandidates(any(), any(), any());
+    }
+
+    @Test
+    void getRecommendations_overlapFirst_enoughOverlappingCandidates_scoresOnlyThose() {
+        ReflectionTestUtils.setField(recommendationService, "overlapFirst", true);
+        CandidateBatch indexed = stubIndexedCandidates(3);
+        UUID overlappingId = indexed.userId(0);
+        when(availabilityIntervalIndex.isReady()).thenReturn(true);
+        when(availabilityIntervalIndex.findOverlappingUsers(eq(DayType.WEEKDAY), any()))
+                .thenReturn(new HashSet<>(Set.of(overlappingId, userId)));
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(1), any(ScoringStats.class))).thenReturn(List.of());
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 1);
+
+        verify(recommendationEngine).recommend(anyList(), eq(userSkill),
+                argThat((CandidateBatch batch) -> batch.size() == 1 && batch.userId(0).equals(overlappingId)), eq(1), any(ScoringStats.class));
+    }
+
+    @Test
+    void getRecommendations_overlapFirst_tooFewOverlappingCandidates_scoresAll() {
+        ReflectionTestUtils.setField(recommendationService, "overlapFirst", true);
+        CandidateBatch indexed = stubIndexedCandidates(3);
+        when(availabilityIntervalIndex.isReady()).thenReturn(true);
+        when(availabilityIntervalIndex.findOverlappingUsers(eq(DayType.WEEKDAY), any()))
+                .thenReturn(new HashSet<>(Set.of(indexed.userId(0))));
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(2), any(ScoringStats.class))).thenReturn(List.of());
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 2);
+
+        verify(recommendationEngine).recommend(anyList(), eq(userSkill), eq(indexed), eq(2), any(ScoringStats.class));
+    }
+
+    @Test
+    void getRecommendations_byDefault_nonOverlappingCandidateOutranksWeakOverlappingOne() {
+        ScoreCalculator scoreCalculator = new ScoreCalculator(new TimeMatcher());
+        ReflectionTestUtils.setField(scoreCalculator, "maxOverlapHours", 4);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        ReflectionTestUtils.setField(recommendationService, "recommendationEngine",
+                new RecommendationEngine(scoreCalculator, pool, BatchScorers.create(scoreCalculator, false)));
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+
+        // Overlaps the requester's 9:00-17:00 by a minute, but matches nothing else
+        UUID overlappingId = UUID.randomUUID();
+        // Starts a minute after the requester's slot ends, with matching proficiency, rating and sessions
+        UUID adjacentId = UUID.randomUUID();
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(CandidateBatch.of(Map.of(
+                overlappingId, List.of(new UserSkillAvailabilityData(overlappingId, "Overlapping", ProficiencyLevel.BEGINNER,
+                        BigDecimal.valueOf(1), null, 0L, LocalTime.of(16, 59), LocalTime.of(18, 0))),
+                adjacentId, List.of(new UserSkillAvailabilityData(adjacentId, "Adjacent", ProficiencyLevel.INTERMEDIATE,
+                        BigDecimal.valueOf(4), null, 20L, LocalTime.of(17, 1), LocalTime.of(18, 0))))));
+
+        try {
+            RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 1);
+
+            assertEquals(adjacentId, result.recommendations().get(0).userId());
+            verifyNoInteractions(availabilityIntervalIndex);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void getRecommendations_indexReady_recordsStagesTaggedByDayType() {
+        stubIndexedCandidates(2);
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(5), any(ScoringStats.class)))
+                .thenReturn(List.of());
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        for (String stage : List.of("load-requester", "load-candidates", "scoring")) {
+            assertEquals(1, meterRegistry.get("pairr.recommendation.stage")
+                    .tags("stage", stage, "dayType", "WEEKDAY").timer().count(), stage);
+        }
+        assertEquals(0, meterRegistry.get("pairr.recommendation.stage")
+                .tags("stage", "stream", "dayType", "WEEKDAY").timer().count());
+        assertEquals(0, meterRegistry.get("pairr.recommendation.stage")
+                .tags("stage", "scoring", "dayType", "WEEKEND").timer().count());
+        assertEquals(1, meterRegistry.get("pairr.recommendation.candidates")
+                .tag("dayType", "WEEKDAY").summary().count());
+    }
+
+    private CandidateBatch stubIndexedCandidates(int count) {
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+
+        Map<UUID, List<UserSkillAvailabilityData>> indexed = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            UUID candidateId = UUID.randomUUID();
+            indexed.put(candidateId, List.of(new UserSkillAvailabilityData(
+                    candidateId, "Candidate", ProficiencyLevel.EXPERT,
+                    BigDecimal.valueOf(4.5), BigDecimal.valueOf(4.2), 0L,
+                    LocalTime.of(10, 0), LocalTime.of(15, 0))));
+        }
+        CandidateBatch batch = CandidateBatch.of(indexed);
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(batch);
+        return batch;
+    }
+
+    @Test
+    void getRecommendations_approximateLargePool_rankedWithinBudget() {
+        ReflectionTestUtils.setField(recommendationService, "approximateEnabled", true);
+        ReflectionTestUtils.setField(recommendationService, "approximateMinCandidates", 3);
+        ReflectionTestUtils.setField(recommendationService, "approximateTimeLimit", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(recommendationService, "approximateMaxEvaluations", 2);
+        CandidateBatch indexed = stubIndexedCandidates(3);
+        when(recommendationEngine.recommendWithinBudget(anyList(), eq(userSkill), eq(indexed), eq(2),
+                eq(new ScoringBudget(Duration.ofMillis(20), 2)), any(ScoringStats.class)))
+                .thenReturn(new BudgetedRanking(List.of(), 3, 2, false));
+
+        RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 2);
+
+        assertEquals(new RecommendationResult.Coverage(3, 2, false), result.coverage());
+        verify(recommendationEngine, never()).recommend(anyList(), any(), any(CandidateBatch.class), anyInt(), any(ScoringStats.class));
+        assertEquals(1.0, meterRegistry.get("pairr.recommendation.budgeted")
+                .tags("exact", "false", "dayType", "WEEKDAY").counter().count());
+    }
+
+    @Test
+    void getRecommendations_approximateSmallPool_rankedExactly() {
+        ReflectionTestUtils.setField(recommendationService, "approximateEnabled", true);
+        ReflectionTestUtils.setField(recommendationService, "approximateMinCandidates", 4);
+        CandidateBatch indexed = stubIndexedCandidates(3);
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), eq(indexed), eq(2), any(ScoringStats.class)))
+                .thenReturn(List.of());
+
+        RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 2);
+
+        assertNull(result.coverage());
+        verify(recommendationEngine, never()).recommendWithinBudget(any(), any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void getRecommendations_identicalConcurrentRequests_shareOneComputation() throws Exception {
+        ReflectionTestUtils.setField(recommendationService, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(recommendationService, "coalescingWaitTimeout", Duration.ofSeconds(5));
+        CandidateBatch indexed = stubIndexedCandidates(2);
+        CountDownLatch leaderScoring = new CountDownLatch(1);
+        CountDownLatch followerWaiting = awaitCoalesced();
+        Recommendation rec = Recommendation.builder()
+                .userId(indexed.userId(0)).displayName("Candidate").score(0.85).build();
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), eq(indexed), eq(5), any(ScoringStats.class)))
+                .thenAnswer(invocation -> {
+                    leaderScoring.countDown();
+                    assertTrue(followerWaiting.await(5, TimeUnit.SECONDS));
+                    return List.of(rec);
+                });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<RecommendationResult> leader = callers.submit(
+                    () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+            assertTrue(leaderScoring.await(5, TimeUnit.SECONDS));
+            Future<RecommendationResult> follower = callers.submit(
+                    () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+
+            assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(recommendationEngine, times(1)).recommend(anyList(), any(), any(CandidateBatch.class), anyInt(), any(ScoringStats.class));
+        verify(recommendationCache, times(1)).put(any(), any(), anyLong());
+        assertEquals(1.0, meterRegistry.get("pairr.recommendation.coalesced")
+                .tag("dayType", "WEEKDAY").counter().count());
+
+        // The finished computation is not joined again
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), eq(indexed), eq(5), any(ScoringStats.class)))
+                .thenReturn(List.of());
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+        verify(recommendationEngine, times(2)).recommend(anyList(), any(), any(CandidateBatch.class), anyInt(), any(ScoringStats.class));
+    }
+
+    @Test
+    void getRecommendations_identicalConcurrentRequests_shareLeadersException() throws Exception {
+        ReflectionTestUtils.setField(recommendationService, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(recommendationService, "coalescingWaitTimeout", Duration.ofSeconds(5));
+        CountDownLatch leaderLoading = new CountDownLatch(1);
+        CountDownLatch followerWaiting = awaitCoalesced();
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenAnswer(invocation -> {
+                    leaderLoading.countDown();
+                    assertTrue(followerWaiting.await(5, TimeUnit.SECONDS));
+                    return List.of();
+                });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<RecommendationResult> leader = callers.submit(
+                    () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+            assertTrue(leaderLoading.await(5, TimeUnit.SECONDS));
+            Future<RecommendationResult> follower = callers.submit(
+                    () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+
+            for (Future<RecommendationResult> caller : List.of(leader, follower)) {
+                ExecutionException thrown = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(RequesterAvailabilityMissingException.class, thrown.getCause());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(userSkillRepository, times(1)).getRequesterProfile(userId, skillId, DayType.WEEKDAY);
+        verify(recommendationCache, never()).put(any(), any(), anyLong());
+    }
+
+    @Test
+    void getRecommendations_followerWaitingPastTimeout_computesOnItsOwn() throws Exception {
+        ReflectionTestUtils.setField(recommendationService, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(recommendationService, "coalescingWaitTimeout", Duration.ofMillis(50));
+        CandidateBatch indexed = stubIndexedCandidates(2);
+        CountDownLatch leaderScoring = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        Recommendation rec = Recommendation.builder()
+                .userId(indexed.userId(0)).displayName("Candidate").score(0.85).build();
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), eq(indexed), eq(5), any(ScoringStats.class)))
+                .thenAnswer(invocation -> {
+                    leaderScoring.countDown();
+                    assertTrue(releaseLeader.await(5, TimeUnit.SECONDS));
+                    return List.of(rec);
+                })
                 .thenReturn(List.of(rec));
 
-        List<Recommendation> result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<RecommendationResult> leader = callers.submit(
+                    () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+            assertTrue(leaderScoring.await(5, TimeUnit.SECONDS));
+
+            // The leader is still scoring, so this request stops waiting and ranks by itself
+            RecommendationResult follower = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+            releaseLeader.countDown();
+
+            assertEquals(List.of(rec), follower.recommendations());
+            assertEquals(List.of(rec), leader.get(5, TimeUnit.SECONDS).recommendations());
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(recommendationEngine, times(2)).recommend(anyList(), any(), any(CandidateBatch.class), anyInt(), any(ScoringStats.class));
+        assertEquals(1.0, meterRegistry.get("pairr.recommendation.coalesced.timeout")
+                .tag("dayType", "WEEKDAY").counter().count());
+    }
+
+    // Released once a request has joined another's computation
+    private CountDownLatch awaitCoalesced() {
+        CountDownLatch coalesced = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            coalesced.countDown();
+            return null;
+        }).when(recommendationMetrics).recordCoalesced(DayType.WEEKDAY);
+        return coalesced;
+    }
+
+    @Test
+    void getRecommendations_databaseRanges_scoresOnlyShortlist() {
+        ReflectionTestUtils.setField(recommendationService, "candidateSource", RecommendationService.CandidateSource.DATABASE_RANGES);
+        ReflectionTestUtils.setField(recommendationService, "shortlistFactor", 5);
+        ReflectionTestUtils.setField(recommendationService, "maxOverlapHours", 4);
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+
+        UUID candidateId = UUID.randomUUID();
+        CandidateSlotsData candidateData = new CandidateSlotsData(
+                candidateId, "Candidate", ProficiencyLevel.EXPERT,
+                BigDecimal.valueOf(4.5), BigDecimal.valueOf(4.2), 0L,
+                new int[]{10 * 3600}, new int[]{15 * 3600});
+        when(userSkillRepository.findRangeShortlist(skillId, "WEEKDAY", userId, 4 * 3600, 25))
+                .thenReturn(List.of(candidateId));
+        when(userSkillRepository.getRecommendationCandidates(skillId, "WEEKDAY", List.of(candidateId)))
+                .thenReturn(List.of(candidateData));
+        when(recommendationEngine.recommend(anyList(), eq(userSkill),
+                argThat((CandidateBatch batch) -> batch.size() == 1 && batch.userId(0).equals(candidateId)), eq(5), any(ScoringStats.class)))
+                .thenReturn(List.of());
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        verifyNoInteractions(candidateIndex);
+        verify(userSkillRepository, never()).streamRecommendationCandidates(any(), any(), any());
+    }
+
+    @Test
+    void getRecommendations_cleanPrecomputedRow_servedWithoutRanking() {
+        ReflectionTestUtils.setField(recommendationService, "precomputedEnabled", true);
+        List<Recommendation> ranked = List.of(
+                Recommendation.builder().userId(UUID.randomUUID()).score(0.9).build(),
+                Recommendation.builder().userId(UUID.randomUUID()).score(0.8).build());
+        Instant computedAt = Instant.now().minusSeconds(600);
+        when(precomputedRecommendationRepository.findByUserIdAndSkillIdAndDayType(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(Optional.of(PrecomputedRecommendation.builder()
+                        .userId(userId).skillId(skillId).dayType(DayType.WEEKDAY)
+                        .topK(100).recommendations(ranked).computedAt(computedAt).build()));
+
+        RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 1);
+
+        assertEquals(RecommendationResult.Source.PRECOMPUTED, result.source());
+        assertEquals(ranked.subList(0, 1), result.recommendations());
+        assertTrue(result.ageSeconds() >= 600);
+        verifyNoInteractions(userAvailabilityRepository, recommendationEngine);
+    }
+
+    @Test
+    void getRecommendations_dirtyPrecomputedRow_rankedLive() {
+        ReflectionTestUtils.setField(recommendationService, "precomputedEnabled", true);
+        when(precomputedRecommendationRepository.findByUserIdAndSkillIdAndDayType(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(Optional.of(PrecomputedRecommendation.builder()
+                        .userId(userId).skillId(skillId).dayType(DayType.WEEKDAY).topK(100)
+                        .recommendations(List.of()).computedAt(Instant.now()).dirty(true).build()));
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(CandidateBatch.EMPTY);
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(5), any(ScoringStats.class))).thenReturn(List.of());
+
+        RecommendationResult result = recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        assertEquals(RecommendationResult.Source.LIVE, result.source());
+    }
+
+    @Test
+    void getRecommendations_cached_skipsComputation() {
+        RecommendationResult cached = RecommendationResult.live(List.of(Recommendation.builder()
+                .userId(UUID.randomUUID()).displayName("Candidate").score(0.9).build()));
+        when(recommendationCache.get(new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 5)))
+                .thenReturn(Optional.of(cached));
+
+        assertSame(cached, recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
+        verifyNoInteractions(userAvailabilityRepository, userSkillRepository, recommendationEngine);
+    }
+
+    @Test
+    void getRecommendations_computed_isCached() {
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(CandidateBatch.EMPTY);
+        when(recommendationCache.generation()).thenReturn(3L);
+        List<Recommendation> computed = List.of();
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(5), any(ScoringStats.class))).thenReturn(computed);
+
+        recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5);
+
+        verify(recommendationCache).put(eq(new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 5)),
+                argThat(result -> result.recommendations() == computed), eq(3L));
+    }
+
+    @Test
+    void getRecommendationPage_walksSnapshotWithCursor() {
+        ReflectionTestUtils.setField(recommendationService, "snapshotSize", 1000);
+        List<Recommendation> snapshot = List.of(
+                Recommendation.builder().userId(UUID.fromString("00000000-0000-0000-0000-000000000003")).score(0.9).build(),
+                Recommendation.builder().userId(UUID.fromString("00000000-0000-0000-0000-000000000001")).score(0.8).build(),
+                Recommendation.builder().userId(UUID.fromString("00000000-0000-0000-0000-000000000002")).score(0.8).build());
+        when(recommendationCache.getSnapshot(new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 1000)))
+                .thenReturn(Optional.of(new RecommendationCacheService.Snapshot(snapshot, true)));
+
+        RecommendationPage first = recommendationService.getRecommendationPage(userId, skillId, DayType.WEEKDAY, 2, null);
+        RecommendationPage second = recommendationService.getRecommendationPage(userId, skillId, DayType.WEEKDAY, 2, first.nextCursor());
+
+        assertEquals(snapshot.subList(0, 2), first.recommendations());
+        assertEquals(snapshot.subList(2, 3), second.recommendations());
+        assertNull(second.nextCursor());
+        verifyNoInteractions(recommendationEngine, userAvailabilityRepository);
+    }
+
+    @Test
+    void getRecommendationPage_noSnapshot_ranksAndStoresOne() {
+        ReflectionTestUtils.setField(recommendationService, "snapshotSize", 1000);
+        RecommendationCacheService.Key snapshotKey = new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 1000);
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(CandidateBatch.EMPTY);
+        List<Recommendation> ranked = List.of(Recommendation.builder().userId(UUID.randomUUID()).score(0.5).build());
+        when(recommendationEngine.recommend(anyList(), eq(userSkill), any(CandidateBatch.class), eq(1000), any(ScoringStats.class))).thenReturn(ranked);
+
+        RecommendationPage page = recommendationService.getRecommendationPage(userId, skillId, DayType.WEEKDAY, 20, null);
+
+        assertEquals(ranked, page.recommendations());
+        assertNull(page.nextCursor());
+        verify(recommendationCache).putSnapshot(snapshotKey, new RecommendationCacheService.Snapshot(ranked, true));
+    }
+
+    @Test
+    void getRecommendationPage_moreCandidatesThanSnapshotSize_pagesThroughAll() {
+        ReflectionTestUtils.setField(recommendationService, "snapshotSize", 3);
+        ScoreCalculator scoreCalculator = new ScoreCalculator(new TimeMatcher());
+        ReflectionTestUtils.setField(scoreCalculator, "maxOverlapHours", 4);
+        ReflectionTestUtils.setField(recommendationService, "recommendationEngine",
+                new RecommendationEngine(scoreCalculator, ForkJoinPool.commonPool(), BatchScorers.create(scoreCalculator, false)));
+        // Seven candidates, each overlapping the requester's 9:00-17:00 by half an hour less than the previous one
+        Map<UUID, List<UserSkillAvailabilityData>> indexed = new HashMap<>();
+        List<UUID> expectedOrder = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            UUID candidateId = UUID.randomUUID();
+            expectedOrder.add(candidateId);
+            indexed.put(candidateId, List.of(new UserSkillAvailabilityData(candidateId, "Candidate", ProficiencyLevel.INTERMEDIATE,
+                    null, null, 0L, LocalTime.of(13, 0).plusMinutes(30L * i), LocalTime.of(20, 0))));
+        }
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(requesterProfile));
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.getCandidateBatch(skillId, DayType.WEEKDAY)).thenReturn(CandidateBatch.of(indexed));
+        // Snapshots kept in a map, so later pages are served from the stored, deepened snapshot
+        Map<RecommendationCacheService.Key, RecommendationCacheService.Snapshot> snapshots = new HashMap<>();
+        doAnswer(invocation -> snapshots.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(recommendationCache).putSnapshot(any(), any());
+        when(recommendationCache.getSnapshot(any())).thenAnswer(invocation -> Optional.ofNullable(snapshots.get(invocation.getArgument(0))));
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            RecommendationPage page = recommendationService.getRecommendationPage(userId, skillId, DayType.WEEKDAY, 2, cursor);
+            page.recommendations().forEach(recommendation -> seen.add(recommendation.userId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expectedOrder, seen);
+        assertTrue(snapshots.values().iterator().next().complete());
+    }
+
+    @Test
+    void getBatchRecommendations_loadsOnceAndReportsUnservableQueries() {
+        ReflectionTestUtils.setField(recommendationService, "recommendationPool", ForkJoinPool.commonPool());
+        when(recommendationCache.get(any())).thenReturn(Optional.empty());
+        when(userAvailabilityRepository.getAvailabilitySlotData(List.of(userId))).thenReturn(List.of(
+                new AvailabilitySlotData(userId, DayType.WEEKDAY, availability.startTime(), availability.endTime()))); // WEEKDAY only
+        when(userSkillRepository.getRequesterSkills(userId)).thenReturn(List.of(userSkill));
+
+        UUID candidateId = UUID.randomUUID();
+        UUID otherSkillId = UUID.randomUUID();
+        CandidateIndexData row = new CandidateIndexData(
+                candidateId, "Candidate", skillId, ProficiencyLevel.EXPERT,
+                BigDecimal.valueOf(4.5), BigDecimal.valueOf(4.2), 0L, DayType.WEEKDAY,
+                new int[]{LocalTime.of(10, 0).toSecondOfDay()}, new int[]{LocalTime.of(15, 0).toSecondOfDay()});
+        when(userSkillRepository.getBatchRecommendationCandidates(Set.of(skillId), Set.of("WEEKDAY"), userId))
+                .thenReturn(List.of(row));
+        List<Recommendation> computed = List.of(Recommendation.builder().userId(candidateId).score(0.8).build());
+        when(recommendationEngine.recommend(eq(List.of(availability)), eq(userSkill),
+                argThat((CandidateBatch batch) -> batch.size() == 1 && batch.userId(0).equals(candidateId)), eq(5), any(ScoringStats.class)))
+                .thenReturn(computed);
+
+        List<BatchRecommendationResult> results = recommendationService.getBatchRecommendations(userId, List.of(
+                new RecommendationQuery(skillId, DayType.WEEKDAY),
+                new RecommendationQuery(skillId, DayType.WEEKEND),
+                new RecommendationQuery(otherSkillId, DayType.WEEKDAY),
+                new RecommendationQuery(skillId, DayType.WEEKDAY)), 5);
+
+        assertEquals(3, results.size());
+        assertEquals(computed, results.get(0).recommendations());
+        assertNull(results.get(0).error());
+        assertNotNull(results.get(1).error());
+        assertNotNull(results.get(2).error());
+        verify(userSkillRepository, times(1)).getBatchRecommendationCandidates(any(), any(), any());
+        verify(recommendationCache).put(eq(new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 5)),
+                argThat(result -> result.recommendations() == computed), eq(0L));
+    }
+
+    @Test
+    void getBatchRecommendations_allCached_skipsLoading() {
+        List<Recommendation> cached = List.of(Recommendation.builder()
+                .userId(UUID.randomUUID()).displayName("Candidate").score(0.9).build());
+        when(recommendationCache.get(new RecommendationCacheService.Key(userId, skillId, DayType.WEEKDAY, 5)))
+                .thenReturn(Optional.of(RecommendationResult.live(cached)));
+
+        List<BatchRecommendationResult> results = recommendationService.getBatchRecommendations(
+                userId, List.of(new RecommendationQuery(skillId, DayType.WEEKDAY)), 5);
 
-        assertEquals(1, result.size());
-        assertEquals(0.85, result.get(0).score());
+        assertSame(cached, results.get(0).recommendations());
+        verifyNoInteractions(userAvailabilityRepository, userSkillRepository, recommendationEngine);
     }
 
     @Test
     void getRecommendations_noAvailability_throws() {
-        when(userAvailabilityRepository.findByUserIdAndDayType(userId, DayType.WEEKDAY))
-                .thenReturn(Collections.emptyList());
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(new RequesterProfileData(userId, skillId, ProficiencyLevel.INTERMEDIATE,
+                        BigDecimal.valueOf(4), null, null, null)));
 
         assertThrows(RequesterAvailabilityMissingException.class,
                 () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
@@ -99,10 +628,9 @@ class RecommendationServiceTest {
 
     @Test
     void getRecommendations_missingSkill_throws() {
-        when(userAvailabilityRepository.findByUserIdAndDayType(userId, DayType.WEEKDAY))
-                .thenReturn(List.of(availability));
-        when(userSkillRepository.findByUserIdAndSkillId(userId, skillId))
-                .thenReturn(Optional.empty());
+        when(userSkillRepository.getRequesterProfile(userId, skillId, DayType.WEEKDAY))
+                .thenReturn(List.of(new RequesterProfileData(userId, null, null, null, null,
+                        availability.startTime(), availability.endTime())));
 
         assertThrows(RequesterSkillMissingException.class,
                 () -> recommendationService.getRecommendations(userId, skillId, DayType.WEEKDAY, 5));
@@ -5,6 +5,7 @@ import com.connect.pairr.exception.UserNotFoundException;
 import com.connect.pairr.model.dto.AddUserSkillRequest;
 import com.connect.pairr.model.entity.*;
 import com.connect.pairr.model.enums.ProficiencyLevel;
+import com.connect.pairr.model.event.UserSkillsChangedEvent;
 import com.connect.pairr.model.enums.Role;
 import com.connect.pairr.repository.SkillRepository;
 import com.connect.pairr.repository.UserRepository;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.util.*;
@@ -29,6 +31,7 @@ class UserSkillServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private UserSkillRepository userSkillRepository;
     @Mock private SkillRepository skillRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UserSkillService userSkillService;
@@ -69,6 +72,7 @@ class UserSkillServiceTest {
             List<UserSkill> saved = (List<UserSkill>) list;
             return saved.size() == 2;
         }));
+        verify(eventPublisher).publishEvent(new UserSkillsChangedEvent(userId, Set.of()));
     }
 
     @Test
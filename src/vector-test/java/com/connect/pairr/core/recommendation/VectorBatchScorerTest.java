@@ -0,0 +1,15 @@
+package com.connect.pairr.core.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+// Only compiled and run under -Pvector; BatchScorerTest then checks this scorer's results
+class VectorBatchScorerTest {
+
+    @Test
+    void create_vectorModuleAvailable_returnsVectorScorer() {
+        // The vector profile runs surefire with --add-modules jdk.incubator.vector
+        assertInstanceOf(VectorBatchScorer.class, BatchScorers.create(new ScoreCalculator(new TimeMatcher()), true));
+    }
+}
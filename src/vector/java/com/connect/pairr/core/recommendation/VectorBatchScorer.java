@@ -0,0 +1,114 @@
+package com.connect.pairr.core.recommendation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.connect.pairr.core.recommendation.ScoreCalculator.*;
+
+/**
+ * {@link BatchScorer} on {@code jdk.incubator.vector}, scoring {@code SPECIES.length()} candidates
+ * per instruction (4 with AVX2, 8 with AVX-512).
+ *
+ * Each lane performs the same IEEE operations in the same order as the scalar methods (Java
+ * never fuses multiply and add), so results are bit-identical. The two-decimal rounding has no
+ * vector counterpart in this API, and double-to-long lane conversion is not intrinsified on JDK 17,
+ * so {@code floor(x + 0.5)} is built from additions and compares instead, then corrected where
+ * {@code x + 0.5} itself rounded up. This matches {@link Math#round} for non-negative scores.
+ *
+ * Only compiled under the {@code vector} Maven profile, and only created by {@link BatchScorers#create}
+ * when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorBatchScorer implements BatchScorer {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double TWO_POW_52 = 0x1p52;
+
+    // Leftover lanes of each block
+    private final ScalarBatchScorer tail;
+
+    VectorBatchScorer(ScoreCalculator scoreCalculator) {
+        this.tail = new ScalarBatchScorer(scoreCalculator);
+    }
+
+    @Override
+    public void scoreFactors(int requesterLevel, double requesterSkillRating, double requesterOverallRating,
+                             CandidateBatch candidates, int from, int count, ScoreBlock block) {
+        int bound = SPECIES.loopBound(count);
+        // Gather into contiguous columns; indexed vector loads crash C2 on some JDK 17 builds with AVX-512
+        for (int k = 0; k < bound; k++) {
+            int i = candidates.rows[from + k];
+            block.proficiencyLevels[k] = candidates.proficiencyLevels[i];
+            block.skillRatings[k] = candidates.skillRatings[i];
+            block.overallRatings[k] = candidates.overallRatings[i];
+            block.completedSessions[k] = candidates.completedSessions[i];
+        }
+
+        DoubleVector requesterLevels = DoubleVector.broadcast(SPECIES, requesterLevel);
+        for (int k = 0; k < bound; k += SPECIES.length()) {
+            // 1 - |requester - candidate| / maxDiff
+            DoubleVector levels = DoubleVector.fromArray(SPECIES, block.proficiencyLevels, k);
+            DoubleVector.broadcast(SPECIES, 1.0)
+                    .sub(requesterLevels.sub(levels).abs().div(MAX_PROFICIENCY_DIFF))
+                    .intoArray(block.proficiencyScores, k);
+
+            ratingScores(requesterSkillRating, block.skillRatings, k).intoArray(block.skillRatingScores, k);
+            ratingScores(requesterOverallRating, block.overallRatings, k).intoArray(block.userRatingScores, k);
+
+            // min(sessions / cap, 1); no sessions already gives 0
+            DoubleVector.fromArray(SPECIES, block.completedSessions, k)
+                    .div(SESSION_COUNT_CAP)
+                    .min(1.0)
+                    .intoArray(block.sessionCountScores, k);
+        }
+        tail.scoreFactors(requesterLevel, requesterSkillRating, requesterOverallRating, candidates, from, bound, count, block);
+    }
+
+    @Override
+    public void upperBounds(ScoreBlock block, int count) {
+        DoubleVector perfectTime = DoubleVector.broadcast(SPECIES, 1.0);
+        int bound = SPECIES.loopBound(count);
+        for (int k = 0; k < bound; k += SPECIES.length()) {
+            weightedSum(perfectTime, block, k).intoArray(block.upperBounds, k);
+        }
+        tail.upperBounds(block, bound, count);
+    }
+
+    @Override
+    public void finalScores(ScoreBlock block, int count) {
+        int bound = SPECIES.loopBound(count);
+        for (int k = 0; k < bound; k += SPECIES.length()) {
+            weightedSum(DoubleVector.fromArray(SPECIES, block.timeScores, k), block, k).intoArray(block.finalScores, k);
+        }
+        tail.finalScores(block, bound, count);
+    }
+
+    // 1 - |candidate - requester|, or 0 where either side is unrated (NaN)
+    private static DoubleVector ratingScores(double requesterRating, double[] ratings, int k) {
+        if (Double.isNaN(requesterRating)) return DoubleVector.zero(SPECIES);
+
+        DoubleVector candidateRatings = DoubleVector.fromArray(SPECIES, ratings, k);
+        VectorMask<Double> rated = candidateRatings.test(VectorOperators.IS_NAN).not();
+        DoubleVector scores = DoubleVector.broadcast(SPECIES, 1.0)
+                .sub(candidateRatings.sub(requesterRating).abs());
+        return DoubleVector.zero(SPECIES).blend(scores, rated);
+    }
+
+    // Same association order as ScoreCalculator.computeFinalScore, then Math.round(raw * 100) / 100
+    private static DoubleVector weightedSum(DoubleVector timeScores, ScoreBlock block, int k) {
+        DoubleVector raw = timeScores.mul(TIME_WEIGHT)
+                .add(DoubleVector.fromArray(SPECIES, block.proficiencyScores, k).mul(PROFICIENCY_WEIGHT))
+                .add(DoubleVector.fromArray(SPECIES, block.skillRatingScores, k).mul(SKILL_RATING_WEIGHT))
+                .add(DoubleVector.fromArray(SPECIES, block.userRatingScores, k).mul(USER_RATING_WEIGHT))
+                .add(DoubleVector.fromArray(SPECIES, block.sessionCountScores, k).mul(SESSION_COUNT_WEIGHT));
+
+        DoubleVector hundredths = raw.mul(100.0);
+        DoubleVector halfUp = hundredths.add(0.5);
+        // Adding and removing 2^52 rounds to the nearest integer; step back where that went up
+        DoubleVector nearest = halfUp.add(TWO_POW_52).sub(TWO_POW_52);
+        DoubleVector floor = nearest.sub(1.0, nearest.compare(VectorOperators.GT, halfUp));
+        // x + 0.5 can itself round up to the next integer when x is just below a half; Math.round does not
+        return floor.sub(1.0, hundredths.lt(floor.sub(0.5))).div(100.0);
+    }
+}